@@ -0,0 +1,97 @@
+package com.danielarnett.benchmarks;
+
+import com.danielarnett.DriftCache;
+import com.danielarnett.FreeFallCalculator;
+import com.danielarnett.WindSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks drift calculation, one scenario at a time and as a batch.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@State(Scope.Thread)
+public class FreeFallCalculatorBenchmark {
+    private static final int SCENARIO_COUNT = 1024;
+    /**
+     * The number of distinct altitude pairs asked of the cached calculator, like the handful of
+     * exit and deployment altitudes a drop zone actually uses.
+     */
+    private static final int COMMON_SCENARIO_COUNT = 16;
+
+    @Param({"4", "20", "50", "200"})
+    public int windCount;
+
+    @Param({"1", "10", "100"})
+    public double feetPerStep;
+
+    FreeFallCalculator calculator;
+    FreeFallCalculator cachedCalculator;
+    WindSnapshot snapshot;
+    double[] exitAltitudes = new double[SCENARIO_COUNT];
+    double[] deploymentAltitudes = new double[SCENARIO_COUNT];
+    double[] freefallTimes = new double[SCENARIO_COUNT];
+    double[] driftDistances = new double[SCENARIO_COUNT];
+    double[] driftHeadings = new double[SCENARIO_COUNT];
+    int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        calculator = new FreeFallCalculator(13500, 3500);
+        calculator.winds = new WindProfiles(windCount).newWinds();
+        calculator.winds.interpolateWindspeedLinearly(WindProfiles.stepsFor(feetPerStep));
+        snapshot = calculator.winds.snapshot();
+        cachedCalculator = new FreeFallCalculator(13500, 3500);
+        cachedCalculator.winds = calculator.winds;
+        cachedCalculator.setDriftCache(new DriftCache(4 * COMMON_SCENARIO_COUNT));
+        WindProfiles.randomScenarios(exitAltitudes, deploymentAltitudes);
+    }
+
+    /**
+     * Calculate the drift of one random scenario through the calculator.
+     */
+    @Benchmark
+    public double getHorizontalDistanceTraveled() {
+        next = (next + 1) & (SCENARIO_COUNT - 1);
+        calculator.setDeploymentAltitude(deploymentAltitudes[next]);
+        calculator.setExitAltitude(exitAltitudes[next]);
+        return calculator.getHorizontalDistanceTraveled();
+    }
+
+    /**
+     * Look up the drift of one of a few common scenarios through a calculator with a drift cache.
+     */
+    @Benchmark
+    public double getCachedHorizontalDistanceTraveled() {
+        next = (next + 1) & (COMMON_SCENARIO_COUNT - 1);
+        cachedCalculator.setDeploymentAltitude(deploymentAltitudes[next]);
+        cachedCalculator.setExitAltitude(exitAltitudes[next]);
+        return cachedCalculator.getHorizontalDistanceTraveled();
+    }
+
+    /**
+     * Calculate the drift of SCENARIO_COUNT scenarios with the batch API.
+     */
+    @Benchmark
+    public double[] evaluateBatch() {
+        FreeFallCalculator.evaluate(snapshot, exitAltitudes, deploymentAltitudes,
+                freefallTimes, driftDistances, driftHeadings);
+        return driftDistances;
+    }
+}
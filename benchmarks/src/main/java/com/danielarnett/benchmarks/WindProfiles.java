@@ -0,0 +1,75 @@
+package com.danielarnett.benchmarks;
+
+import com.danielarnett.Winds;
+
+import java.util.Random;
+
+/**
+ * Builds repeatable wind profiles and altitude ranges for the benchmarks.
+ */
+final class WindProfiles {
+    static final double LOWEST_ALTITUDE = 1000;
+    static final double HIGHEST_ALTITUDE = 18000;
+    private static final long SEED = 42;
+
+    final double[] altitudes;
+    final double[] speeds;
+    final double[] headings;
+
+    /**
+     * Creates a profile of evenly spaced winds between LOWEST_ALTITUDE and HIGHEST_ALTITUDE,
+     * listed in a shuffled order so that adding them exercises out of order insertion.
+     * @param windCount The number of measured winds.
+     */
+    WindProfiles(int windCount) {
+        Random random = new Random(SEED);
+        altitudes = new double[windCount];
+        speeds    = new double[windCount];
+        headings  = new double[windCount];
+        double spacing = (HIGHEST_ALTITUDE - LOWEST_ALTITUDE) / (windCount - 1);
+        for (int i = 0; i < windCount; i++) {
+            altitudes[i] = LOWEST_ALTITUDE + i * spacing;
+            speeds[i]    = 5 + 45 * random.nextDouble();
+            headings[i]  = 360 * random.nextDouble();
+        }
+        for (int i = windCount - 1; 0 < i; i--) {
+            int j = random.nextInt(i + 1);
+            swap(altitudes, i, j);
+            swap(speeds, i, j);
+            swap(headings, i, j);
+        }
+    }
+
+    /**
+     * @return A new Winds object holding the profile.
+     */
+    Winds newWinds() {
+        return new Winds(altitudes, speeds, headings);
+    }
+
+    /**
+     * @return The number of interpolation steps needed for a grid with the given spacing.
+     */
+    static double stepsFor(double feetPerStep) {
+        return (HIGHEST_ALTITUDE - LOWEST_ALTITUDE) / feetPerStep;
+    }
+
+    /**
+     * Fill arrays with random exit and deployment altitude pairs inside the profile.
+     */
+    static void randomScenarios(double[] exitAltitudes, double[] deploymentAltitudes) {
+        Random random = new Random(SEED);
+        for (int i = 0; i < exitAltitudes.length; i++) {
+            double exitAltitude = 4000 + (HIGHEST_ALTITUDE - 4000) * random.nextDouble();
+            double deploymentAltitude = 2000 + (exitAltitude - 3000) * random.nextDouble();
+            exitAltitudes[i] = Math.rint(exitAltitude);
+            deploymentAltitudes[i] = Math.rint(deploymentAltitude);
+        }
+    }
+
+    private static void swap(double[] values, int i, int j) {
+        double temp = values[i];
+        values[i] = values[j];
+        values[j] = temp;
+    }
+}
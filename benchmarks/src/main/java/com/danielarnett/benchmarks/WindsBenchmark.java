@@ -0,0 +1,159 @@
+package com.danielarnett.benchmarks;
+
+import com.danielarnett.WindInterpolator;
+import com.danielarnett.WindSnapshot;
+import com.danielarnett.Winds;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the hot paths of Winds across profile sizes, grid resolutions and interpolators.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class WindsBenchmark {
+    private static final int RANGE_COUNT = 1024;
+
+    /**
+     * A measured profile, for benchmarks that do not depend on the grid resolution.
+     */
+    @State(Scope.Benchmark)
+    public static class ProfileState {
+        @Param({"4", "20", "50", "200"})
+        public int windCount;
+
+        WindProfiles profile;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            profile = new WindProfiles(windCount);
+        }
+    }
+
+    /**
+     * A measured profile with a chosen interpolator, plus random altitude ranges to query.
+     */
+    @State(Scope.Thread)
+    public static class CurveState {
+        @Param({"4", "20", "50", "200"})
+        public int windCount;
+
+        @Param({"LINEAR", "MONOTONE_CUBIC", "NATURAL_SPLINE"})
+        public String interpolator;
+
+        Winds winds;
+        WindInterpolator[] interpolators;
+        boolean alternate;
+        double[] lo = new double[RANGE_COUNT];
+        double[] hi = new double[RANGE_COUNT];
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            winds = new WindProfiles(windCount).newWinds();
+            WindInterpolator chosen = interpolator(interpolator);
+            // Two distinct instances that fit the same way, so alternating between them forces a refit
+            interpolators = new WindInterpolator[] { chosen, (altitudes, x, y) -> chosen.fit(altitudes, x, y) };
+            winds.setInterpolator(chosen);
+            WindProfiles.randomScenarios(hi, lo);
+        }
+
+        int nextRange() {
+            next = (next + 1) & (RANGE_COUNT - 1);
+            return next;
+        }
+
+        private static WindInterpolator interpolator(String name) {
+            switch (name) {
+                case "MONOTONE_CUBIC":
+                    return WindInterpolator.MONOTONE_CUBIC;
+                case "NATURAL_SPLINE":
+                    return WindInterpolator.NATURAL_SPLINE;
+                default:
+                    return WindInterpolator.LINEAR;
+            }
+        }
+    }
+
+    /**
+     * A measured profile interpolated at a given resolution.
+     */
+    @State(Scope.Thread)
+    public static class GridState {
+        @Param({"4", "20", "50", "200"})
+        public int windCount;
+
+        @Param({"1", "10", "100"})
+        public double feetPerStep;
+
+        Winds winds;
+        double steps;
+        boolean alternate;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            winds = new WindProfiles(windCount).newWinds();
+            steps = WindProfiles.stepsFor(feetPerStep);
+            winds.interpolateWindspeedLinearly(steps);
+        }
+    }
+
+    /**
+     * Build a profile from scratch with addWind().
+     */
+    @Benchmark
+    public Winds addWind(ProfileState state) {
+        WindProfiles profile = state.profile;
+        Winds winds = new Winds();
+        for (int i = 0; i < profile.altitudes.length; i++) {
+            winds.addWind(profile.altitudes[i], profile.speeds[i], profile.headings[i]);
+        }
+        return winds;
+    }
+
+    /**
+     * Rebuild the interpolated grid. Interpolation is skipped when nothing has changed, so the
+     * step count alternates by one to force a rebuild on every call.
+     */
+    @Benchmark
+    public Winds interpolateWindspeedLinearly(GridState state) {
+        state.alternate = !state.alternate;
+        state.winds.interpolateWindspeedLinearly(state.alternate ? state.steps + 1 : state.steps);
+        return state.winds;
+    }
+
+    /**
+     * Fit a new curve for a snapshot. The interpolator alternates between two equivalent
+     * instances to force a refit on every call.
+     */
+    @Benchmark
+    public WindSnapshot fitCurve(CurveState state) {
+        state.alternate = !state.alternate;
+        state.winds.setInterpolator(state.interpolators[state.alternate ? 1 : 0]);
+        return state.winds.snapshot();
+    }
+
+    /**
+     * Average the winds over a random altitude range with the curve already fitted.
+     */
+    @Benchmark
+    public double getAverageWindspeedInRange(CurveState state) {
+        int i = state.nextRange();
+        return state.winds.getAverageWindspeedInRange(state.lo[i], state.hi[i]);
+    }
+}
@@ -0,0 +1,92 @@
+package com.danielarnett;
+
+/**
+ * Describes how a canopy flies. A canopy is defined by its area and by its airspeed and sink rate
+ * in full flight at a wing loading of one pound per square foot at sea level. Both speeds grow
+ * with the square root of the wing loading, and with the inverse square root of the air density,
+ * so a heavier jumper or thinner air makes the same canopy fly faster and come down faster at the
+ * same glide ratio.
+ */
+public final class Canopy {
+    /** A large, docile student canopy. */
+    public static final Canopy STUDENT = new Canopy("Student 260", 260, 21, 14);
+    /** A typical sport canopy. */
+    public static final Canopy SPORT = new Canopy("Sport 170", 170, 24, 13);
+
+    private final String name;
+    private final double areaInSquareFeet;
+    private final double airspeedInMph;
+    private final double sinkRateInFps;
+
+    /**
+     * Creates a canopy.
+     * @param name A name for the canopy.
+     * @param areaInSquareFeet The area of the canopy.
+     * @param airspeedInMph The airspeed in full flight at a wing loading of 1 at sea level.
+     * @param sinkRateInFps The sink rate in full flight at a wing loading of 1 at sea level.
+     * @throws IllegalArgumentException if a number is not positive.
+     */
+    public Canopy(String name, double areaInSquareFeet, double airspeedInMph, double sinkRateInFps) {
+        if (!(0 < areaInSquareFeet) || !(0 < airspeedInMph) || !(0 < sinkRateInFps)) {
+            throw new IllegalArgumentException("The area, airspeed and sink rate of canopy " + name +
+                    " must all be positive.");
+        }
+        this.name = name;
+        this.areaInSquareFeet = areaInSquareFeet;
+        this.airspeedInMph = airspeedInMph;
+        this.sinkRateInFps = sinkRateInFps;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public double getAreaInSquareFeet() {
+        return areaInSquareFeet;
+    }
+
+    /**
+     * @param exitWeightInPounds The weight of the jumper and all of their gear.
+     * @return The wing loading in pounds per square foot.
+     */
+    public double getWingLoading(double exitWeightInPounds) {
+        return exitWeightInPounds / areaInSquareFeet;
+    }
+
+    /**
+     * @param wingLoading The wing loading in pounds per square foot.
+     * @param altitude The altitude in feet.
+     * @return The airspeed in full flight in feet per second.
+     */
+    public double getAirspeedInFps(double wingLoading, double altitude) {
+        return airspeedInMph * FreeFallCalculator.MPH_TO_FPS * speedFactor(wingLoading, altitude);
+    }
+
+    /**
+     * @param wingLoading The wing loading in pounds per square foot.
+     * @param altitude The altitude in feet.
+     * @return The sink rate in full flight in feet per second.
+     */
+    public double getSinkRateInFps(double wingLoading, double altitude) {
+        return sinkRateInFps * speedFactor(wingLoading, altitude);
+    }
+
+    /**
+     * @return The glide ratio in still air, which depends on neither the wing loading nor the altitude.
+     */
+    public double getGlideRatio() {
+        return airspeedInMph * FreeFallCalculator.MPH_TO_FPS / sinkRateInFps;
+    }
+
+    /**
+     * How much faster the canopy flies than at a wing loading of 1 at sea level.
+     */
+    static double speedFactor(double wingLoading, double altitude) {
+        return Math.sqrt(wingLoading / FreefallTable.relativeAirDensity(Math.max(altitude, 0)));
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + areaInSquareFeet + " sq ft)";
+    }
+}
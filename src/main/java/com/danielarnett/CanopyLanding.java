@@ -0,0 +1,51 @@
+package com.danielarnett;
+
+/**
+ * Where and when a canopy flight simulated by a CanopySimulator touched down. Positions are in
+ * feet east (x) and north (y) of the target.
+ */
+public final class CanopyLanding {
+    private final double x;
+    private final double y;
+    private final double flightTimeInSeconds;
+
+    CanopyLanding(double x, double y, double flightTimeInSeconds) {
+        this.x = x;
+        this.y = y;
+        this.flightTimeInSeconds = flightTimeInSeconds;
+    }
+
+    /**
+     * @return How far east of the target the canopy landed in feet.
+     */
+    public double getX() {
+        return x;
+    }
+
+    /**
+     * @return How far north of the target the canopy landed in feet.
+     */
+    public double getY() {
+        return y;
+    }
+
+    /**
+     * @return The time from deployment to touching down in seconds.
+     */
+    public double getFlightTimeInSeconds() {
+        return flightTimeInSeconds;
+    }
+
+    /**
+     * @return How far from the target the canopy landed in feet.
+     */
+    public double getDistanceFromTarget() {
+        return Math.sqrt(x*x + y*y);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%.0f ft east and %.0f ft north of the target after %.1f s",
+                x, y, flightTimeInSeconds);
+    }
+}
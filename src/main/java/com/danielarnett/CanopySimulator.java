@@ -0,0 +1,349 @@
+package com.danielarnett;
+
+/**
+ * Simulates the canopy flight from deployment to touchdown, through the same wind curve the
+ * freefall drift is calculated with. Positions are in feet east (x) and north (y) of the target,
+ * so the freefall drift from FreeFallCalculator.getDrift() added to the exit point gives the
+ * point to start from.
+ *
+ * The flight is integrated with a fixed time step. At each step the airspeed and sink rate come
+ * from the canopy, the wing loading and the air density, and the wind is evaluated at the middle
+ * of the step by walking a cursor down the curve, so a step costs a few multiplications and
+ * nothing is allocated. The canopy always flies in full flight and crabs into the crosswind to
+ * hold its ground track towards where it is going:
+ *
+ * 1. Above the downwind altitude it flies to the start of the downwind leg, and faces into the
+ *    wind to hold position once it is there.
+ * 2. The landing pattern is flown in three legs, each ending at an altitude: downwind, base and
+ *    final, with the final leg on the landing heading into the target. The legs are planned
+ *    backwards from the target with the winds at their altitudes, so that each ends where the
+ *    next begins, and each leg is flown towards the end of the leg.
+ *
+ * Configure a simulator first, then fly() may be called from any number of threads at once.
+ */
+public final class CanopySimulator {
+    public static final double DEFAULT_TIME_STEP_IN_SECONDS = 0.1;
+    public static final double DEFAULT_DOWNWIND_ALTITUDE = 1000;
+    public static final double DEFAULT_BASE_ALTITUDE = 600;
+    public static final double DEFAULT_FINAL_ALTITUDE = 300;
+    /**
+     * The height of the slices the legs of the pattern are planned with.
+     */
+    static final double PLAN_STEP = 25;
+
+    private final WindSnapshot winds;
+    private final Canopy canopy;
+    private final double wingLoading;
+    private double timeStepInSeconds = DEFAULT_TIME_STEP_IN_SECONDS;
+    private double downwindAltitude = DEFAULT_DOWNWIND_ALTITUDE;
+    private double baseAltitude = DEFAULT_BASE_ALTITUDE;
+    private double finalAltitude = DEFAULT_FINAL_ALTITUDE;
+    private double landingHeading = Double.NaN;
+    private boolean rightHandPattern;
+
+    /**
+     * Creates a simulator.
+     * @param winds The winds.
+     * @param canopy The canopy.
+     * @param exitWeightInPounds The weight of the jumper and all of their gear.
+     * @throws IllegalArgumentException if the weight is not positive.
+     */
+    public CanopySimulator(WindSnapshot winds, Canopy canopy, double exitWeightInPounds) {
+        if (!(0 < exitWeightInPounds)) {
+            throw new IllegalArgumentException("The exit weight must be positive, not " +
+                    String.valueOf(exitWeightInPounds) + " pounds.");
+        }
+        this.winds = winds;
+        this.canopy = canopy;
+        this.wingLoading = canopy.getWingLoading(exitWeightInPounds);
+    }
+
+    public Canopy getCanopy() {
+        return canopy;
+    }
+
+    /**
+     * @return The wing loading in pounds per square foot.
+     */
+    public double getWingLoading() {
+        return wingLoading;
+    }
+
+    public double getTimeStepInSeconds() {
+        return timeStepInSeconds;
+    }
+
+    /**
+     * @param timeStepInSeconds The time step of the integration.
+     * @throws IllegalArgumentException if the time step is not positive.
+     */
+    public void setTimeStepInSeconds(double timeStepInSeconds) {
+        if (!(0 < timeStepInSeconds)) {
+            throw new IllegalArgumentException("The time step must be positive, not " +
+                    String.valueOf(timeStepInSeconds) + " seconds.");
+        }
+        this.timeStepInSeconds = timeStepInSeconds;
+    }
+
+    public double getDownwindAltitude() {
+        return downwindAltitude;
+    }
+
+    public double getBaseAltitude() {
+        return baseAltitude;
+    }
+
+    public double getFinalAltitude() {
+        return finalAltitude;
+    }
+
+    /**
+     * Set the altitudes the legs of the landing pattern start at.
+     * @throws IllegalArgumentException unless 0 < finalAltitude < baseAltitude < downwindAltitude.
+     */
+    public void setPatternAltitudes(double downwindAltitude, double baseAltitude, double finalAltitude) {
+        if (!(0 < finalAltitude && finalAltitude < baseAltitude && baseAltitude < downwindAltitude)) {
+            throw new IllegalArgumentException("The pattern must descend from downwind to base to final. " +
+                    "Requested downwind at " + String.valueOf(downwindAltitude) + " feet, base at " +
+                    String.valueOf(baseAltitude) + " feet and final at " + String.valueOf(finalAltitude) + " feet.");
+        }
+        this.downwindAltitude = downwindAltitude;
+        this.baseAltitude = baseAltitude;
+        this.finalAltitude = finalAltitude;
+    }
+
+    /**
+     * @return The heading of the final leg in degrees, or NaN to land into the wind at the ground.
+     */
+    public double getLandingHeadingInDegrees() {
+        return landingHeading;
+    }
+
+    /**
+     * @param landingHeading The heading of the final leg in degrees, or NaN to land into the wind
+     *                       at the ground. NaN by default.
+     */
+    public void setLandingHeadingInDegrees(double landingHeading) {
+        this.landingHeading = landingHeading;
+    }
+
+    public boolean isRightHandPattern() {
+        return rightHandPattern;
+    }
+
+    /**
+     * @param rightHandPattern True to turn right onto base and final, false to turn left. Left
+     *                         by default.
+     */
+    public void setRightHandPattern(boolean rightHandPattern) {
+        this.rightHandPattern = rightHandPattern;
+    }
+
+    /**
+     * Fly from deployment to touchdown.
+     * @param startX Where the canopy opens, east of the target in feet.
+     * @param startY Where the canopy opens, north of the target in feet.
+     * @param deploymentAltitude The altitude the canopy opens at.
+     * @return Where and when the canopy touched down.
+     * @throws IllegalArgumentException if the winds do not reach up to the deployment altitude.
+     */
+    public CanopyLanding fly(double startX, double startY, double deploymentAltitude) {
+        return fly(startX, startY, deploymentAltitude, null);
+    }
+
+    /**
+     * Fly from deployment to touchdown and record the path.
+     * See fly(double, double, double).
+     * @param trajectory Receives a point per time step, or null.
+     */
+    public CanopyLanding fly(double startX, double startY, double deploymentAltitude, CanopyTrajectory trajectory) {
+        double[] result = new double[3];
+        fly(startX, startY, deploymentAltitude, trajectory, result);
+        return new CanopyLanding(result[0], result[1], result[2]);
+    }
+
+    /**
+     * Fly every jumper on a load, allocating nothing per jumper. Results for jumper i are written
+     * to index i of each output array.
+     * @param startX Where each canopy opens, east of the target in feet.
+     * @param startY Where each canopy opens, north of the target in feet.
+     * @param deploymentAltitudes The altitude each canopy opens at.
+     * @param landingX Receives how far east of the target each canopy lands in feet.
+     * @param landingY Receives how far north of the target each canopy lands in feet.
+     * @param flightTimes Receives the time from deployment to touchdown in seconds.
+     * @throws IllegalArgumentException if the arrays are not all the same length, or the winds do
+     * not reach up to a deployment altitude.
+     */
+    public void flyAll(double[] startX, double[] startY, double[] deploymentAltitudes,
+                       double[] landingX, double[] landingY, double[] flightTimes) {
+        int n = startX.length;
+        if (startY.length != n || deploymentAltitudes.length != n || landingX.length != n ||
+                landingY.length != n || flightTimes.length != n) {
+            throw new IllegalArgumentException("The number of start points must equal the number of " +
+                    "deployment altitudes and the length of every output array.");
+        }
+        double[] result = new double[3];
+        for (int i = 0; i < n; i++) {
+            fly(startX[i], startY[i], deploymentAltitudes[i], null, result);
+            landingX[i] = result[0];
+            landingY[i] = result[1];
+            flightTimes[i] = result[2];
+        }
+    }
+
+    /**
+     * Fly from deployment to touchdown.
+     * @param result Receives the landing point east and north of the target and the flight time.
+     */
+    private void fly(double startX, double startY, double deploymentAltitude,
+                     CanopyTrajectory trajectory, double[] result) {
+        winds.checkRange(0, deploymentAltitude);
+        WindCurve curve = winds.getCurve();
+        double dt = timeStepInSeconds;
+
+        // The final leg's track, and the tracks of downwind and base
+        double heading = Double.isNaN(landingHeading) ? intoWindHeading(curve) : landingHeading;
+        double finalX = Math.sin(Math.toRadians(heading));
+        double finalY = Math.cos(Math.toRadians(heading));
+        double downwindX = -finalX;
+        double downwindY = -finalY;
+        double baseX = rightHandPattern ? -finalY : finalY;
+        double baseY = rightHandPattern ? finalX : -finalX;
+        // Plan back from the target: where final, base and downwind start
+        double finalLength = legLength(curve, finalX, finalY, finalAltitude, 0);
+        double baseLength = legLength(curve, baseX, baseY, baseAltitude, finalAltitude);
+        double downwindLength = legLength(curve, downwindX, downwindY, downwindAltitude, baseAltitude);
+        double finalStartX = -finalX * finalLength;
+        double finalStartY = -finalY * finalLength;
+        double baseStartX = finalStartX - baseX * baseLength;
+        double baseStartY = finalStartY - baseY * baseLength;
+        double downwindStartX = baseStartX - downwindX * downwindLength;
+        double downwindStartY = baseStartY - downwindY * downwindLength;
+
+        if (trajectory != null) {
+            trajectory.clear();
+        }
+        double x = startX;
+        double y = startY;
+        double altitude = deploymentAltitude;
+        double time = 0;
+        double airHeadingX = finalX;
+        double airHeadingY = finalY;
+        // Both speeds scale with the air density the same way, which is worked out once a step
+        double seaLevelAirspeed = canopy.getAirspeedInFps(wingLoading, 0);
+        double seaLevelSinkRate = canopy.getSinkRateInFps(wingLoading, 0);
+        double sinkRate = canopy.getSinkRateInFps(wingLoading, altitude);
+        int segment = curve.segmentAtOrBelow(altitude);
+        while (0 < altitude) {
+            int leg;
+            double goalX;
+            double goalY;
+            if (downwindAltitude < altitude) {
+                leg = CanopyTrajectory.HOLDING;
+                goalX = downwindStartX;
+                goalY = downwindStartY;
+            }
+            else if (baseAltitude < altitude) {
+                leg = CanopyTrajectory.DOWNWIND;
+                goalX = baseStartX;
+                goalY = baseStartY;
+            }
+            else if (finalAltitude < altitude) {
+                leg = CanopyTrajectory.BASE;
+                goalX = finalStartX;
+                goalY = finalStartY;
+            }
+            else {
+                leg = CanopyTrajectory.FINAL;
+                goalX = 0;
+                goalY = 0;
+            }
+
+            // Evaluate everything at the middle of the step, estimated with the last sink rate
+            double middle = altitude - 0.5 * sinkRate * dt;
+            segment = curve.segmentAtOrBelow(middle, segment);
+            double windX = curve.xAt(middle, segment) * FreeFallCalculator.MPH_TO_FPS;
+            double windY = curve.yAt(middle, segment) * FreeFallCalculator.MPH_TO_FPS;
+            double densityFactor = 1 / Math.sqrt(FreefallTable.relativeAirDensity(Math.max(middle, 0)));
+            double airspeed = seaLevelAirspeed * densityFactor;
+            sinkRate = seaLevelSinkRate * densityFactor;
+
+            double toGoalX = goalX - x;
+            double toGoalY = goalY - y;
+            double distance = Math.sqrt(toGoalX * toGoalX + toGoalY * toGoalY);
+            double windSpeed = Math.sqrt(windX * windX + windY * windY);
+            if (distance <= airspeed * dt) {
+                // There already, so face into the wind to stay put
+                if (0 < windSpeed) {
+                    airHeadingX = -windX / windSpeed;
+                    airHeadingY = -windY / windSpeed;
+                }
+            }
+            else {
+                double trackX = toGoalX / distance;
+                double trackY = toGoalY / distance;
+                // Crab into the crosswind so that the ground track points at the goal
+                double crosswind = (windX * trackY - windY * trackX) / airspeed;
+                if (Math.abs(crosswind) < 1) {
+                    double along = Math.sqrt(1 - crosswind * crosswind);
+                    airHeadingX = along * trackX - crosswind * trackY;
+                    airHeadingY = along * trackY + crosswind * trackX;
+                }
+                else {
+                    // The track cannot be held, so fight the crosswind as hard as possible
+                    double side = Math.signum(crosswind);
+                    airHeadingX = -side * trackY;
+                    airHeadingY = side * trackX;
+                }
+            }
+
+            double step = Math.min(dt, altitude / sinkRate);
+            x += (airspeed * airHeadingX + windX) * step;
+            y += (airspeed * airHeadingY + windY) * step;
+            altitude = step < dt ? 0 : altitude - sinkRate * step;
+            time += step;
+            if (trajectory != null) {
+                trajectory.add(time, x, y, altitude,
+                        WindComponents.headingInDegrees(airHeadingX, airHeadingY), leg);
+            }
+        }
+        result[0] = x;
+        result[1] = y;
+        result[2] = time;
+    }
+
+    /**
+     * How far along its track a leg flown between two altitudes gets over the ground, crabbing to
+     * hold the track. Negative if the wind blows the canopy backwards.
+     */
+    private double legLength(WindCurve curve, double trackX, double trackY, double hi, double lo) {
+        double length = 0;
+        int segment = curve.segmentAtOrBelow(hi);
+        for (double upper = hi; lo < upper; upper -= PLAN_STEP) {
+            double lower = Math.max(upper - PLAN_STEP, lo);
+            double middle = 0.5 * (upper + lower);
+            segment = curve.segmentAtOrBelow(middle, segment);
+            double windX = curve.xAt(middle, segment) * FreeFallCalculator.MPH_TO_FPS;
+            double windY = curve.yAt(middle, segment) * FreeFallCalculator.MPH_TO_FPS;
+            double airspeed = canopy.getAirspeedInFps(wingLoading, middle);
+            double tailwind = windX * trackX + windY * trackY;
+            double crosswind = windX * trackY - windY * trackX;
+            double groundSpeed = Math.abs(crosswind) < airspeed ?
+                    tailwind + Math.sqrt(airspeed * airspeed - crosswind * crosswind) : tailwind;
+            length += groundSpeed * (upper - lower) / canopy.getSinkRateInFps(wingLoading, middle);
+        }
+        return length;
+    }
+
+    /**
+     * @return The heading into the wind at the ground, or north if it is calm.
+     */
+    private static double intoWindHeading(WindCurve curve) {
+        double windX = curve.xAt(0);
+        double windY = curve.yAt(0);
+        if (windX == 0 && windY == 0) {
+            return 0;
+        }
+        return WindComponents.headingInDegrees(-windX, -windY);
+    }
+}
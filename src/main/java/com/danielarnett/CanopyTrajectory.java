@@ -0,0 +1,132 @@
+package com.danielarnett;
+
+/**
+ * A preallocated buffer for the path of a simulated canopy flight, one point per time step, for
+ * drawing the flight. Pass one to CanopySimulator.fly() and it is cleared and filled in without
+ * allocating. If the flight has more steps than the buffer holds, the points that do not fit are
+ * dropped and isTruncated() returns true. A buffer can be reused for any number of flights, but
+ * not by two flights at once.
+ */
+public final class CanopyTrajectory {
+    /** Flying towards the start of the downwind leg, or holding near it. */
+    public static final int HOLDING = 0;
+    public static final int DOWNWIND = 1;
+    public static final int BASE = 2;
+    public static final int FINAL = 3;
+
+    private final double[] time;
+    private final double[] x;
+    private final double[] y;
+    private final double[] altitude;
+    private final double[] heading;
+    private final byte[] leg;
+    private int size;
+    private boolean truncated;
+
+    /**
+     * Creates a buffer.
+     * @param capacity The most points it holds. A flight from 3000 feet with a 0.1 second time
+     *                 step takes a few thousand.
+     * @throws IllegalArgumentException if the capacity is negative.
+     */
+    public CanopyTrajectory(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("The capacity must not be negative, not " + capacity + ".");
+        }
+        this.time = new double[capacity];
+        this.x = new double[capacity];
+        this.y = new double[capacity];
+        this.altitude = new double[capacity];
+        this.heading = new double[capacity];
+        this.leg = new byte[capacity];
+    }
+
+    public int capacity() {
+        return time.length;
+    }
+
+    /**
+     * @return The number of points recorded.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return True if the last flight had more points than the buffer holds.
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * @return The time of point i since deployment in seconds.
+     */
+    public double getTime(int i) {
+        checkIndex(i);
+        return time[i];
+    }
+
+    /**
+     * @return How far east of the target point i is in feet.
+     */
+    public double getX(int i) {
+        checkIndex(i);
+        return x[i];
+    }
+
+    /**
+     * @return How far north of the target point i is in feet.
+     */
+    public double getY(int i) {
+        checkIndex(i);
+        return y[i];
+    }
+
+    public double getAltitude(int i) {
+        checkIndex(i);
+        return altitude[i];
+    }
+
+    /**
+     * @return The heading the canopy is pointed at at point i in degrees, which differs from its
+     * ground track by the wind correction.
+     */
+    public double getHeadingInDegrees(int i) {
+        checkIndex(i);
+        return heading[i];
+    }
+
+    /**
+     * @return The leg being flown at point i: HOLDING, DOWNWIND, BASE or FINAL.
+     */
+    public int getLeg(int i) {
+        checkIndex(i);
+        return leg[i];
+    }
+
+    void clear() {
+        size = 0;
+        truncated = false;
+    }
+
+    void add(double time, double x, double y, double altitude, double heading, int leg) {
+        if (size == this.time.length) {
+            truncated = true;
+            return;
+        }
+        this.time[size] = time;
+        this.x[size] = x;
+        this.y[size] = y;
+        this.altitude[size] = altitude;
+        this.heading[size] = heading;
+        this.leg[size] = (byte) leg;
+        size++;
+    }
+
+    private void checkIndex(int i) {
+        if (i < 0 || size <= i) {
+            throw new IndexOutOfBoundsException("Point " + i + " of a trajectory with " + size + " points.");
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.danielarnett;
+
+/**
+ * Converts arrays of winds between speed and heading and x (east) and y (north) components.
+ * See WindComponents.
+ */
+interface ComponentKernel {
+    /**
+     * Convert speeds and headings to components from index from up to but not including index to.
+     */
+    void toComponents(double[] speeds, double[] headings, double[] x, double[] y, int from, int to);
+
+    /**
+     * Convert components to speeds and headings from index from up to but not including index to.
+     * The output arrays may be the input arrays.
+     */
+    void toPolar(double[] x, double[] y, double[] speeds, double[] headings, int from, int to);
+}
@@ -0,0 +1,114 @@
+package com.danielarnett;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Draws Monte Carlo drift samples across a ForkJoinPool. Every task writes to its own slice of
+ * the sample buffers with its own random numbers, so no locking is needed. The tasks are split
+ * at the same places whatever the pool, and each half gets a fixed branch of the random numbers,
+ * so the samples only depend on the seed. See DriftMonteCarlo.
+ */
+@SuppressWarnings("serial")
+class DispersionSweep extends RecursiveAction {
+    static final int SAMPLES_PER_TASK = 16384;
+
+    private final Model model;
+    private final SplittableRandom random;
+    private final double[] sampleX;
+    private final double[] sampleY;
+    private final int start;
+    private final int end;
+
+    DispersionSweep(Model model, SplittableRandom random, double[] sampleX, double[] sampleY,
+                    int start, int end) {
+        this.model = model;
+        this.random = random;
+        this.sampleX = sampleX;
+        this.sampleY = sampleY;
+        this.start = start;
+        this.end = end;
+    }
+
+    @Override
+    protected void compute() {
+        if (end - start <= SAMPLES_PER_TASK) {
+            for (int i = start; i < end; i++) {
+                model.sample(random, sampleX, sampleY, i);
+            }
+            return;
+        }
+        int middle = (start + end) >>> 1;
+        SplittableRandom upper = random.split();
+        invokeAll(new DispersionSweep(model, random, sampleX, sampleY, start, middle),
+                new DispersionSweep(model, upper, sampleX, sampleY, middle, end));
+    }
+
+    /**
+     * The nominal drift at three fall rates and the uncertainties to perturb it by.
+     */
+    static final class Model {
+        private final double windSpeedUncertainty;
+        private final double windHeadingUncertainty;
+        private final double fallRateUncertainty;
+        private final double lowScale;
+        private final double highScale;
+        /**
+         * Quadratic coefficients of the drift components in the fall rate scale.
+         */
+        private final double x0, x1, x2;
+        private final double y0, y1, y2;
+
+        /**
+         * @param windHeadingUncertainty The standard deviation of the wind heading in radians.
+         * @param scales Three fall rate scales in ascending order.
+         * @param x The drift to the east at each scale.
+         * @param y The drift to the north at each scale.
+         */
+        Model(double windSpeedUncertainty, double windHeadingUncertainty, double fallRateUncertainty,
+              double[] scales, double[] x, double[] y) {
+            this.windSpeedUncertainty = windSpeedUncertainty;
+            this.windHeadingUncertainty = windHeadingUncertainty;
+            this.fallRateUncertainty = fallRateUncertainty;
+            this.lowScale = scales[0];
+            this.highScale = scales[2];
+            double[] cx = quadratic(scales, x);
+            double[] cy = quadratic(scales, y);
+            this.x0 = cx[0];
+            this.x1 = cx[1];
+            this.x2 = cx[2];
+            this.y0 = cy[0];
+            this.y1 = cy[1];
+            this.y2 = cy[2];
+        }
+
+        void sample(SplittableRandom random, double[] sampleX, double[] sampleY, int i) {
+            double speed = Math.max(1 + windSpeedUncertainty * random.nextGaussian(), 0);
+            double rotation = windHeadingUncertainty * random.nextGaussian();
+            double scale = 1 + fallRateUncertainty * random.nextGaussian();
+            scale = Math.min(Math.max(scale, lowScale), highScale);
+            double x = x0 + scale * (x1 + scale * x2);
+            double y = y0 + scale * (y1 + scale * y2);
+            // Turning the wind clockwise turns the drift clockwise by the same angle
+            double sin = Math.sin(rotation);
+            double cos = Math.cos(rotation);
+            sampleX[i] = speed * (x * cos + y * sin);
+            sampleY[i] = speed * (y * cos - x * sin);
+        }
+
+        /**
+         * @return The coefficients c0, c1, c2 of the parabola c0 + c1 s + c2 s^2 through three points.
+         */
+        private static double[] quadratic(double[] s, double[] v) {
+            if (s[0] == s[2]) {
+                return new double[] { v[1], 0, 0 };
+            }
+            double d01 = (v[1] - v[0]) / (s[1] - s[0]);
+            double d12 = (v[2] - v[1]) / (s[2] - s[1]);
+            double c2 = (d12 - d01) / (s[2] - s[0]);
+            double c1 = d01 - c2 * (s[0] + s[1]);
+            double c0 = v[0] - s[0] * (c1 + c2 * s[0]);
+            return new double[] { c0, c1, c2 };
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.danielarnett;
+
+/**
+ * The result of a freefall: how long it took and how far the wind carried the jumper.
+ * The displacement is kept as x (east) and y (north) components in feet.
+ */
+public final class Drift {
+    private final double freefallTimeInSeconds;
+    private final double x;
+    private final double y;
+
+    /**
+     * @param freefallTimeInSeconds The time spent in freefall.
+     * @param x The displacement to the east in feet.
+     * @param y The displacement to the north in feet.
+     */
+    public Drift(double freefallTimeInSeconds, double x, double y) {
+        this.freefallTimeInSeconds = freefallTimeInSeconds;
+        this.x = x;
+        this.y = y;
+    }
+
+    public double getFreefallTimeInSeconds() {
+        return freefallTimeInSeconds;
+    }
+
+    /**
+     * @return The displacement to the east in feet.
+     */
+    public double getX() {
+        return x;
+    }
+
+    /**
+     * @return The displacement to the north in feet.
+     */
+    public double getY() {
+        return y;
+    }
+
+    /**
+     * @return The distance traveled horizontally in feet.
+     */
+    public double getDistance() {
+        return Math.sqrt(x*x + y*y);
+    }
+
+    /**
+     * @return The compass heading of the drift in degrees.
+     */
+    public double getHeadingInDegrees() {
+        return WindComponents.headingInDegrees(x, y);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%.1f ft toward %.1f degrees in %.1f s",
+                getDistance(), getHeadingInDegrees(), freefallTimeInSeconds);
+    }
+}
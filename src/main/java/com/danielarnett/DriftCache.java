@@ -0,0 +1,198 @@
+package com.danielarnett;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded, least recently used cache of drift calculations. Entries are keyed on the wind
+ * snapshot, the jumper profile, and the exit and deployment altitudes rounded to a quantum, so
+ * requests for the same handful of altitude pairs become lookups. The drift is calculated at the
+ * rounded altitudes, so every altitude that rounds to the same key gets the same result whichever
+ * of them happened to miss first. Falls shorter than the quantum are calculated exactly and not
+ * cached.
+ *
+ * A snapshot belongs to exactly one version of the winds, and Winds hands out a new one whenever
+ * addWind() changes them. A WindField hands out the same snapshot for the same time. Entries for
+ * an old version can therefore never be hit again and age out of the cache, without anything
+ * having to invalidate them.
+ *
+ * The cache is safe to share between threads. Drifts are calculated outside the lock, so two
+ * threads that miss on the same key at once may both calculate it.
+ */
+public final class DriftCache {
+    /** Altitudes are rounded to the nearest foot unless another quantum is given. */
+    public static final double DEFAULT_ALTITUDE_QUANTUM = 1;
+
+    private final int maxEntries;
+    private final double altitudeQuantum;
+    private final LinkedHashMap<Key, Drift> entries;
+    /**
+     * Reused to look up keys under the lock, so a hit allocates nothing.
+     */
+    private final Key probe = new Key();
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    /**
+     * Creates a cache that rounds altitudes to the nearest foot.
+     * @param maxEntries The number of drifts to keep before the least recently used is evicted.
+     * @throws IllegalArgumentException if maxEntries is not positive.
+     */
+    public DriftCache(int maxEntries) {
+        this(maxEntries, DEFAULT_ALTITUDE_QUANTUM);
+    }
+
+    /**
+     * Creates a cache.
+     * @param maxEntries The number of drifts to keep before the least recently used is evicted.
+     * @param altitudeQuantum Altitudes are rounded to a multiple of this many feet to form the key.
+     * @throws IllegalArgumentException if maxEntries or altitudeQuantum is not positive.
+     */
+    public DriftCache(int maxEntries, double altitudeQuantum) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("A drift cache must hold at least one entry, not " +
+                    String.valueOf(maxEntries) + ".");
+        }
+        if (!(0 < altitudeQuantum)) {
+            throw new IllegalArgumentException("The altitude quantum must be positive, not " +
+                    String.valueOf(altitudeQuantum) + " feet.");
+        }
+        this.maxEntries = maxEntries;
+        this.altitudeQuantum = altitudeQuantum;
+        this.entries = new LinkedHashMap<Key, Drift>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Drift> eldest) {
+                if (size() > DriftCache.this.maxEntries) {
+                    evictionCount++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Get the drift for a jump, calculating it if it is not cached.
+     * @param winds The winds to drift in.
+     * @param jumperProfile How the jumper falls.
+     * @param exitAltitude The altitude that the jumper exits the plane.
+     * @param deploymentAltitude The altitude that the jumper deploys his or her parachute.
+     * @return The freefall time and horizontal displacement, calculated at the altitudes rounded
+     * to the quantum.
+     * @throws IllegalArgumentException if the winds or the freefall table do not cover the altitudes.
+     */
+    public Drift getDrift(WindSnapshot winds, JumperProfile jumperProfile,
+                          double exitAltitude, double deploymentAltitude) {
+        FreefallTable freefallTable = jumperProfile.getFreefallTable();
+        long exitKey = Math.round(exitAltitude / altitudeQuantum);
+        long deploymentKey = Math.round(deploymentAltitude / altitudeQuantum);
+        double quantizedExit = exitKey * altitudeQuantum;
+        double quantizedDeployment = deploymentKey * altitudeQuantum;
+        // Rounding up must not take a covered exit above what the winds and the table cover
+        double exitLimit = Math.min(winds.getMaxAltitude(), FreefallTable.MAX_ALTITUDE);
+        if (exitAltitude <= exitLimit && exitLimit < quantizedExit) {
+            quantizedExit = exitLimit;
+        }
+        if (!(quantizedDeployment < quantizedExit)) {
+            return FreeFallCalculator.calculateDrift(winds, freefallTable, exitAltitude, deploymentAltitude);
+        }
+        synchronized (this) {
+            probe.set(winds, jumperProfile, exitKey, deploymentKey);
+            Drift drift = entries.get(probe);
+            // Do not keep the snapshot alive through the probe
+            probe.set(null, null, 0, 0);
+            if (drift != null) {
+                hitCount++;
+                return drift;
+            }
+            missCount++;
+        }
+        Drift drift = FreeFallCalculator.calculateDrift(winds, freefallTable, quantizedExit, quantizedDeployment);
+        Key key = new Key();
+        key.set(winds, jumperProfile, exitKey, deploymentKey);
+        synchronized (this) {
+            entries.put(key, drift);
+        }
+        return drift;
+    }
+
+    /**
+     * @return The number of lookups that found a cached drift.
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return The number of lookups that had to calculate the drift.
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * @return The number of drifts evicted to make room for newer ones.
+     */
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * @return The number of cached drifts.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public double getAltitudeQuantum() {
+        return altitudeQuantum;
+    }
+
+    /**
+     * Remove every cached drift. The counters are kept.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Snapshots and profiles are compared by identity. A snapshot is never equal to another
+     * version of the winds.
+     */
+    private static final class Key {
+        private WindSnapshot winds;
+        private JumperProfile jumperProfile;
+        private long exitAltitude;
+        private long deploymentAltitude;
+
+        void set(WindSnapshot winds, JumperProfile jumperProfile, long exitAltitude, long deploymentAltitude) {
+            this.winds = winds;
+            this.jumperProfile = jumperProfile;
+            this.exitAltitude = exitAltitude;
+            this.deploymentAltitude = deploymentAltitude;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return winds == other.winds && jumperProfile == other.jumperProfile &&
+                    exitAltitude == other.exitAltitude && deploymentAltitude == other.deploymentAltitude;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = System.identityHashCode(winds);
+            hash = 31 * hash + System.identityHashCode(jumperProfile);
+            hash = 31 * hash + Long.hashCode(exitAltitude);
+            return 31 * hash + Long.hashCode(deploymentAltitude);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.danielarnett;
+
+/**
+ * The spread of freefall drift over many Monte Carlo samples: the mean drift, the covariance of
+ * the drift, percentiles of the drift distance, and confidence ellipses. Create one with
+ * DriftMonteCarlo.
+ */
+public final class DriftDispersion {
+    private final int sampleCount;
+    private final double meanX;
+    private final double meanY;
+    private final double covarianceXX;
+    private final double covarianceXY;
+    private final double covarianceYY;
+    /**
+     * The drift distance at every whole percentile, from 0 to 100.
+     */
+    private final double[] distancePercentiles;
+
+    DriftDispersion(int sampleCount, double meanX, double meanY,
+                    double covarianceXX, double covarianceXY, double covarianceYY,
+                    double[] distancePercentiles) {
+        this.sampleCount = sampleCount;
+        this.meanX = meanX;
+        this.meanY = meanY;
+        this.covarianceXX = covarianceXX;
+        this.covarianceXY = covarianceXY;
+        this.covarianceYY = covarianceYY;
+        this.distancePercentiles = distancePercentiles;
+    }
+
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    /**
+     * @return The mean drift to the east in feet.
+     */
+    public double getMeanX() {
+        return meanX;
+    }
+
+    /**
+     * @return The mean drift to the north in feet.
+     */
+    public double getMeanY() {
+        return meanY;
+    }
+
+    /**
+     * @return The distance of the mean drift in feet.
+     */
+    public double getMeanDistance() {
+        return Math.sqrt(meanX*meanX + meanY*meanY);
+    }
+
+    /**
+     * @return The compass heading of the mean drift in degrees.
+     */
+    public double getMeanHeadingInDegrees() {
+        return WindComponents.headingInDegrees(meanX, meanY);
+    }
+
+    public double getCovarianceXX() {
+        return covarianceXX;
+    }
+
+    public double getCovarianceXY() {
+        return covarianceXY;
+    }
+
+    public double getCovarianceYY() {
+        return covarianceYY;
+    }
+
+    /**
+     * Get a percentile of the drift distance, interpolated between whole percentiles.
+     * @param percent The percentile, between 0 and 100.
+     * @return The distance in feet that percent of the samples drifted no further than.
+     * @throws IllegalArgumentException if percent is not between 0 and 100.
+     */
+    public double getDistancePercentile(double percent) {
+        if (!(0 <= percent && percent <= 100)) {
+            throw new IllegalArgumentException("A percentile must be between 0 and 100, not " +
+                    String.valueOf(percent) + ".");
+        }
+        int i = Math.min((int) percent, 99);
+        double fraction = percent - i;
+        return distancePercentiles[i] + fraction * (distancePercentiles[i + 1] - distancePercentiles[i]);
+    }
+
+    /**
+     * The semi-major axis of the ellipse around the mean drift expected to hold a share of the
+     * drifts, assuming they are normally distributed.
+     * @param confidence The share of drifts inside the ellipse, between 0 and 1, such as 0.95.
+     * @return The semi-major axis in feet.
+     */
+    public double getSemiMajorAxis(double confidence) {
+        return Math.sqrt(largerEigenvalue() * chiSquared(confidence));
+    }
+
+    /**
+     * The semi-minor axis of the confidence ellipse. See getSemiMajorAxis().
+     * @param confidence The share of drifts inside the ellipse, between 0 and 1, such as 0.95.
+     * @return The semi-minor axis in feet.
+     */
+    public double getSemiMinorAxis(double confidence) {
+        return Math.sqrt(Math.max(smallerEigenvalue(), 0) * chiSquared(confidence));
+    }
+
+    /**
+     * @return The compass heading of the major axis of the confidence ellipses in degrees,
+     * between 0 and 180.
+     */
+    public double getMajorAxisHeadingInDegrees() {
+        // The major axis is the eigenvector of the larger eigenvalue
+        double angle = 0.5 * Math.atan2(2 * covarianceXY, covarianceXX - covarianceYY);
+        return WindComponents.headingInDegrees(Math.cos(angle), Math.sin(angle)) % 180;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d samples, mean %.1f ft toward %.1f degrees, median %.1f ft, " +
+                        "95%% ellipse %.1f x %.1f ft along %.1f degrees",
+                sampleCount, getMeanDistance(), getMeanHeadingInDegrees(), getDistancePercentile(50),
+                getSemiMajorAxis(0.95), getSemiMinorAxis(0.95), getMajorAxisHeadingInDegrees());
+    }
+
+    private double largerEigenvalue() {
+        return 0.5 * (covarianceXX + covarianceYY) + eigenvalueSpread();
+    }
+
+    private double smallerEigenvalue() {
+        return 0.5 * (covarianceXX + covarianceYY) - eigenvalueSpread();
+    }
+
+    private double eigenvalueSpread() {
+        double half = 0.5 * (covarianceXX - covarianceYY);
+        return Math.sqrt(half*half + covarianceXY*covarianceXY);
+    }
+
+    /**
+     * @return The quantile of the chi-squared distribution with two degrees of freedom.
+     */
+    private static double chiSquared(double confidence) {
+        if (!(0 <= confidence && confidence < 1)) {
+            throw new IllegalArgumentException("The confidence must be at least 0 and less than 1, not " +
+                    String.valueOf(confidence) + ".");
+        }
+        return -2 * Math.log(1 - confidence);
+    }
+}
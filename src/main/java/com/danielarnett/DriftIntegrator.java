@@ -0,0 +1,60 @@
+package com.danielarnett;
+
+/**
+ * Integrates the drift of a jumper by walking down through the winds and the fall together.
+ * The descent is cut into ALTITUDE_STEP foot slices. For each slice the average wind comes from
+ * the running integrals of the wind snapshot, and the time spent in the slice comes from the
+ * freefall table, so the wind at each altitude is weighted by how long the jumper spends there.
+ *
+ * The walk keeps a cursor into the wind grid instead of searching it, and accumulates only the
+ * displacement, so it does not allocate.
+ */
+final class DriftIntegrator {
+    /**
+     * The height of each slice of the descent. The wind integral over a slice is exact; only the
+     * time weighting within a slice is approximated.
+     */
+    static final double ALTITUDE_STEP = 25;
+
+    private DriftIntegrator() {
+    }
+
+    /**
+     * Integrate the drift between two altitudes. The range is not checked.
+     * @param winds The winds to drift in.
+     * @param freefallTable The fall of the jumper.
+     * @param exitAltitude The altitude the jumper exits the plane.
+     * @param deploymentAltitude The altitude the jumper deploys, below the exit altitude.
+     * @param displacement Receives the displacement to the east in feet at index 0 and to the
+     *                     north in feet at index 1.
+     * @return The freefall time in seconds.
+     */
+    static double integrate(WindSnapshot winds, FreefallTable freefallTable,
+                            double exitAltitude, double deploymentAltitude, double[] displacement) {
+        double x = 0;
+        double y = 0;
+        double upper = exitAltitude;
+        int cell = winds.floorIndex(upper);
+        double upperX = winds.integralXFromBottom(upper, cell);
+        double upperY = winds.integralYFromBottom(upper, cell);
+        double upperTime = 0;
+        while (deploymentAltitude < upper) {
+            double lower = Math.max(upper - ALTITUDE_STEP, deploymentAltitude);
+            cell = winds.cellAtOrBelow(lower, cell);
+            double lowerX = winds.integralXFromBottom(lower, cell);
+            double lowerY = winds.integralYFromBottom(lower, cell);
+            double lowerTime = freefallTable.elapsedTime(exitAltitude, exitAltitude - lower);
+            // Average wind in the slice times the time spent in it
+            double secondsPerFoot = (lowerTime - upperTime) / (upper - lower);
+            x += (upperX - lowerX) * secondsPerFoot;
+            y += (upperY - lowerY) * secondsPerFoot;
+            upper = lower;
+            upperX = lowerX;
+            upperY = lowerY;
+            upperTime = lowerTime;
+        }
+        displacement[0] = x * FreeFallCalculator.MPH_TO_FPS;
+        displacement[1] = y * FreeFallCalculator.MPH_TO_FPS;
+        return upperTime;
+    }
+}
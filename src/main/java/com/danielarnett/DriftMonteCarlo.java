@@ -0,0 +1,213 @@
+package com.danielarnett;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Estimates how far the freefall drift could be from the forecast by Monte Carlo sampling.
+ * Each sample scales the windspeed, rotates the wind, and scales the jumper's fall rate by
+ * normally distributed amounts, and the drifts are summarized as a DriftDispersion.
+ *
+ * The nominal drift is integrated once for the jumper's fall rate and at three standard
+ * deviations either side. A wind scaled by s and rotated by a turns the drift by the same
+ * amount, and the drift varies smoothly with the fall rate, so each sample is a quadratic
+ * interpolation and a rotation rather than a new integration. A million samples take a fraction
+ * of a second.
+ *
+ * The sample buffers are allocated once, when the engine is created, and reused by every run.
+ * Samples are drawn on a ForkJoinPool, each task from its own SplittableRandom split from the
+ * seed, so a run with the same seed gives the same result however many threads it runs on.
+ * An engine can only run one simulation at a time.
+ */
+public final class DriftMonteCarlo {
+    public static final double DEFAULT_WIND_SPEED_UNCERTAINTY = 0.2;
+    public static final double DEFAULT_WIND_HEADING_UNCERTAINTY_IN_DEGREES = 15;
+    public static final double DEFAULT_FALL_RATE_UNCERTAINTY = 0.1;
+    /**
+     * Fall rates are sampled within this many standard deviations of the nominal fall rate.
+     */
+    static final double FALL_RATE_RANGE = 3;
+
+    private final double[] sampleX;
+    private final double[] sampleY;
+    private final double[] sampleDistance;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+    private double windSpeedUncertainty = DEFAULT_WIND_SPEED_UNCERTAINTY;
+    private double windHeadingUncertaintyInDegrees = DEFAULT_WIND_HEADING_UNCERTAINTY_IN_DEGREES;
+    private double fallRateUncertainty = DEFAULT_FALL_RATE_UNCERTAINTY;
+
+    /**
+     * The profiles at the ends of the fall rate range, kept for the next run with the same
+     * jumper profile and uncertainty since their freefall tables are expensive to build.
+     */
+    private JumperProfile nominalProfile;
+    private double profilesUncertainty;
+    private JumperProfile slowProfile;
+    private JumperProfile fastProfile;
+
+    /**
+     * Creates an engine and allocates the buffers for its samples.
+     * @param sampleCount The number of samples in every run.
+     * @throws IllegalArgumentException if sampleCount is not positive.
+     */
+    public DriftMonteCarlo(int sampleCount) {
+        if (sampleCount <= 0) {
+            throw new IllegalArgumentException("A Monte Carlo run needs at least one sample, not " +
+                    String.valueOf(sampleCount) + ".");
+        }
+        this.sampleX = new double[sampleCount];
+        this.sampleY = new double[sampleCount];
+        this.sampleDistance = new double[sampleCount];
+    }
+
+    public int getSampleCount() {
+        return sampleX.length;
+    }
+
+    /**
+     * @param pool The pool samples are drawn on. The common pool by default.
+     */
+    public void setPool(ForkJoinPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("The pool must not be null.");
+        }
+        this.pool = pool;
+    }
+
+    public double getWindSpeedUncertainty() {
+        return windSpeedUncertainty;
+    }
+
+    /**
+     * @param windSpeedUncertainty The standard deviation of the windspeed as a fraction of the
+     *                             forecast, such as 0.2 for 20%.
+     */
+    public void setWindSpeedUncertainty(double windSpeedUncertainty) {
+        checkUncertainty(windSpeedUncertainty, "windspeed");
+        this.windSpeedUncertainty = windSpeedUncertainty;
+    }
+
+    public double getWindHeadingUncertaintyInDegrees() {
+        return windHeadingUncertaintyInDegrees;
+    }
+
+    /**
+     * @param windHeadingUncertaintyInDegrees The standard deviation of the wind heading in degrees.
+     */
+    public void setWindHeadingUncertaintyInDegrees(double windHeadingUncertaintyInDegrees) {
+        checkUncertainty(windHeadingUncertaintyInDegrees, "wind heading");
+        this.windHeadingUncertaintyInDegrees = windHeadingUncertaintyInDegrees;
+    }
+
+    public double getFallRateUncertainty() {
+        return fallRateUncertainty;
+    }
+
+    /**
+     * @param fallRateUncertainty The standard deviation of the jumper's fall rate as a fraction of
+     *                            the profile's, such as 0.1 for 10%. Must be less than 1/3, so
+     *                            that every sampled fall rate is positive.
+     */
+    public void setFallRateUncertainty(double fallRateUncertainty) {
+        checkUncertainty(fallRateUncertainty, "fall rate");
+        if (!(fallRateUncertainty * FALL_RATE_RANGE < 1)) {
+            throw new IllegalArgumentException("The fall rate uncertainty must be less than " +
+                    String.valueOf(1 / FALL_RATE_RANGE) + ", not " + String.valueOf(fallRateUncertainty) + ".");
+        }
+        this.fallRateUncertainty = fallRateUncertainty;
+    }
+
+    /**
+     * Sample the drift of a jump.
+     * @param winds The forecast winds.
+     * @param jumperProfile How the jumper falls, on average.
+     * @param exitAltitude The altitude that the jumper exits the plane.
+     * @param deploymentAltitude The altitude that the jumper deploys his or her parachute.
+     * @param seed The seed of the random numbers. The same seed gives the same dispersion.
+     * @return The dispersion of the sampled drifts.
+     * @throws IllegalArgumentException if the winds or the freefall table do not cover the altitudes.
+     */
+    public synchronized DriftDispersion run(WindSnapshot winds, JumperProfile jumperProfile,
+                                            double exitAltitude, double deploymentAltitude, long seed) {
+        updateProfiles(jumperProfile);
+        double lowScale = 1 - FALL_RATE_RANGE * fallRateUncertainty;
+        double highScale = 1 + FALL_RATE_RANGE * fallRateUncertainty;
+        Drift nominal = FreeFallCalculator.calculateDrift(winds, jumperProfile.getFreefallTable(),
+                exitAltitude, deploymentAltitude);
+        Drift slow = FreeFallCalculator.calculateDrift(winds, slowProfile.getFreefallTable(),
+                exitAltitude, deploymentAltitude);
+        Drift fast = FreeFallCalculator.calculateDrift(winds, fastProfile.getFreefallTable(),
+                exitAltitude, deploymentAltitude);
+
+        DispersionSweep.Model model = new DispersionSweep.Model(
+                windSpeedUncertainty, Math.toRadians(windHeadingUncertaintyInDegrees), fallRateUncertainty,
+                new double[] { lowScale, 1, highScale },
+                new double[] { slow.getX(), nominal.getX(), fast.getX() },
+                new double[] { slow.getY(), nominal.getY(), fast.getY() });
+        int n = sampleX.length;
+        pool.invoke(new DispersionSweep(model, new SplittableRandom(seed), sampleX, sampleY, 0, n));
+        return summarize();
+    }
+
+    /**
+     * Reduce the samples to their moments and percentiles. The distance buffer is sorted in place.
+     */
+    private DriftDispersion summarize() {
+        int n = sampleX.length;
+        double sumX = 0;
+        double sumY = 0;
+        for (int i = 0; i < n; i++) {
+            sumX += sampleX[i];
+            sumY += sampleY[i];
+        }
+        double meanX = sumX / n;
+        double meanY = sumY / n;
+        double xx = 0;
+        double xy = 0;
+        double yy = 0;
+        for (int i = 0; i < n; i++) {
+            double dx = sampleX[i] - meanX;
+            double dy = sampleY[i] - meanY;
+            xx += dx * dx;
+            xy += dx * dy;
+            yy += dy * dy;
+            sampleDistance[i] = Math.sqrt(sampleX[i] * sampleX[i] + sampleY[i] * sampleY[i]);
+        }
+        int degrees = Math.max(n - 1, 1);
+        Arrays.sort(sampleDistance);
+        double[] percentiles = new double[101];
+        for (int p = 0; p <= 100; p++) {
+            double position = p / 100.0 * (n - 1);
+            int i = Math.min((int) position, n - 1);
+            int j = Math.min(i + 1, n - 1);
+            percentiles[p] = sampleDistance[i] + (position - i) * (sampleDistance[j] - sampleDistance[i]);
+        }
+        return new DriftDispersion(n, meanX, meanY, xx / degrees, xy / degrees, yy / degrees, percentiles);
+    }
+
+    private void updateProfiles(JumperProfile jumperProfile) {
+        if (jumperProfile == nominalProfile && fallRateUncertainty == profilesUncertainty) {
+            return;
+        }
+        nominalProfile = jumperProfile;
+        profilesUncertainty = fallRateUncertainty;
+        if (fallRateUncertainty == 0) {
+            slowProfile = jumperProfile;
+            fastProfile = jumperProfile;
+            return;
+        }
+        double terminalVelocity = jumperProfile.getTerminalVelocityInMph();
+        slowProfile = new JumperProfile(jumperProfile.getName() + " slow",
+                terminalVelocity * (1 - FALL_RATE_RANGE * fallRateUncertainty));
+        fastProfile = new JumperProfile(jumperProfile.getName() + " fast",
+                terminalVelocity * (1 + FALL_RATE_RANGE * fallRateUncertainty));
+    }
+
+    private static void checkUncertainty(double uncertainty, String name) {
+        if (!(0 <= uncertainty)) {
+            throw new IllegalArgumentException("The " + name + " uncertainty must not be negative, not " +
+                    String.valueOf(uncertainty) + ".");
+        }
+    }
+}
@@ -0,0 +1,356 @@
+package com.danielarnett;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps the drift of a set of scenarios up to date as wind observations stream in. A pipeline
+ * subscribes to a Flow.Publisher of WindObservations, adds them to its Winds, and publishes a
+ * DriftUpdate to its own subscribers for each scenario whose drift has changed.
+ *
+ * Observations are not handled one at a time. They are queued as they arrive and drained on the
+ * executor, and everything that arrived since the last drain is added in one go, so a burst of
+ * observations costs one curve fit and at most one update per scenario. Each observation only
+ * changes the curve within the reach of the interpolator, see WindInterpolator.getReach(), so only
+ * scenarios whose fall passes through those altitude bands are recomputed. An update is only
+ * published if the drift actually differs from the last one published for the scenario.
+ *
+ * Backpressure runs both ways. No more than the batch size of observations are requested from
+ * upstream until a drain has handled them, and updates are published with a SubmissionPublisher,
+ * which blocks the drain while a subscriber's buffer is full. A slow subscriber therefore slows
+ * the observations down instead of letting them pile up, and the observations that do arrive
+ * meanwhile are coalesced into the next drain.
+ *
+ * Because the drain blocks until a subscriber makes room, updates must be delivered on other
+ * threads than the one the drain is waiting on. The drain and the deliveries therefore run on
+ * separate executors, unless they share a ForkJoinPool, which adds a thread while one is blocked
+ * publishing. Two executors that are backed by the same threads can still deadlock, so do not
+ * pass them.
+ *
+ * Winds added to the Winds directly rather than through the pipeline only reach the scenarios
+ * whose bands a later observation changes.
+ */
+public final class DriftPipeline implements Flow.Subscriber<WindObservation>, Flow.Publisher<DriftUpdate> {
+    public static final int DEFAULT_BATCH_SIZE = 256;
+
+    private final Winds winds;
+    private final Executor executor;
+    private final int batchSize;
+    private final SubmissionPublisher<DriftUpdate> publisher;
+
+    private final ConcurrentLinkedQueue<WindObservation> pending = new ConcurrentLinkedQueue<>();
+    private final Set<DriftScenario> scenarios = ConcurrentHashMap.newKeySet();
+    /**
+     * The last update published for each scenario. Only written by the drain.
+     */
+    private final Map<DriftScenario, DriftUpdate> latest = new ConcurrentHashMap<>();
+    /**
+     * How many times the drain has been asked to run since it last finished. The drain runs on
+     * one thread at a time, whoever raises this from 0 starts it.
+     */
+    private final AtomicInteger drainRequests = new AtomicInteger();
+    private volatile Flow.Subscription subscription;
+    private volatile boolean done;
+    private volatile Throwable error;
+    private volatile long recomputationCount;
+
+    /**
+     * The altitude bands changed by the current drain. Only used by the drain.
+     */
+    private double[] bandLo = new double[16];
+    private double[] bandHi = new double[16];
+    private int bandCount;
+
+    /**
+     * Creates a pipeline that drains and delivers on the common ForkJoinPool.
+     * @param winds The winds to add the observations to. They may already hold winds.
+     */
+    public DriftPipeline(Winds winds) {
+        this(winds, ForkJoinPool.commonPool(), DEFAULT_BATCH_SIZE, Flow.defaultBufferSize());
+    }
+
+    /**
+     * Creates a pipeline that delivers its updates on the common ForkJoinPool.
+     * @param winds The winds to add the observations to. They may already hold winds.
+     * @param executor Runs the drain.
+     * @param batchSize The most observations requested from upstream before a drain handles them.
+     * @param maxBufferCapacity The most updates buffered for each subscriber before publishing blocks.
+     * @throws IllegalArgumentException if the batch size or buffer capacity is not positive.
+     */
+    public DriftPipeline(Winds winds, Executor executor, int batchSize, int maxBufferCapacity) {
+        this(winds, executor, ForkJoinPool.commonPool(), batchSize, maxBufferCapacity);
+    }
+
+    /**
+     * Creates a pipeline.
+     * @param winds The winds to add the observations to. They may already hold winds.
+     * @param executor Runs the drain.
+     * @param deliveryExecutor Delivers the updates to subscribers. Must not run on the same
+     * threads as executor, unless both are the same ForkJoinPool.
+     * @param batchSize The most observations requested from upstream before a drain handles them.
+     * @param maxBufferCapacity The most updates buffered for each subscriber before publishing blocks.
+     * @throws IllegalArgumentException if the batch size or buffer capacity is not positive, or both
+     * executors are the same executor other than a ForkJoinPool.
+     */
+    public DriftPipeline(Winds winds, Executor executor, Executor deliveryExecutor,
+                         int batchSize, int maxBufferCapacity) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("The batch size must be positive, not " + batchSize + ".");
+        }
+        if (executor == deliveryExecutor && !(executor instanceof ForkJoinPool)) {
+            throw new IllegalArgumentException("The drain blocks while a subscriber's buffer is full, so " +
+                    "updates must be delivered on another executor than the one that drains.");
+        }
+        this.winds = winds;
+        this.executor = executor;
+        this.batchSize = batchSize;
+        this.publisher = new SubmissionPublisher<>(deliveryExecutor, maxBufferCapacity);
+    }
+
+    /**
+     * Start keeping a scenario up to date. Its first update is published by the next drain,
+     * which is started if none is running.
+     * @param scenario The scenario.
+     */
+    public void addScenario(DriftScenario scenario) {
+        scenarios.add(Objects.requireNonNull(scenario));
+        requestDrain();
+    }
+
+    /**
+     * Stop updating a scenario.
+     * @param scenario The scenario.
+     */
+    public void removeScenario(DriftScenario scenario) {
+        scenarios.remove(scenario);
+        latest.remove(scenario);
+    }
+
+    /**
+     * @param scenario A scenario.
+     * @return The last update published for the scenario, or null if there has not been one yet.
+     * Subscribers that join late can start from here.
+     */
+    public DriftUpdate getLatest(DriftScenario scenario) {
+        return latest.get(scenario);
+    }
+
+    /**
+     * @return How many drifts have been recomputed, published or not.
+     */
+    public long getRecomputationCount() {
+        return recomputationCount;
+    }
+
+    /**
+     * Subscribe to the updates. A subscriber only receives updates published after it subscribes.
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super DriftUpdate> subscriber) {
+        publisher.subscribe(subscriber);
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (this.subscription != null || done) {
+            subscription.cancel();
+            return;
+        }
+        this.subscription = subscription;
+        subscription.request(batchSize);
+    }
+
+    @Override
+    public void onNext(WindObservation observation) {
+        pending.offer(Objects.requireNonNull(observation));
+        requestDrain();
+    }
+
+    /**
+     * Handle the observations already received, then close the updates exceptionally.
+     */
+    @Override
+    public void onError(Throwable throwable) {
+        this.error = Objects.requireNonNull(throwable);
+        this.done = true;
+        requestDrain();
+    }
+
+    /**
+     * Handle the observations already received, then close the updates.
+     */
+    @Override
+    public void onComplete() {
+        this.done = true;
+        requestDrain();
+    }
+
+    /**
+     * Stop taking observations and close the updates once the observations already received
+     * have been handled.
+     */
+    public void close() {
+        Flow.Subscription current = this.subscription;
+        if (current != null) {
+            current.cancel();
+        }
+        onComplete();
+    }
+
+    private void requestDrain() {
+        if (drainRequests.getAndIncrement() == 0) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        int requests = drainRequests.get();
+        while (true) {
+            try {
+                drainOnce();
+            }
+            catch (RuntimeException e) {
+                done = true;
+                publisher.closeExceptionally(e);
+                Flow.Subscription current = this.subscription;
+                if (current != null) {
+                    current.cancel();
+                }
+            }
+            // Anything that asked for a drain while this one ran is picked up by going round again
+            requests = drainRequests.addAndGet(-requests);
+            if (requests == 0) {
+                return;
+            }
+        }
+    }
+
+    private void drainOnce() {
+        if (publisher.isClosed()) {
+            pending.clear();
+            return;
+        }
+        // Read before the scenarios, so every scenario added before close() is seen before closing
+        boolean closing = done;
+        bandCount = 0;
+        int received = 0;
+        WindObservation observation;
+        while ((observation = pending.poll()) != null) {
+            received++;
+            ValidationStatus status = winds.addWind(observation.getAltitude(), observation.getSpeed(),
+                    observation.getHeading());
+            if (status != ValidationStatus.NOT_A_NUMBER) {
+                addBand(observation.getAltitude());
+            }
+        }
+
+        if (0 < winds.size()) {
+            WindSnapshot snapshot = winds.snapshot();
+            widenBands(snapshot.getCurve(), winds.getInterpolator().getReach());
+            for (DriftScenario scenario : scenarios) {
+                DriftUpdate last = latest.get(scenario);
+                if (last == null || isAffected(scenario)) {
+                    update(scenario, snapshot, last);
+                }
+            }
+        }
+
+        Flow.Subscription current = this.subscription;
+        if (0 < received && current != null && !done) {
+            current.request(received);
+        }
+        if (closing && pending.isEmpty()) {
+            Throwable failure = this.error;
+            if (failure != null) {
+                publisher.closeExceptionally(failure);
+            }
+            else {
+                publisher.close();
+            }
+        }
+    }
+
+    /**
+     * Recompute the drift of a scenario and publish it if it changed.
+     */
+    private void update(DriftScenario scenario, WindSnapshot snapshot, DriftUpdate last) {
+        double exitAltitude = scenario.getExitAltitude();
+        double deploymentAltitude = scenario.getDeploymentAltitude();
+        FreefallTable freefallTable = scenario.getJumperProfile().getFreefallTable();
+        ValidationStatus status = snapshot.validateRange(deploymentAltitude, exitAltitude);
+        if (!status.isError() && freefallTable.validateRange(exitAltitude, deploymentAltitude) != ValidationStatus.OK) {
+            status = ValidationStatus.OUTSIDE_FREEFALL_TABLE;
+        }
+        Drift drift = status.isError() ? null :
+                FreeFallCalculator.calculateDrift(snapshot, freefallTable, exitAltitude, deploymentAltitude);
+        recomputationCount++;
+        if (last != null && last.getStatus() == status && sameDrift(last.getDrift(), drift)) {
+            return;
+        }
+        DriftUpdate update = new DriftUpdate(scenario, snapshot.getVersion(), status, drift);
+        latest.put(scenario, update);
+        // The scenario may have been removed while its drift was calculated
+        if (!scenarios.contains(scenario)) {
+            latest.remove(scenario);
+            return;
+        }
+        publisher.submit(update);
+    }
+
+    private static boolean sameDrift(Drift a, Drift b) {
+        if (a == null || b == null) {
+            return a == b;
+        }
+        return a.getX() == b.getX() && a.getY() == b.getY() &&
+                a.getFreefallTimeInSeconds() == b.getFreefallTimeInSeconds();
+    }
+
+    /**
+     * Record that the wind at an altitude changed. The band is widened to the interpolator's
+     * reach by widenBands() once the curve has been refitted.
+     */
+    private void addBand(double altitude) {
+        if (bandCount == bandLo.length) {
+            bandLo = Arrays.copyOf(bandLo, bandCount * 2);
+            bandHi = Arrays.copyOf(bandHi, bandCount * 2);
+        }
+        bandLo[bandCount] = altitude;
+        bandHi[bandCount] = altitude;
+        bandCount++;
+    }
+
+    /**
+     * Widen each changed altitude to the part of the curve the change can reach. The curve is
+     * held constant outside its knots, so a change within reach of the lowest or highest knot
+     * reaches all the way down or up.
+     */
+    private void widenBands(WindCurve curve, int reach) {
+        int last = curve.size() - 1;
+        for (int i = 0; i < bandCount; i++) {
+            int knot = curve.segmentAtOrBelow(bandLo[i]);
+            bandLo[i] = knot < reach ? Double.NEGATIVE_INFINITY : curve.getKnot(knot - reach);
+            bandHi[i] = last - knot < reach ? Double.POSITIVE_INFINITY : curve.getKnot(knot + reach);
+        }
+    }
+
+    /**
+     * @return True if the fall of a scenario passes through a changed band.
+     */
+    private boolean isAffected(DriftScenario scenario) {
+        for (int i = 0; i < bandCount; i++) {
+            if (bandLo[i] < scenario.getExitAltitude() && scenario.getDeploymentAltitude() < bandHi[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
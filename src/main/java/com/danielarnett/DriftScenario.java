@@ -0,0 +1,57 @@
+package com.danielarnett;
+
+/**
+ * A jump whose drift a DriftPipeline keeps up to date: an exit altitude, a deployment altitude
+ * and a jumper profile. Scenarios are compared by identity, so two scenarios with the same
+ * altitudes are updated separately.
+ */
+public final class DriftScenario {
+    private final String name;
+    private final double exitAltitude;
+    private final double deploymentAltitude;
+    private final JumperProfile jumperProfile;
+
+    /**
+     * Creates a scenario.
+     * @param name A name for the scenario, such as the load it belongs to.
+     * @param exitAltitude The altitude that the jumper exits the plane.
+     * @param deploymentAltitude The altitude that the jumper deploys.
+     * @param jumperProfile How the jumper falls.
+     * @throws IllegalArgumentException if the profile is null or the jumper would deploy at or above the exit.
+     */
+    public DriftScenario(String name, double exitAltitude, double deploymentAltitude, JumperProfile jumperProfile) {
+        if (jumperProfile == null) {
+            throw new IllegalArgumentException("The jumper profile must not be null.");
+        }
+        if (!(deploymentAltitude < exitAltitude)) {
+            throw new IllegalArgumentException("The deployment altitude must be below the exit altitude. " +
+                    "Scenario " + name + " exits at " + String.valueOf(exitAltitude) +
+                    " feet and deploys at " + String.valueOf(deploymentAltitude) + " feet.");
+        }
+        this.name = name;
+        this.exitAltitude = exitAltitude;
+        this.deploymentAltitude = deploymentAltitude;
+        this.jumperProfile = jumperProfile;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public double getExitAltitude() {
+        return exitAltitude;
+    }
+
+    public double getDeploymentAltitude() {
+        return deploymentAltitude;
+    }
+
+    public JumperProfile getJumperProfile() {
+        return jumperProfile;
+    }
+
+    @Override
+    public String toString() {
+        return name + ": " + jumperProfile.getName() + " from " + exitAltitude + " to " + deploymentAltitude + " feet";
+    }
+}
@@ -0,0 +1,58 @@
+package com.danielarnett;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Splits a batch of exit and deployment altitude scenarios across a ForkJoinPool. Every task
+ * reads the same immutable WindSnapshot and writes to its own slice of the output arrays, so
+ * no locking is needed. See FreeFallCalculator.evaluateParallel().
+ */
+@SuppressWarnings("serial")
+class DriftSweep extends RecursiveAction {
+    /**
+     * Scenarios are cheap to evaluate, so each leaf task handles a block of them to keep the
+     * fork-join overhead small.
+     */
+    static final int SCENARIOS_PER_TASK = 1024;
+
+    private final WindSnapshot winds;
+    private final FreefallTable freefallTable;
+    private final double[] exitAltitudes;
+    private final double[] deploymentAltitudes;
+    private final double[] freefallTimes;
+    private final double[] driftDistances;
+    private final double[] driftHeadings;
+    private final ValidationStatus[] statuses;
+    private final int start;
+    private final int end;
+
+    DriftSweep(WindSnapshot winds, FreefallTable freefallTable,
+               double[] exitAltitudes, double[] deploymentAltitudes,
+               double[] freefallTimes, double[] driftDistances, double[] driftHeadings,
+               ValidationStatus[] statuses, int start, int end) {
+        this.winds = winds;
+        this.freefallTable = freefallTable;
+        this.exitAltitudes = exitAltitudes;
+        this.deploymentAltitudes = deploymentAltitudes;
+        this.freefallTimes = freefallTimes;
+        this.driftDistances = driftDistances;
+        this.driftHeadings = driftHeadings;
+        this.statuses = statuses;
+        this.start = start;
+        this.end = end;
+    }
+
+    @Override
+    protected void compute() {
+        if (end - start <= SCENARIOS_PER_TASK) {
+            FreeFallCalculator.evaluate(winds, freefallTable, exitAltitudes, deploymentAltitudes,
+                    freefallTimes, driftDistances, driftHeadings, statuses, start, end);
+            return;
+        }
+        int middle = (start + end) >>> 1;
+        invokeAll(new DriftSweep(winds, freefallTable, exitAltitudes, deploymentAltitudes,
+                        freefallTimes, driftDistances, driftHeadings, statuses, start, middle),
+                new DriftSweep(winds, freefallTable, exitAltitudes, deploymentAltitudes,
+                        freefallTimes, driftDistances, driftHeadings, statuses, middle, end));
+    }
+}
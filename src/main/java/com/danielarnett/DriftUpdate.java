@@ -0,0 +1,49 @@
+package com.danielarnett;
+
+/**
+ * A new drift for a scenario, published by a DriftPipeline when the winds its fall passes
+ * through have changed.
+ */
+public final class DriftUpdate {
+    private final DriftScenario scenario;
+    private final long version;
+    private final ValidationStatus status;
+    private final Drift drift;
+
+    DriftUpdate(DriftScenario scenario, long version, ValidationStatus status, Drift drift) {
+        this.scenario = scenario;
+        this.version = version;
+        this.status = status;
+        this.drift = drift;
+    }
+
+    public DriftScenario getScenario() {
+        return scenario;
+    }
+
+    /**
+     * @return The version of the winds the drift was calculated from.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return OK, BELOW_LOWEST_WIND, or the error that stops the drift from being calculated.
+     */
+    public ValidationStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * @return The drift, or null if the status is an error.
+     */
+    public Drift getDrift() {
+        return drift;
+    }
+
+    @Override
+    public String toString() {
+        return scenario.getName() + " (version " + version + "): " + (drift == null ? status : drift);
+    }
+}
@@ -1,19 +1,29 @@
 package com.danielarnett;
 
+import java.time.Instant;
+import java.util.concurrent.ForkJoinPool;
+
 /**
  * FreeFallCalculator is used to calculate average windspeed, wind heading, freefall time
  * and horizontal displacement in freefall.
  */
 public class FreeFallCalculator {
-    public  final double MIN_EXIT_ALTITUDE = 2000;
-    public  final double MIN_DEPLOYMENT_ALTITUDE = 1000;
-    private final double TERMINAL_VELOCITY_IN_MPH = 120;
-    public  final double MPH_TO_FPS = 66.0/45.0;
-    public  final double FPS_TO_MPH = 1.0 / MPH_TO_FPS;
+    public  static final double MIN_EXIT_ALTITUDE = 2000;
+    public  static final double MIN_DEPLOYMENT_ALTITUDE = 1000;
+    public  static final double MPH_TO_FPS = 66.0/45.0;
+    public  static final double FPS_TO_MPH = 1.0 / MPH_TO_FPS;
     private double exitAltitude;
     private double deploymentAltitude;
-    private double firstOneThousandFeetInSeconds = 12;
-    private double terminalOneThousandFeetTimeInSeconds = 5.5;
+    private JumperProfile jumperProfile = JumperProfile.BELLY;
+    private DriftCache driftCache;
+    /**
+     * Where the winds come from. When null the winds field is used.
+     */
+    private WindSource windSource;
+    /**
+     * When the jump happens, or null for whatever winds are current.
+     */
+    private Instant jumpTime;
 
     public  double roundTo = 0.01;
     public Winds winds;
@@ -24,6 +34,7 @@ public class FreeFallCalculator {
      * See main() function for example usage.
      * @param exitAltitude The altitude that the jumper exits the plane.
      * @param deploymentAltitude The altitude that the jumper deploys his or her parachute.
+     * @throws IllegalArgumentException if either altitude is below its minimum.
      */
     public FreeFallCalculator(double exitAltitude, double deploymentAltitude) {
         this.setExitAltitude(exitAltitude);
@@ -32,21 +43,117 @@ public class FreeFallCalculator {
     }
 
     /**
-     * Gets the freefall time in seconds including accelleration.
-     * TODO: Make this accurate using actual acceleration and drag as a function of time.
+     * Creates a new FreeFallCalculator that gets its winds from a source, such as a drop zone in a
+     * WindProfileRegistry, instead of its own Winds.
+     * @param exitAltitude The altitude that the jumper exits the plane.
+     * @param deploymentAltitude The altitude that the jumper deploys his or her parachute.
+     * @param windSource Where the winds come from.
+     * @throws IllegalArgumentException if either altitude is below its minimum.
+     */
+    public FreeFallCalculator(double exitAltitude, double deploymentAltitude, WindSource windSource) {
+        this(exitAltitude, deploymentAltitude);
+        this.setWindSource(windSource);
+    }
+
+    /**
+     * Gets the freefall time in seconds including accelleration. The fall is integrated with
+     * gravity and drag for the jumper profile, in air that gets thinner with altitude.
      * @return The number of seconds in freefall
      */
     public double getFreefallTimeInSeconds() {
-        double feetAtTerminalVelocity = (exitAltitude - deploymentAltitude - 1000);
-        double freefallTimeInSeconds = 0;
-        if (1000 < (exitAltitude - deploymentAltitude)) {
-            freefallTimeInSeconds += firstOneThousandFeetInSeconds;
-            freefallTimeInSeconds += feetAtTerminalVelocity / (TERMINAL_VELOCITY_IN_MPH * MPH_TO_FPS);
-        }
-        else {
-            freefallTimeInSeconds += firstOneThousandFeetInSeconds * (exitAltitude - deploymentAltitude);
+        return getFreefallTimeInSeconds(this.exitAltitude, this.deploymentAltitude, this.jumperProfile);
+    }
+
+    /**
+     * Gets the freefall time in seconds including accelleration for a belly to earth jumper.
+     * @param exitAltitude The altitude that the jumper exits the plane.
+     * @param deploymentAltitude The altitude that the jumper deploys his or her parachute.
+     * @return The number of seconds in freefall
+     */
+    public static double getFreefallTimeInSeconds(double exitAltitude, double deploymentAltitude) {
+        return getFreefallTimeInSeconds(exitAltitude, deploymentAltitude, JumperProfile.BELLY);
+    }
+
+    /**
+     * Gets the freefall time in seconds including accelleration. The time is looked up in the
+     * profile's precomputed freefall table.
+     * @param exitAltitude The altitude that the jumper exits the plane.
+     * @param deploymentAltitude The altitude that the jumper deploys his or her parachute.
+     * @param jumperProfile How the jumper falls.
+     * @return The number of seconds in freefall
+     * @throws IllegalArgumentException if the exit is above FreefallTable.MAX_ALTITUDE or below the deployment altitude.
+     */
+    public static double getFreefallTimeInSeconds(double exitAltitude, double deploymentAltitude,
+                                                  JumperProfile jumperProfile) {
+        return jumperProfile.getFreefallTable().getFreefallTimeInSeconds(exitAltitude, deploymentAltitude);
+    }
+
+    /**
+     * @return How the jumper falls. Belly to earth by default.
+     */
+    public JumperProfile getJumperProfile() {
+        return jumperProfile;
+    }
+
+    /**
+     * Set how the jumper falls.
+     * @param jumperProfile The jumper profile, such as JumperProfile.BELLY or JumperProfile.FREEFLY.
+     */
+    public void setJumperProfile(JumperProfile jumperProfile) {
+        if (jumperProfile == null) {
+            throw new IllegalArgumentException("The jumper profile must not be null.");
         }
-        return freefallTimeInSeconds;
+        this.jumperProfile = jumperProfile;
+    }
+
+    /**
+     * @return The cache getDrift() looks drifts up in, or null if drifts are always calculated.
+     */
+    public DriftCache getDriftCache() {
+        return driftCache;
+    }
+
+    /**
+     * Look drifts up in a cache instead of calculating them every time. The same cache can be
+     * shared by many calculators.
+     * @param driftCache The cache, or null to always calculate drifts.
+     */
+    public void setDriftCache(DriftCache driftCache) {
+        this.driftCache = driftCache;
+    }
+
+    /**
+     * @return Where the winds come from: the source that was set, or the winds field if none was.
+     */
+    public WindSource getWindSource() {
+        WindSource source = this.windSource;
+        return source != null ? source : this.winds;
+    }
+
+    /**
+     * Get the winds from a source instead of the winds field. The source is asked for its
+     * snapshot on every calculation, so a source from a WindProfileRegistry follows new forecasts
+     * as they are published.
+     * @param windSource Where the winds come from, or null to use the winds field.
+     */
+    public void setWindSource(WindSource windSource) {
+        this.windSource = windSource;
+    }
+
+    /**
+     * @return When the jump happens, or null if the current winds are used.
+     */
+    public Instant getJumpTime() {
+        return jumpTime;
+    }
+
+    /**
+     * Set when the jump happens. Sources whose winds change with time, such as a WindField, give
+     * the winds at that time. Other sources ignore it.
+     * @param jumpTime When the jump happens, or null to use the current winds.
+     */
+    public void setJumpTime(Instant jumpTime) {
+        this.jumpTime = jumpTime;
     }
 
     public double getExitAltitude() {
@@ -59,13 +166,11 @@ public class FreeFallCalculator {
      * @throws IllegalArgumentException If the exit altitude < MIN_EXIT_ALTITUDE
      */
     public void setExitAltitude(double exitAltitude) {
-        if (exitAltitude < MIN_EXIT_ALTITUDE) {
-            new IllegalArgumentException("Exit altitude " + String.valueOf(exitAltitude) +
+        if (!(MIN_EXIT_ALTITUDE <= exitAltitude)) {
+            throw new IllegalArgumentException("Exit altitude " + String.valueOf(exitAltitude) +
             " must be greater than minimum value of " + String.valueOf(MIN_EXIT_ALTITUDE));
         }
-        else {
-            this.exitAltitude = exitAltitude;
-        }
+        this.exitAltitude = exitAltitude;
     }
 
     /**
@@ -79,15 +184,14 @@ public class FreeFallCalculator {
     /**
      * Set the altitude at which the skydiver deploys their parachute.
      * @param deploymentAltitude The planned deployment altitude.
+     * @throws IllegalArgumentException If the deployment altitude < MIN_DEPLOYMENT_ALTITUDE
      */
     public void setDeploymentAltitude(double deploymentAltitude) {
-        if (deploymentAltitude < MIN_DEPLOYMENT_ALTITUDE) {
-            new IllegalArgumentException("Deployment altitude " + String.valueOf(deploymentAltitude) +
+        if (!(MIN_DEPLOYMENT_ALTITUDE <= deploymentAltitude)) {
+            throw new IllegalArgumentException("Deployment altitude " + String.valueOf(deploymentAltitude) +
                     " must be greater than minimum value of " + String.valueOf(MIN_DEPLOYMENT_ALTITUDE));
         }
-        else {
-            this.deploymentAltitude = deploymentAltitude;
-        }
+        this.deploymentAltitude = deploymentAltitude;
     }
 
     /**
@@ -95,10 +199,238 @@ public class FreeFallCalculator {
      * @return Distance traveled horizontally during freefall in feet.
      */
     public double getHorizontalDistanceTraveled() {
-        double speed = this.winds.getAverageWindspeedInRange(this.deploymentAltitude, this.exitAltitude);
-        speed *= this.MPH_TO_FPS;
-        double seconds = this.getFreefallTimeInSeconds();
-        return speed * seconds;
+        return this.getDrift().getDistance();
+    }
+
+    /**
+     * Get the direction the wind carries the jumper during freefall.
+     * @return The compass heading of the drift in degrees.
+     */
+    public double getDriftHeadingInDegrees() {
+        return this.getDrift().getHeadingInDegrees();
+    }
+
+    /**
+     * Calculate the drift during freefall. The wind at each altitude is weighted by the time the
+     * jumper spends there, and the direction of the wind is kept, so the result is the actual
+     * displacement rather than an average windspeed times the freefall time. If the fall reaches
+     * below the lowest wind the listener of the winds field is told so. If a drift cache has been set
+     * the drift is looked up there first.
+     * @return The freefall time and horizontal displacement.
+     * @throws IllegalArgumentException if the winds do not cover the altitude range.
+     */
+    public Drift getDrift() {
+        WindSource source = this.getWindSource();
+        Instant time = this.jumpTime;
+        WindSnapshot snapshot = time == null ? source.snapshot() : source.snapshotAt(time);
+        FreefallTable freefallTable = this.jumperProfile.getFreefallTable();
+        ValidationStatus status = snapshot.validateRange(this.deploymentAltitude, this.exitAltitude);
+        if (status != ValidationStatus.OK && source instanceof Winds) {
+            ((Winds) source).reportOutOfRange(status, this.deploymentAltitude, this.exitAltitude);
+        }
+        if (status.isError()) {
+            throw snapshot.rangeException(status, this.deploymentAltitude, this.exitAltitude);
+        }
+        freefallTable.checkRange(this.exitAltitude, this.deploymentAltitude);
+        DriftCache cache = this.driftCache;
+        if (cache != null) {
+            return cache.getDrift(snapshot, this.jumperProfile, this.exitAltitude, this.deploymentAltitude);
+        }
+        return calculateDrift(snapshot, freefallTable, this.exitAltitude, this.deploymentAltitude);
+    }
+
+    /**
+     * Estimate how far the drift could be from getDrift() given how uncertain the forecast and
+     * the jumper's fall rate are. Uses the same winds, jump time and jumper profile as getDrift().
+     * @param monteCarlo The engine to sample with, which holds the uncertainties.
+     * @param seed The seed of the random numbers. The same seed gives the same dispersion.
+     * @return The dispersion of the sampled drifts.
+     * @throws IllegalArgumentException if the winds do not cover the altitude range.
+     */
+    public DriftDispersion getDriftDispersion(DriftMonteCarlo monteCarlo, long seed) {
+        WindSource source = this.getWindSource();
+        Instant time = this.jumpTime;
+        WindSnapshot snapshot = time == null ? source.snapshot() : source.snapshotAt(time);
+        return monteCarlo.run(snapshot, this.jumperProfile, this.exitAltitude, this.deploymentAltitude, seed);
+    }
+
+    /**
+     * Calculate the drift during freefall.
+     * @throws IllegalArgumentException if the winds or the freefall table do not cover the altitudes.
+     */
+    static Drift calculateDrift(WindSnapshot winds, FreefallTable freefallTable,
+                                double exitAltitude, double deploymentAltitude) {
+        long start = WindsMetrics.start();
+        winds.checkRange(deploymentAltitude, exitAltitude);
+        freefallTable.checkRange(exitAltitude, deploymentAltitude);
+        double[] displacement = new double[2];
+        double seconds = DriftIntegrator.integrate(winds, freefallTable,
+                exitAltitude, deploymentAltitude, displacement);
+        Drift drift = new Drift(seconds, displacement[0], displacement[1]);
+        WindsMetrics.stop(WindsMetrics.Operation.DRIFT, start);
+        return drift;
+    }
+
+    /**
+     * Evaluate many exit and deployment altitude pairs against one wind snapshot. Nothing is
+     * allocated per scenario, so this is suitable for sweeping large grids of altitudes.
+     * Results for scenario i are written to index i of each output array.
+     * @param winds The winds to use for every scenario.
+     * @param exitAltitudes The exit altitude of each scenario.
+     * @param deploymentAltitudes The deployment altitude of each scenario.
+     * @param freefallTimes Receives the freefall time of each scenario in seconds.
+     * @param driftDistances Receives the distance traveled horizontally in feet.
+     * @param driftHeadings Receives the heading of the drift in degrees.
+     * @throws IllegalArgumentException if the arrays are not all the same length, or a scenario
+     * has an altitude range the winds cannot be averaged over. Every scenario is checked before
+     * any results are written, so the output arrays are left untouched.
+     */
+    public static void evaluate(WindSnapshot winds, double[] exitAltitudes, double[] deploymentAltitudes,
+                                double[] freefallTimes, double[] driftDistances, double[] driftHeadings) {
+        evaluate(winds, JumperProfile.BELLY, exitAltitudes, deploymentAltitudes,
+                freefallTimes, driftDistances, driftHeadings);
+    }
+
+    /**
+     * Evaluate many exit and deployment altitude pairs for one jumper profile.
+     * See evaluate(WindSnapshot, double[], double[], double[], double[], double[]).
+     * @param jumperProfile How the jumpers fall.
+     */
+    public static void evaluate(WindSnapshot winds, JumperProfile jumperProfile, double[] exitAltitudes,
+                                double[] deploymentAltitudes, double[] freefallTimes,
+                                double[] driftDistances, double[] driftHeadings) {
+        checkLengths(exitAltitudes, deploymentAltitudes, freefallTimes, driftDistances, driftHeadings, null);
+        checkScenarios(winds, jumperProfile.getFreefallTable(), exitAltitudes, deploymentAltitudes);
+        evaluate(winds, jumperProfile.getFreefallTable(), exitAltitudes, deploymentAltitudes,
+                freefallTimes, driftDistances, driftHeadings, null, 0, exitAltitudes.length);
+    }
+
+    /**
+     * Evaluate many exit and deployment altitude pairs, recording a status for each scenario
+     * instead of stopping at the first bad one. A scenario whose status is an error gets NaN
+     * results. A noisy batch therefore costs no more than a clean one.
+     * See evaluate(WindSnapshot, double[], double[], double[], double[], double[]).
+     * @param jumperProfile How the jumpers fall.
+     * @param statuses Receives the status of each scenario.
+     * @throws IllegalArgumentException if the arrays are not all the same length.
+     */
+    public static void evaluate(WindSnapshot winds, JumperProfile jumperProfile, double[] exitAltitudes,
+                                double[] deploymentAltitudes, double[] freefallTimes,
+                                double[] driftDistances, double[] driftHeadings, ValidationStatus[] statuses) {
+        checkLengths(exitAltitudes, deploymentAltitudes, freefallTimes, driftDistances, driftHeadings, statuses);
+        evaluate(winds, jumperProfile.getFreefallTable(), exitAltitudes, deploymentAltitudes,
+                freefallTimes, driftDistances, driftHeadings, statuses, 0, exitAltitudes.length);
+    }
+
+    /**
+     * Evaluate many exit and deployment altitude pairs in parallel on the common ForkJoinPool.
+     * See evaluate(WindSnapshot, double[], double[], double[], double[], double[]).
+     */
+    public static void evaluateParallel(WindSnapshot winds, double[] exitAltitudes, double[] deploymentAltitudes,
+                                        double[] freefallTimes, double[] driftDistances, double[] driftHeadings) {
+        evaluateParallel(ForkJoinPool.commonPool(), winds, JumperProfile.BELLY, exitAltitudes,
+                deploymentAltitudes, freefallTimes, driftDistances, driftHeadings);
+    }
+
+    /**
+     * Evaluate many exit and deployment altitude pairs in parallel. The scenarios are split into
+     * blocks which are evaluated on the pool, all reading the same immutable snapshot.
+     * See evaluate(WindSnapshot, double[], double[], double[], double[], double[]).
+     * @param pool The pool to run the evaluation on.
+     * @param jumperProfile How the jumpers fall.
+     */
+    public static void evaluateParallel(ForkJoinPool pool, WindSnapshot winds, JumperProfile jumperProfile,
+                                        double[] exitAltitudes, double[] deploymentAltitudes,
+                                        double[] freefallTimes, double[] driftDistances,
+                                        double[] driftHeadings) {
+        evaluateParallel(pool, winds, jumperProfile, exitAltitudes, deploymentAltitudes,
+                freefallTimes, driftDistances, driftHeadings, null);
+    }
+
+    /**
+     * Evaluate many exit and deployment altitude pairs in parallel, recording a status for each
+     * scenario. See evaluate(WindSnapshot, JumperProfile, double[], double[], double[], double[],
+     * double[], ValidationStatus[]).
+     * @param pool The pool to run the evaluation on.
+     * @param jumperProfile How the jumpers fall.
+     * @param statuses Receives the status of each scenario, or null to throw on the first bad one.
+     */
+    public static void evaluateParallel(ForkJoinPool pool, WindSnapshot winds, JumperProfile jumperProfile,
+                                        double[] exitAltitudes, double[] deploymentAltitudes,
+                                        double[] freefallTimes, double[] driftDistances,
+                                        double[] driftHeadings, ValidationStatus[] statuses) {
+        checkLengths(exitAltitudes, deploymentAltitudes, freefallTimes, driftDistances, driftHeadings, statuses);
+        if (statuses == null) {
+            checkScenarios(winds, jumperProfile.getFreefallTable(), exitAltitudes, deploymentAltitudes);
+        }
+        pool.invoke(new DriftSweep(winds, jumperProfile.getFreefallTable(), exitAltitudes,
+                deploymentAltitudes, freefallTimes, driftDistances, driftHeadings, statuses,
+                0, exitAltitudes.length));
+    }
+
+    private static void checkLengths(double[] exitAltitudes, double[] deploymentAltitudes,
+                                     double[] freefallTimes, double[] driftDistances,
+                                     double[] driftHeadings, ValidationStatus[] statuses) {
+        int n = exitAltitudes.length;
+        if (deploymentAltitudes.length != n || freefallTimes.length != n ||
+                driftDistances.length != n || driftHeadings.length != n ||
+                (statuses != null && statuses.length != n)) {
+            throw new IllegalArgumentException("The number of exit altitudes must equal the number of " +
+                    "deployment altitudes and the length of every output array.");
+        }
+    }
+
+    /**
+     * Check every scenario before any results are written, so a bad one does not leave the
+     * output arrays half written.
+     * @throws IllegalArgumentException for the first scenario that the winds or the freefall
+     * table do not cover.
+     */
+    private static void checkScenarios(WindSnapshot winds, FreefallTable freefallTable,
+                                       double[] exitAltitudes, double[] deploymentAltitudes) {
+        for (int i = 0; i < exitAltitudes.length; i++) {
+            winds.checkRange(deploymentAltitudes[i], exitAltitudes[i]);
+            freefallTable.checkRange(exitAltitudes[i], deploymentAltitudes[i]);
+        }
+    }
+
+    /**
+     * Evaluate the scenarios from index start up to but not including index end. If statuses is
+     * not null the status of every scenario is recorded there. Scenarios whose status is an error
+     * get NaN results, so when statuses is null the scenarios must have been checked with
+     * checkScenarios() first.
+     * See evaluate(WindSnapshot, double[], double[], double[], double[], double[]).
+     */
+    static void evaluate(WindSnapshot winds, FreefallTable freefallTable,
+                         double[] exitAltitudes, double[] deploymentAltitudes,
+                         double[] freefallTimes, double[] driftDistances, double[] driftHeadings,
+                         ValidationStatus[] statuses, int start, int end) {
+        long startTime = WindsMetrics.start();
+        double[] displacement = new double[2];
+        for (int i = start; i < end; i++) {
+            double exitAltitude = exitAltitudes[i];
+            double deploymentAltitude = deploymentAltitudes[i];
+            ValidationStatus status = winds.validateRange(deploymentAltitude, exitAltitude);
+            if (!status.isError() && freefallTable.validateRange(exitAltitude, deploymentAltitude) != ValidationStatus.OK) {
+                status = ValidationStatus.OUTSIDE_FREEFALL_TABLE;
+            }
+            if (statuses != null) {
+                statuses[i] = status;
+            }
+            if (status.isError()) {
+                freefallTimes[i] = Double.NaN;
+                driftDistances[i] = Double.NaN;
+                driftHeadings[i] = Double.NaN;
+                continue;
+            }
+            freefallTimes[i] = DriftIntegrator.integrate(winds, freefallTable,
+                    exitAltitude, deploymentAltitude, displacement);
+            // Keep the components for now and convert them all at once below
+            driftDistances[i] = displacement[0];
+            driftHeadings[i] = displacement[1];
+        }
+        WindComponents.toPolar(driftDistances, driftHeadings, driftDistances, driftHeadings, start, end);
+        WindsMetrics.stop(WindsMetrics.Operation.BATCH_DRIFT, startTime, end - start);
     }
     public static void main(String[] args) {
         double exitAltitude = 12000;
@@ -121,11 +453,15 @@ public class FreeFallCalculator {
         System.out.println("Distance Traveled Horizontally in Feet: " +
             String.valueOf(freeFallCalculator.getHorizontalDistanceTraveled()));
 
+        System.out.println("Heading of Drift in Degrees:            " +
+            String.valueOf(freeFallCalculator.getDriftHeadingInDegrees()));
+
         // Display all interpolated wind values
-//        for (int i = 0; i < freeFallCalculator.winds.interpolatedAltitude.size(); i++) {
-//            System.out.println(String.valueOf(freeFallCalculator.winds.interpolatedAltitude.get(i)) + "," +
-//                    String.valueOf(freeFallCalculator.winds.interpolatedSpeed.get(i)) + "," +
-//                    String.valueOf(freeFallCalculator.winds.interpolatedHeading.get(i)));
+//        WindProfile interpolatedWinds = freeFallCalculator.winds.getInterpolatedWinds();
+//        for (int i = 0; i < interpolatedWinds.size(); i++) {
+//            System.out.println(String.valueOf(interpolatedWinds.getAltitude(i)) + "," +
+//                    String.valueOf(interpolatedWinds.getSpeed(i)) + "," +
+//                    String.valueOf(interpolatedWinds.getHeading(i)));
 //        }
     }
 }
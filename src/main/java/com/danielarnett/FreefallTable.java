@@ -0,0 +1,247 @@
+package com.danielarnett;
+
+/**
+ * A precomputed table of freefall times for one jumper profile. The fall is integrated once with
+ * gravity and drag in an atmosphere whose density falls off with altitude, and the results are
+ * stored so that the time to fall between any two altitudes can be looked up in O(1).
+ *
+ * Two tables are kept:
+ * 1. For exits every EXIT_STEP feet, the elapsed time at every WINDOW_STEP feet during the first
+ *    WINDOW feet of the fall, while the jumper is still accelerating.
+ * 2. The time to fall at terminal velocity from MAX_ALTITUDE down to every TERMINAL_STEP feet.
+ *    Once the jumper has reached terminal velocity the time between two altitudes is the
+ *    difference of two entries. How much longer the acceleration took than falling the same
+ *    distance at terminal velocity is stored for each exit altitude.
+ */
+public final class FreefallTable {
+    public static final double MAX_ALTITUDE = 30000;
+    static final double GRAVITY_IN_FPS2 = 32.174;
+    static final double EXIT_STEP = 500;
+    static final double WINDOW = 5000;
+    static final double WINDOW_STEP = 20;
+    static final double TERMINAL_STEP = 10;
+    private static final double INTEGRATION_STEP_IN_SECONDS = 0.01;
+    /**
+     * The shape of the tables.
+     */
+    static final int EXIT_ROWS = (int) (MAX_ALTITUDE / EXIT_STEP) + 1;
+    static final int WINDOW_COLUMNS = (int) (WINDOW / WINDOW_STEP) + 1;
+    static final int TERMINAL_ROWS = (int) ((MAX_ALTITUDE + WINDOW) / TERMINAL_STEP) + 1;
+
+    private final double terminalVelocityInFps;
+    private final int windowColumns;
+    /**
+     * The elapsed times during acceleration, row major, one row per exit altitude.
+     */
+    private final double[] accelerationTimes;
+    /**
+     * For each exit altitude, how many more seconds the first WINDOW feet took than they would have
+     * at terminal velocity.
+     */
+    private final double[] accelerationPenalty;
+    /**
+     * The time to fall at terminal velocity from MAX_ALTITUDE, starting at -WINDOW feet.
+     */
+    private final double[] terminalTimes;
+
+    /**
+     * Integrate the fall for a jumper and build the tables.
+     * @param terminalVelocityInMph The jumper's terminal velocity at sea level.
+     */
+    FreefallTable(double terminalVelocityInMph) {
+        this.terminalVelocityInFps = terminalVelocityInMph * FreeFallCalculator.MPH_TO_FPS;
+        this.windowColumns = WINDOW_COLUMNS;
+        int exitRows = EXIT_ROWS;
+        this.accelerationTimes = new double[exitRows * windowColumns];
+        this.accelerationPenalty = new double[exitRows];
+        this.terminalTimes = new double[TERMINAL_ROWS];
+
+        // Falling at terminal velocity, dt = dh / v(h). Integrate from the top down.
+        int top = terminalTimes.length - 1;
+        for (int i = top - 1; 0 <= i; i--) {
+            double hi = altitudeOfTerminalIndex(i + 1);
+            double lo = altitudeOfTerminalIndex(i);
+            terminalTimes[i] = terminalTimes[i + 1] +
+                    0.5 * TERMINAL_STEP * (1 / terminalVelocity(hi) + 1 / terminalVelocity(lo));
+        }
+
+        for (int row = 0; row < exitRows; row++) {
+            double exitAltitude = row * EXIT_STEP;
+            integrateAcceleration(exitAltitude, row * windowColumns);
+            double terminalSeconds = terminalTime(exitAltitude - WINDOW) - terminalTime(exitAltitude);
+            accelerationPenalty[row] = accelerationTimes[row * windowColumns + windowColumns - 1] - terminalSeconds;
+        }
+    }
+
+    /**
+     * Creates a table from tables built earlier, such as ones read from a WindStore. The arrays
+     * are not copied.
+     * @param terminalVelocityInMph The jumper's terminal velocity at sea level.
+     * @param accelerationTimes EXIT_ROWS rows of WINDOW_COLUMNS elapsed times.
+     * @param accelerationPenalty EXIT_ROWS penalties.
+     * @param terminalTimes TERMINAL_ROWS times at terminal velocity.
+     */
+    FreefallTable(double terminalVelocityInMph, double[] accelerationTimes,
+                  double[] accelerationPenalty, double[] terminalTimes) {
+        this.terminalVelocityInFps = terminalVelocityInMph * FreeFallCalculator.MPH_TO_FPS;
+        this.windowColumns = WINDOW_COLUMNS;
+        this.accelerationTimes = accelerationTimes;
+        this.accelerationPenalty = accelerationPenalty;
+        this.terminalTimes = terminalTimes;
+    }
+
+    /**
+     * Get the time to fall from one altitude to another, starting from rest.
+     * @param exitAltitude The altitude the jumper exits at. Must be between 0 and MAX_ALTITUDE.
+     * @param deploymentAltitude The altitude the jumper deploys at. Must be between 0 and exitAltitude.
+     * @return The freefall time in seconds.
+     * @throws IllegalArgumentException if the altitudes are out of range.
+     */
+    public double getFreefallTimeInSeconds(double exitAltitude, double deploymentAltitude) {
+        checkRange(exitAltitude, deploymentAltitude);
+        return elapsedTime(exitAltitude, exitAltitude - deploymentAltitude);
+    }
+
+    /**
+     * Check whether the table covers a fall between two altitudes without allocating anything.
+     * @return OK, NOT_A_NUMBER, or OUTSIDE_FREEFALL_TABLE.
+     */
+    public ValidationStatus validateRange(double exitAltitude, double deploymentAltitude) {
+        if (Double.isNaN(exitAltitude) || Double.isNaN(deploymentAltitude)) {
+            return ValidationStatus.NOT_A_NUMBER;
+        }
+        if (exitAltitude < deploymentAltitude || deploymentAltitude < 0 || MAX_ALTITUDE < exitAltitude) {
+            return ValidationStatus.OUTSIDE_FREEFALL_TABLE;
+        }
+        return ValidationStatus.OK;
+    }
+
+    /**
+     * Check that the table covers a fall between two altitudes.
+     * @throws IllegalArgumentException if the altitudes are out of range.
+     */
+    void checkRange(double exitAltitude, double deploymentAltitude) {
+        if (validateRange(exitAltitude, deploymentAltitude) != ValidationStatus.OK) {
+            throw new IllegalArgumentException("Freefall times are only available for exits below " +
+                    String.valueOf(MAX_ALTITUDE) + " feet, deploying between the ground and the exit altitude." +
+                    " Requested exit at " + String.valueOf(exitAltitude) +
+                    " feet and deployment at " + String.valueOf(deploymentAltitude) + " feet.");
+        }
+    }
+
+    /**
+     * Look up the elapsed time after falling some distance from an exit altitude, without
+     * checking the arguments.
+     * @param exitAltitude The exit altitude, between 0 and MAX_ALTITUDE.
+     * @param feetFallen The distance fallen, between 0 and exitAltitude.
+     * @return The elapsed time in seconds.
+     */
+    double elapsedTime(double exitAltitude, double feetFallen) {
+        double rowPosition = exitAltitude / EXIT_STEP;
+        int row = Math.min((int) rowPosition, accelerationPenalty.length - 2);
+        double rowWeight = rowPosition - row;
+        if (feetFallen < WINDOW) {
+            double columnPosition = feetFallen / WINDOW_STEP;
+            int column = (int) columnPosition;
+            double columnWeight = columnPosition - column;
+            int lower = row * windowColumns + column;
+            int upper = lower + windowColumns;
+            double lowerTime = accelerationTimes[lower] + columnWeight * (accelerationTimes[lower + 1] - accelerationTimes[lower]);
+            double upperTime = accelerationTimes[upper] + columnWeight * (accelerationTimes[upper + 1] - accelerationTimes[upper]);
+            return lowerTime + rowWeight * (upperTime - lowerTime);
+        }
+        double penalty = accelerationPenalty[row] + rowWeight * (accelerationPenalty[row + 1] - accelerationPenalty[row]);
+        return terminalTime(exitAltitude - feetFallen) - terminalTime(exitAltitude) + penalty;
+    }
+
+    /**
+     * @return The sea level terminal velocity of the jumper in feet per second.
+     */
+    public double getTerminalVelocityInFps() {
+        return terminalVelocityInFps;
+    }
+
+    /**
+     * @param altitude The altitude in feet.
+     * @return The terminal velocity at an altitude in feet per second.
+     */
+    public double terminalVelocity(double altitude) {
+        return terminalVelocityInFps / Math.sqrt(relativeAirDensity(altitude));
+    }
+
+    /**
+     * The density of the standard atmosphere relative to sea level.
+     * @param altitude The altitude in feet.
+     * @return The air density divided by the sea level air density.
+     */
+    static double relativeAirDensity(double altitude) {
+        return Math.pow(1 - 6.8756e-6 * altitude, 4.2559);
+    }
+
+    /**
+     * Integrate a fall from rest with RK4 and record the elapsed time every WINDOW_STEP feet.
+     */
+    private void integrateAcceleration(double exitAltitude, int offset) {
+        double time = 0;
+        double fallen = 0;
+        double velocity = 0;
+        int column = 1;
+        accelerationTimes[offset] = 0;
+        while (column < windowColumns) {
+            double dt = INTEGRATION_STEP_IN_SECONDS;
+            double k1v = acceleration(exitAltitude - fallen, velocity);
+            double k1h = velocity;
+            double k2v = acceleration(exitAltitude - fallen - 0.5 * dt * k1h, velocity + 0.5 * dt * k1v);
+            double k2h = velocity + 0.5 * dt * k1v;
+            double k3v = acceleration(exitAltitude - fallen - 0.5 * dt * k2h, velocity + 0.5 * dt * k2v);
+            double k3h = velocity + 0.5 * dt * k2v;
+            double k4v = acceleration(exitAltitude - fallen - dt * k3h, velocity + dt * k3v);
+            double k4h = velocity + dt * k3v;
+            double nextFallen = fallen + dt / 6 * (k1h + 2 * k2h + 2 * k3h + k4h);
+            double nextVelocity = velocity + dt / 6 * (k1v + 2 * k2v + 2 * k3v + k4v);
+            // Record the time whenever the jumper passes a column, interpolating within the step
+            while (column < windowColumns && column * WINDOW_STEP <= nextFallen) {
+                double fraction = (column * WINDOW_STEP - fallen) / (nextFallen - fallen);
+                accelerationTimes[offset + column] = time + fraction * dt;
+                column++;
+            }
+            time += dt;
+            fallen = nextFallen;
+            velocity = nextVelocity;
+        }
+    }
+
+    /**
+     * @return The downward acceleration in feet per second squared at an altitude and speed.
+     */
+    private double acceleration(double altitude, double velocity) {
+        double ratio = velocity / terminalVelocityInFps;
+        return GRAVITY_IN_FPS2 * (1 - relativeAirDensity(altitude) * ratio * ratio);
+    }
+
+    /**
+     * The arrays behind the table, for WindStore to write out.
+     */
+    double[] accelerationTimes() {
+        return accelerationTimes;
+    }
+
+    double[] accelerationPenalty() {
+        return accelerationPenalty;
+    }
+
+    double[] terminalTimes() {
+        return terminalTimes;
+    }
+
+    private double altitudeOfTerminalIndex(int i) {
+        return i * TERMINAL_STEP - WINDOW;
+    }
+
+    private double terminalTime(double altitude) {
+        double position = (altitude + WINDOW) / TERMINAL_STEP;
+        int i = Math.min((int) position, terminalTimes.length - 2);
+        double weight = position - i;
+        return terminalTimes[i] + weight * (terminalTimes[i + 1] - terminalTimes[i]);
+    }
+}
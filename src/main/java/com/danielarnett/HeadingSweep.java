@@ -0,0 +1,50 @@
+package com.danielarnett;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Plans the jump run for a range of headings across a ForkJoinPool. Every task shares the
+ * groups' ideal exit points and writes its own slice of the plans. See SpotSolver.solve().
+ */
+@SuppressWarnings("serial")
+class HeadingSweep extends RecursiveAction {
+    static final int HEADINGS_PER_TASK = 8;
+
+    private final SpotSolver solver;
+    private final double[] headings;
+    private final double windX;
+    private final double windY;
+    private final double[] exitX;
+    private final double[] exitY;
+    private final double[] range;
+    private final JumpRun[] runs;
+    private final int start;
+    private final int end;
+
+    HeadingSweep(SpotSolver solver, double[] headings, double windX, double windY,
+                 double[] exitX, double[] exitY, double[] range, JumpRun[] runs, int start, int end) {
+        this.solver = solver;
+        this.headings = headings;
+        this.windX = windX;
+        this.windY = windY;
+        this.exitX = exitX;
+        this.exitY = exitY;
+        this.range = range;
+        this.runs = runs;
+        this.start = start;
+        this.end = end;
+    }
+
+    @Override
+    protected void compute() {
+        if (end - start <= HEADINGS_PER_TASK) {
+            for (int i = start; i < end; i++) {
+                runs[i] = solver.planHeading(headings[i], windX, windY, exitX, exitY, range);
+            }
+            return;
+        }
+        int middle = (start + end) >>> 1;
+        invokeAll(new HeadingSweep(solver, headings, windX, windY, exitX, exitY, range, runs, start, middle),
+                new HeadingSweep(solver, headings, windX, windY, exitX, exitY, range, runs, middle, end));
+    }
+}
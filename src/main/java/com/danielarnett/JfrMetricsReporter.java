@@ -0,0 +1,123 @@
+package com.danielarnett;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.Timespan;
+
+/**
+ * Reports WindsMetrics as JDK Flight Recorder events, one com.danielarnett.WindsMetrics event
+ * per operation with its count and latency percentiles, and a com.danielarnett.WindsGridSizes
+ * event. Call install() once to have JFR take the
+ * metrics itself every period of a recording, 10 seconds unless the recording's settings say
+ * otherwise. Installing the reporter does not switch the metrics on, see WindsMetrics.setEnabled().
+ */
+public final class JfrMetricsReporter implements MetricsReporter {
+    private static final JfrMetricsReporter INSTANCE = new JfrMetricsReporter();
+    private static final Runnable HOOK = () -> WindsMetrics.report(INSTANCE);
+    private static boolean installed;
+
+    @Name("com.danielarnett.WindsMetrics")
+    @Label("Winds Metrics")
+    @Category("Freefall Calculator")
+    @Description("Calls and latencies of one operation since the metrics were last reset")
+    @Period("10 s")
+    static final class MetricsEvent extends Event {
+        @Label("Operation")
+        String operation;
+
+        @Label("Count")
+        long count;
+
+        @Label("Mean")
+        @Timespan(Timespan.NANOSECONDS)
+        long mean;
+
+        @Label("50th Percentile")
+        @Timespan(Timespan.NANOSECONDS)
+        long p50;
+
+        @Label("99th Percentile")
+        @Timespan(Timespan.NANOSECONDS)
+        long p99;
+
+        @Label("Maximum")
+        @Timespan(Timespan.NANOSECONDS)
+        long max;
+    }
+
+    @Name("com.danielarnett.WindsGridSizes")
+    @Label("Winds Grid Sizes")
+    @Category("Freefall Calculator")
+    @Description("Number of winds in the interpolated grids built since the metrics were last reset")
+    static final class GridSizeEvent extends Event {
+        @Label("Grids Built")
+        long count;
+
+        @Label("Largest Grid")
+        long max;
+
+        @Label("50th Percentile")
+        long p50;
+    }
+
+    private JfrMetricsReporter() {
+    }
+
+    /**
+     * @return The reporter.
+     */
+    public static JfrMetricsReporter getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Have JFR report the metrics periodically during every recording. Calling this more than
+     * once does nothing.
+     */
+    public static synchronized void install() {
+        if (!installed) {
+            FlightRecorder.addPeriodicEvent(MetricsEvent.class, HOOK);
+            installed = true;
+        }
+    }
+
+    /**
+     * Stop reporting the metrics periodically.
+     */
+    public static synchronized void uninstall() {
+        if (installed) {
+            FlightRecorder.removePeriodicEvent(HOOK);
+            installed = false;
+        }
+    }
+
+    @Override
+    public void report(WindsMetrics.Operation operation, long count, LogHistogram latencies) {
+        MetricsEvent event = new MetricsEvent();
+        if (event.isEnabled()) {
+            event.operation = operation.name();
+            event.count = count;
+            event.mean = Math.round(latencies.getMean());
+            event.p50 = latencies.getValueAtPercentile(50);
+            event.p99 = latencies.getValueAtPercentile(99);
+            event.max = latencies.getMax();
+            event.commit();
+        }
+    }
+
+    @Override
+    public void reportGridSizes(LogHistogram gridSizes) {
+        GridSizeEvent event = new GridSizeEvent();
+        if (event.isEnabled()) {
+            event.count = gridSizes.getCount();
+            event.max = gridSizes.getMax();
+            event.p50 = gridSizes.getValueAtPercentile(50);
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.danielarnett;
+
+/**
+ * A group of jumpers who exit together, fall together, and fly their canopies to the same
+ * target. Used by SpotSolver.
+ */
+public final class JumpGroup {
+    /** A typical descent rate for a sport canopy in full flight. */
+    public static final double DEFAULT_CANOPY_DESCENT_RATE_IN_FPS = 15;
+    /** How far from the ideal exit point a typical group can still fly back to the target. */
+    public static final double DEFAULT_CANOPY_RANGE_IN_FEET = 1000;
+
+    private final String name;
+    private final JumperProfile jumperProfile;
+    private final double deploymentAltitude;
+    private final double canopyDescentRateInFps;
+    private final double canopyRangeInFeet;
+
+    /**
+     * Creates a group with a typical canopy.
+     * See JumpGroup(String, JumperProfile, double, double, double).
+     */
+    public JumpGroup(String name, JumperProfile jumperProfile, double deploymentAltitude) {
+        this(name, jumperProfile, deploymentAltitude, DEFAULT_CANOPY_DESCENT_RATE_IN_FPS, DEFAULT_CANOPY_RANGE_IN_FEET);
+    }
+
+    /**
+     * Creates a group.
+     * @param name A name for the group.
+     * @param jumperProfile How the group falls.
+     * @param deploymentAltitude The altitude the group deploys at.
+     * @param canopyDescentRateInFps How fast the canopies come down.
+     * @param canopyRangeInFeet How far from the ideal exit point the group can exit and still
+     *                          fly back to the target.
+     * @throws IllegalArgumentException if the profile is null or a number is not positive.
+     */
+    public JumpGroup(String name, JumperProfile jumperProfile, double deploymentAltitude,
+                     double canopyDescentRateInFps, double canopyRangeInFeet) {
+        if (jumperProfile == null) {
+            throw new IllegalArgumentException("The jumper profile must not be null.");
+        }
+        if (!(0 < deploymentAltitude) || !(0 < canopyDescentRateInFps) || !(0 <= canopyRangeInFeet)) {
+            throw new IllegalArgumentException("Group " + name + " needs a positive deployment altitude and " +
+                    "canopy descent rate, and a canopy range that is not negative.");
+        }
+        this.name = name;
+        this.jumperProfile = jumperProfile;
+        this.deploymentAltitude = deploymentAltitude;
+        this.canopyDescentRateInFps = canopyDescentRateInFps;
+        this.canopyRangeInFeet = canopyRangeInFeet;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public JumperProfile getJumperProfile() {
+        return jumperProfile;
+    }
+
+    public double getDeploymentAltitude() {
+        return deploymentAltitude;
+    }
+
+    public double getCanopyDescentRateInFps() {
+        return canopyDescentRateInFps;
+    }
+
+    public double getCanopyRangeInFeet() {
+        return canopyRangeInFeet;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + jumperProfile.getName() + ", deploying at " + deploymentAltitude + " ft)";
+    }
+}
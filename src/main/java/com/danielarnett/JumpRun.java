@@ -0,0 +1,172 @@
+package com.danielarnett;
+
+/**
+ * The plan for one jump run heading: where the aircraft flies, when the green light is on, and
+ * where each group exits. Positions are in feet east (x) and north (y) of the target.
+ *
+ * The aircraft flies a straight ground track on the heading, offset sideways so the groups' ideal
+ * exit points are as close to the track as possible. The first group can exit anywhere within
+ * the green light window, and each following group exits one separation further along the track.
+ */
+public final class JumpRun {
+    private final double headingInDegrees;
+    private final double groundSpeedInFps;
+    private final double separationInFeet;
+    private final int groupCount;
+    /**
+     * Along the track and to the right of it, from the point of the track nearest the target.
+     */
+    private final double crossTrackOffset;
+    private final double windowStart;
+    private final double windowEnd;
+    private final double firstExit;
+    private final double alongX;
+    private final double alongY;
+
+    JumpRun(double headingInDegrees, double groundSpeedInFps, double separationInFeet, int groupCount,
+            double crossTrackOffset, double windowStart, double windowEnd, double firstExit) {
+        this.headingInDegrees = headingInDegrees;
+        this.groundSpeedInFps = groundSpeedInFps;
+        this.separationInFeet = separationInFeet;
+        this.groupCount = groupCount;
+        this.crossTrackOffset = crossTrackOffset;
+        this.windowStart = windowStart;
+        this.windowEnd = windowEnd;
+        this.firstExit = firstExit;
+        double heading = Math.toRadians(headingInDegrees);
+        this.alongX = Math.sin(heading);
+        this.alongY = Math.cos(heading);
+    }
+
+    /**
+     * Creates the plan for a heading the aircraft cannot fly, because the crosswind at exit
+     * altitude is stronger than its airspeed or the headwind stops it.
+     */
+    static JumpRun unflyable(double headingInDegrees, double separationInFeet, int groupCount) {
+        return new JumpRun(headingInDegrees, 0, separationInFeet, groupCount,
+                Double.NaN, Double.NaN, Double.NaN, Double.NaN);
+    }
+
+    /**
+     * @return The ground track of the jump run in degrees.
+     */
+    public double getHeadingInDegrees() {
+        return headingInDegrees;
+    }
+
+    /**
+     * @return The aircraft's speed over the ground on this heading in miles per hour.
+     */
+    public double getGroundSpeedInMph() {
+        return groundSpeedInFps * FreeFallCalculator.FPS_TO_MPH;
+    }
+
+    /**
+     * @return True if the aircraft can fly this heading and every group can make the target.
+     */
+    public boolean isFeasible() {
+        return windowStart <= windowEnd;
+    }
+
+    /**
+     * @return How long the green light window is open in seconds, 0 if the run is not feasible.
+     */
+    public double getGreenLightWindowInSeconds() {
+        return isFeasible() ? (windowEnd - windowStart) / groundSpeedInFps : 0;
+    }
+
+    /**
+     * @return The time between groups in seconds.
+     */
+    public double getSeparationInSeconds() {
+        return separationInFeet / groundSpeedInFps;
+    }
+
+    /**
+     * @return How far to the right of the target the ground track passes in feet.
+     */
+    public double getCrossTrackOffsetInFeet() {
+        return crossTrackOffset;
+    }
+
+    /**
+     * @return The number of groups.
+     */
+    public int getGroupCount() {
+        return groupCount;
+    }
+
+    /**
+     * @param group The index of the group in exit order.
+     * @return The best exit point of the group, east of the target in feet.
+     */
+    public double getExitX(int group) {
+        return x(firstExit + group * separationInFeet);
+    }
+
+    /**
+     * @param group The index of the group in exit order.
+     * @return The best exit point of the group, north of the target in feet.
+     */
+    public double getExitY(int group) {
+        return y(firstExit + group * separationInFeet);
+    }
+
+    /**
+     * @return Where the green light comes on, east of the target in feet.
+     */
+    public double getGreenLightStartX() {
+        return x(windowStart);
+    }
+
+    /**
+     * @return Where the green light comes on, north of the target in feet.
+     */
+    public double getGreenLightStartY() {
+        return y(windowStart);
+    }
+
+    /**
+     * @return The last point the first group can exit, east of the target in feet.
+     */
+    public double getGreenLightEndX() {
+        return x(windowEnd);
+    }
+
+    /**
+     * @return The last point the first group can exit, north of the target in feet.
+     */
+    public double getGreenLightEndY() {
+        return y(windowEnd);
+    }
+
+    /**
+     * Rank runs by the length of their window. Runs that are not feasible rank below every
+     * feasible run, by how far their groups' windows are from overlapping.
+     */
+    double score() {
+        if (groundSpeedInFps == 0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        return (windowEnd - windowStart) / groundSpeedInFps;
+    }
+
+    @Override
+    public String toString() {
+        if (groundSpeedInFps == 0) {
+            return String.format("Heading %.0f degrees: cannot be flown", headingInDegrees);
+        }
+        return String.format("Heading %.0f degrees at %.0f mph: green light window %.1f s, first exit " +
+                        "%.0f ft east and %.0f ft north of the target, %.1f s between groups",
+                headingInDegrees, getGroundSpeedInMph(), getGreenLightWindowInSeconds(),
+                getExitX(0), getExitY(0), getSeparationInSeconds());
+    }
+
+    private double x(double along) {
+        return along * alongX + crossTrackOffset * alongY;
+    }
+
+    private double y(double along) {
+        return along * alongY - crossTrackOffset * alongX;
+    }
+}
@@ -0,0 +1,73 @@
+package com.danielarnett;
+
+/**
+ * Describes how fast a jumper falls. A profile is defined by its terminal velocity at sea level,
+ * which together with gravity and the density of the air determines the whole fall. The freefall
+ * table for a profile is built the first time it is needed and then reused.
+ */
+public final class JumperProfile {
+    /** Belly to earth, the default. */
+    public static final JumperProfile BELLY = new JumperProfile("Belly", 120);
+    /** Head up or head down freeflying. */
+    public static final JumperProfile FREEFLY = new JumperProfile("Freefly", 165);
+    /** Tracking, which trades vertical speed for horizontal speed. */
+    public static final JumperProfile TRACKING = new JumperProfile("Tracking", 95);
+
+    private final String name;
+    private final double terminalVelocityInMph;
+    private volatile FreefallTable freefallTable;
+
+    /**
+     * Creates a jumper profile.
+     * @param name A name for the profile.
+     * @param terminalVelocityInMph The vertical terminal velocity at sea level in miles per hour.
+     * @throws IllegalArgumentException if the terminal velocity is not positive.
+     */
+    public JumperProfile(String name, double terminalVelocityInMph) {
+        if (!(0 < terminalVelocityInMph)) {
+            throw new IllegalArgumentException("Terminal velocity must be positive, not " +
+                    String.valueOf(terminalVelocityInMph) + " mph.");
+        }
+        this.name = name;
+        this.terminalVelocityInMph = terminalVelocityInMph;
+    }
+
+    /**
+     * Creates a jumper profile with a freefall table built earlier, such as one read from a
+     * WindStore.
+     */
+    JumperProfile(String name, double terminalVelocityInMph, FreefallTable freefallTable) {
+        this(name, terminalVelocityInMph);
+        this.freefallTable = freefallTable;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public double getTerminalVelocityInMph() {
+        return terminalVelocityInMph;
+    }
+
+    /**
+     * @return The precomputed freefall table for this profile.
+     */
+    public FreefallTable getFreefallTable() {
+        FreefallTable table = this.freefallTable;
+        if (table == null) {
+            synchronized (this) {
+                table = this.freefallTable;
+                if (table == null) {
+                    table = new FreefallTable(terminalVelocityInMph);
+                    this.freefallTable = table;
+                }
+            }
+        }
+        return table;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + terminalVelocityInMph + " mph)";
+    }
+}
@@ -0,0 +1,37 @@
+package com.danielarnett;
+
+/**
+ * Interpolates the wind components in straight lines between the measured winds.
+ * See WindInterpolator.LINEAR.
+ */
+final class LinearInterpolator implements WindInterpolator {
+    @Override
+    public WindCurve fit(double[] altitudes, double[] x, double[] y) {
+        if (altitudes.length == 1) {
+            return WindCurve.constant(altitudes[0], x[0], y[0]);
+        }
+        return new WindCurve(altitudes, coefficients(altitudes, x), coefficients(altitudes, y));
+    }
+
+    private static double[] coefficients(double[] altitudes, double[] values) {
+        // Both ends of each segment take the slope of the straight line between them
+        double[] slopes = new double[altitudes.length - 1];
+        for (int i = 0; i < slopes.length; i++) {
+            slopes[i] = (values[i + 1] - values[i]) / (altitudes[i + 1] - altitudes[i]);
+        }
+        return WindCurve.hermiteCoefficients(altitudes, values, slopes, slopes);
+    }
+
+    /**
+     * Each segment only depends on the winds at its ends.
+     */
+    @Override
+    public int getReach() {
+        return 1;
+    }
+
+    @Override
+    public String toString() {
+        return "Linear";
+    }
+}
@@ -0,0 +1,131 @@
+package com.danielarnett;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of non-negative long values, such as latencies in nanoseconds, in the style of
+ * HdrHistogram. Values below 2^SUB_BUCKET_BITS get a bucket each. Above that every power of two is
+ * split into 2^SUB_BUCKET_BITS buckets of equal width, so any value is known to within about 3%
+ * with a fixed 15 KB of buckets, whatever the range of the values.
+ *
+ * Recording is lock free and allocates nothing, so any number of threads can record at once.
+ * Reads are not atomic with respect to recording, which only matters while values are arriving.
+ */
+public final class LogHistogram {
+    static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    /**
+     * Enough buckets for Long.MAX_VALUE, whose highest bit is bit 62.
+     */
+    private static final int BUCKETS = bucketOf(Long.MAX_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Record a value. Negative values are recorded as 0.
+     * @param value The value.
+     */
+    public void record(long value) {
+        long clamped = Math.max(value, 0);
+        counts.incrementAndGet(bucketOf(clamped));
+        total.increment();
+        sum.add(clamped);
+        max.accumulate(clamped);
+    }
+
+    /**
+     * @return The number of values recorded.
+     */
+    public long getCount() {
+        return total.sum();
+    }
+
+    /**
+     * @return The largest value recorded, or 0 if there are none.
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @return The mean of the values recorded, or NaN if there are none.
+     */
+    public double getMean() {
+        long count = total.sum();
+        return count == 0 ? Double.NaN : (double) sum.sum() / count;
+    }
+
+    /**
+     * Find the value that a percentage of the recorded values are at or below.
+     * @param percentile The percentage, from 0 to 100.
+     * @return The highest value in the bucket the percentile falls in, or 0 if nothing has been
+     * recorded.
+     * @throws IllegalArgumentException if the percentile is not between 0 and 100.
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (!(0 <= percentile && percentile <= 100)) {
+            throw new IllegalArgumentException("A percentile must be between 0 and 100, not " +
+                    String.valueOf(percentile) + ".");
+        }
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += counts.get(i);
+        }
+        long target = Math.max((long) Math.ceil(percentile / 100 * count), 1);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (target <= seen) {
+                return Math.min(highestValueInBucket(i), max.get());
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Forget every value recorded.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        total.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    /**
+     * @return The bucket of a non-negative value.
+     */
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        // The top SUB_BUCKET_BITS + 1 bits of the value, and how far they were shifted down
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    /**
+     * @return The highest value that falls in a bucket.
+     */
+    static long highestValueInBucket(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long top = bucket - (long) shift * SUB_BUCKETS;
+        return ((top + 1) << shift) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return "count " + getCount() + ", mean " + Math.round(getMean()) + ", p50 " + getValueAtPercentile(50) +
+                ", p99 " + getValueAtPercentile(99) + ", max " + getMax();
+    }
+}
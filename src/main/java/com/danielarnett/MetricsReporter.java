@@ -0,0 +1,20 @@
+package com.danielarnett;
+
+/**
+ * Publishes what WindsMetrics has recorded, to a log, a monitoring system or JFR. Called by
+ * WindsMetrics.report() once per operation that has been called.
+ */
+public interface MetricsReporter {
+    /**
+     * @param operation The operation.
+     * @param count The number of calls recorded.
+     * @param latencies The latencies in nanoseconds.
+     */
+    void report(WindsMetrics.Operation operation, long count, LogHistogram latencies);
+
+    /**
+     * @param gridSizes The number of winds in each interpolated grid built.
+     */
+    default void reportGridSizes(LogHistogram gridSizes) {
+    }
+}
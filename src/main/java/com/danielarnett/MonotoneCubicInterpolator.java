@@ -0,0 +1,80 @@
+package com.danielarnett;
+
+/**
+ * Interpolates the wind components with a monotone piecewise cubic Hermite curve (PCHIP). The
+ * slope at each measured wind is the weighted harmonic mean of the neighbouring secants, or zero
+ * at a local peak, which keeps the curve from overshooting the measurements.
+ * See WindInterpolator.MONOTONE_CUBIC.
+ */
+final class MonotoneCubicInterpolator implements WindInterpolator {
+    @Override
+    public WindCurve fit(double[] altitudes, double[] x, double[] y) {
+        if (altitudes.length == 1) {
+            return WindCurve.constant(altitudes[0], x[0], y[0]);
+        }
+        return new WindCurve(altitudes, coefficients(altitudes, x), coefficients(altitudes, y));
+    }
+
+    private static double[] coefficients(double[] altitudes, double[] values) {
+        int n = altitudes.length;
+        double[] heights = new double[n - 1];
+        double[] secants = new double[n - 1];
+        for (int i = 0; i < n - 1; i++) {
+            heights[i] = altitudes[i + 1] - altitudes[i];
+            secants[i] = (values[i + 1] - values[i]) / heights[i];
+        }
+        double[] slopes = new double[n];
+        if (n == 2) {
+            slopes[0] = secants[0];
+            slopes[1] = secants[0];
+        }
+        else {
+            for (int i = 1; i < n - 1; i++) {
+                if (secants[i - 1] * secants[i] <= 0) {
+                    slopes[i] = 0;
+                }
+                else {
+                    double w1 = 2 * heights[i] + heights[i - 1];
+                    double w2 = heights[i] + 2 * heights[i - 1];
+                    slopes[i] = (w1 + w2) / (w1 / secants[i - 1] + w2 / secants[i]);
+                }
+            }
+            slopes[0] = endSlope(heights[0], heights[1], secants[0], secants[1]);
+            slopes[n - 1] = endSlope(heights[n - 2], heights[n - 3], secants[n - 2], secants[n - 3]);
+        }
+        double[] slopesAtStart = new double[n - 1];
+        double[] slopesAtEnd = new double[n - 1];
+        System.arraycopy(slopes, 0, slopesAtStart, 0, n - 1);
+        System.arraycopy(slopes, 1, slopesAtEnd, 0, n - 1);
+        return WindCurve.hermiteCoefficients(altitudes, values, slopesAtStart, slopesAtEnd);
+    }
+
+    /**
+     * The slope at an end of the curve from a three point estimate, limited so that the curve
+     * stays monotone.
+     */
+    private static double endSlope(double h0, double h1, double secant0, double secant1) {
+        double slope = ((2 * h0 + h1) * secant0 - h0 * secant1) / (h0 + h1);
+        if (Math.signum(slope) != Math.signum(secant0)) {
+            return 0;
+        }
+        if (Math.signum(secant0) != Math.signum(secant1) && Math.abs(slope) > Math.abs(3 * secant0)) {
+            return 3 * secant0;
+        }
+        return slope;
+    }
+
+    /**
+     * Each segment depends on the slopes at its ends, and each slope on the winds either side of
+     * it, or at an end of the curve on the three nearest winds.
+     */
+    @Override
+    public int getReach() {
+        return 2;
+    }
+
+    @Override
+    public String toString() {
+        return "Monotone cubic";
+    }
+}
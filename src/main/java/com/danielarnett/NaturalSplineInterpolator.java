@@ -0,0 +1,57 @@
+package com.danielarnett;
+
+/**
+ * Interpolates the wind components with a natural cubic spline, which has continuous first and
+ * second derivatives and no curvature at the lowest and highest measured winds. The second
+ * derivatives at the measured winds are found with the Thomas algorithm for tridiagonal systems.
+ * See WindInterpolator.NATURAL_SPLINE.
+ */
+final class NaturalSplineInterpolator implements WindInterpolator {
+    @Override
+    public WindCurve fit(double[] altitudes, double[] x, double[] y) {
+        if (altitudes.length == 1) {
+            return WindCurve.constant(altitudes[0], x[0], y[0]);
+        }
+        return new WindCurve(altitudes, coefficients(altitudes, x), coefficients(altitudes, y));
+    }
+
+    private static double[] coefficients(double[] altitudes, double[] values) {
+        int n = altitudes.length;
+        double[] heights = new double[n - 1];
+        for (int i = 0; i < n - 1; i++) {
+            heights[i] = altitudes[i + 1] - altitudes[i];
+        }
+        // Solve for the second derivative at each interior knot, the ends are zero
+        double[] secondDerivatives = new double[n];
+        double[] diagonal = new double[n];
+        double[] rhs = new double[n];
+        for (int i = 1; i < n - 1; i++) {
+            diagonal[i] = 2 * (heights[i - 1] + heights[i]);
+            rhs[i] = 6 * ((values[i + 1] - values[i]) / heights[i] - (values[i] - values[i - 1]) / heights[i - 1]);
+        }
+        for (int i = 2; i < n - 1; i++) {
+            double factor = heights[i - 1] / diagonal[i - 1];
+            diagonal[i] -= factor * heights[i - 1];
+            rhs[i] -= factor * rhs[i - 1];
+        }
+        for (int i = n - 2; 1 <= i; i--) {
+            secondDerivatives[i] = (rhs[i] - heights[i] * secondDerivatives[i + 1]) / diagonal[i];
+        }
+
+        double[] coefficients = new double[(n - 1) * WindCurve.COEFFICIENTS];
+        for (int i = 0; i < n - 1; i++) {
+            double h = heights[i];
+            int c = i * WindCurve.COEFFICIENTS;
+            coefficients[c]     = values[i];
+            coefficients[c + 1] = (values[i + 1] - values[i]) / h - h * (2 * secondDerivatives[i] + secondDerivatives[i + 1]) / 6;
+            coefficients[c + 2] = secondDerivatives[i] / 2;
+            coefficients[c + 3] = (secondDerivatives[i + 1] - secondDerivatives[i]) / (6 * h);
+        }
+        return coefficients;
+    }
+
+    @Override
+    public String toString() {
+        return "Natural spline";
+    }
+}
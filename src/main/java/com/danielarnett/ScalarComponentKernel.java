@@ -0,0 +1,26 @@
+package com.danielarnett;
+
+/**
+ * Converts one wind at a time with java.lang.Math. Used when the Vector API is not available.
+ */
+final class ScalarComponentKernel implements ComponentKernel {
+    @Override
+    public void toComponents(double[] speeds, double[] headings, double[] x, double[] y, int from, int to) {
+        for (int i = from; i < to; i++) {
+            double heading = Math.toRadians(headings[i]);
+            double speed = speeds[i];
+            x[i] = speed * Math.sin(heading);
+            y[i] = speed * Math.cos(heading);
+        }
+    }
+
+    @Override
+    public void toPolar(double[] x, double[] y, double[] speeds, double[] headings, int from, int to) {
+        for (int i = from; i < to; i++) {
+            double east = x[i];
+            double north = y[i];
+            speeds[i] = Math.sqrt(east*east + north*north);
+            headings[i] = WindComponents.headingInDegrees(east, north);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.danielarnett;
+
+/**
+ * The jump run plans for every heading a SpotSolver tried, and the best of them, which is the
+ * heading with the longest green light window.
+ */
+public final class SpotSolution {
+    private final JumpRun[] runs;
+    private final JumpRun best;
+
+    SpotSolution(JumpRun[] runs) {
+        this.runs = runs;
+        JumpRun best = runs[0];
+        for (JumpRun run : runs) {
+            if (best.score() < run.score()) {
+                best = run;
+            }
+        }
+        this.best = best;
+    }
+
+    /**
+     * @return The plan with the longest green light window. If no heading lets every group make
+     * the target, the plan that comes closest.
+     */
+    public JumpRun getBest() {
+        return best;
+    }
+
+    /**
+     * @return The number of headings tried.
+     */
+    public int size() {
+        return runs.length;
+    }
+
+    /**
+     * @param i The index of the heading, in ascending heading order from 0 degrees.
+     * @return The plan for that heading.
+     */
+    public JumpRun getJumpRun(int i) {
+        return runs[i];
+    }
+
+    /**
+     * @param headingInDegrees A heading.
+     * @return The plan for the heading tried that is nearest to it.
+     */
+    public JumpRun getNearestJumpRun(double headingInDegrees) {
+        double heading = ((headingInDegrees % 360) + 360) % 360;
+        int i = (int) Math.round(heading / 360 * runs.length) % runs.length;
+        return runs[i];
+    }
+
+    @Override
+    public String toString() {
+        return best.toString();
+    }
+}
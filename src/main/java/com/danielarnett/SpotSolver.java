@@ -0,0 +1,204 @@
+package com.danielarnett;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Finds where over the ground each group should exit, and the green light window, for every
+ * jump run heading. Positions are in feet east (x) and north (y) of the target, which is at
+ * ground level.
+ *
+ * For each group the freefall drift is integrated down to its deployment altitude, and the
+ * canopy drift from there to the ground, descending at the canopy's rate through the same winds.
+ * The group lands on the target if it exits that far upwind of it, or anywhere within its canopy
+ * range of that point. Neither depends on the heading, so they are worked out once per solve and
+ * shared by every heading, which are then evaluated in parallel. For each heading the aircraft's
+ * ground speed comes from its airspeed and the wind at exit altitude, and groups exit one
+ * separation apart along the track. The green light window is where the first group can exit
+ * so that every group exits within range of its ideal point.
+ *
+ * The forward throw from the aircraft's speed is not modeled.
+ */
+public final class SpotSolver {
+    public static final double DEFAULT_AIRSPEED_IN_MPH = 90;
+    public static final double DEFAULT_SEPARATION_IN_FEET = 1000;
+    public static final double DEFAULT_HEADING_STEP_IN_DEGREES = 5;
+
+    private final WindSnapshot winds;
+    private final double exitAltitude;
+    private double airspeedInMph = DEFAULT_AIRSPEED_IN_MPH;
+    private double separationInFeet = DEFAULT_SEPARATION_IN_FEET;
+    private double headingStepInDegrees = DEFAULT_HEADING_STEP_IN_DEGREES;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+
+    /**
+     * Creates a solver.
+     * @param winds The winds.
+     * @param exitAltitude The altitude the aircraft flies the jump run at.
+     */
+    public SpotSolver(WindSnapshot winds, double exitAltitude) {
+        this.winds = winds;
+        this.exitAltitude = exitAltitude;
+    }
+
+    public double getAirspeedInMph() {
+        return airspeedInMph;
+    }
+
+    /**
+     * @param airspeedInMph The aircraft's true airspeed on jump run.
+     */
+    public void setAirspeedInMph(double airspeedInMph) {
+        checkPositive(airspeedInMph, "airspeed");
+        this.airspeedInMph = airspeedInMph;
+    }
+
+    public double getSeparationInFeet() {
+        return separationInFeet;
+    }
+
+    /**
+     * @param separationInFeet The ground distance between consecutive groups' exits.
+     */
+    public void setSeparationInFeet(double separationInFeet) {
+        if (!(0 <= separationInFeet)) {
+            throw new IllegalArgumentException("The separation must not be negative, not " +
+                    String.valueOf(separationInFeet) + " feet.");
+        }
+        this.separationInFeet = separationInFeet;
+    }
+
+    public double getHeadingStepInDegrees() {
+        return headingStepInDegrees;
+    }
+
+    /**
+     * @param headingStepInDegrees The step between the jump run headings tried.
+     */
+    public void setHeadingStepInDegrees(double headingStepInDegrees) {
+        checkPositive(headingStepInDegrees, "heading step");
+        this.headingStepInDegrees = headingStepInDegrees;
+    }
+
+    /**
+     * @param pool The pool headings are evaluated on. The common pool by default.
+     */
+    public void setPool(ForkJoinPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("The pool must not be null.");
+        }
+        this.pool = pool;
+    }
+
+    /**
+     * Plan the jump run for groups exiting in order.
+     * @param groups The groups in exit order.
+     * @return The plan for every heading and the best of them.
+     * @throws IllegalArgumentException if there are no groups, or the winds or freefall tables do
+     * not cover a group's altitudes.
+     */
+    public SpotSolution solve(JumpGroup... groups) {
+        if (groups.length == 0) {
+            throw new IllegalArgumentException("At least one group is needed to plan a jump run.");
+        }
+        // The ideal exit point of each group, which is the same for every heading
+        double[] exitX = new double[groups.length];
+        double[] exitY = new double[groups.length];
+        double[] range = new double[groups.length];
+        double[] displacement = new double[2];
+        for (int g = 0; g < groups.length; g++) {
+            JumpGroup group = groups[g];
+            double deploymentAltitude = group.getDeploymentAltitude();
+            Drift freefall = FreeFallCalculator.calculateDrift(winds, group.getJumperProfile().getFreefallTable(),
+                    exitAltitude, deploymentAltitude);
+            canopyDrift(deploymentAltitude, group.getCanopyDescentRateInFps(), displacement);
+            exitX[g] = -(freefall.getX() + displacement[0]);
+            exitY[g] = -(freefall.getY() + displacement[1]);
+            range[g] = group.getCanopyRangeInFeet();
+        }
+
+        int headingCount = Math.max((int) Math.round(360 / headingStepInDegrees), 1);
+        double[] headings = new double[headingCount];
+        for (int i = 0; i < headingCount; i++) {
+            headings[i] = i * 360.0 / headingCount;
+        }
+        double windX = winds.getCurve().xAt(exitAltitude) * FreeFallCalculator.MPH_TO_FPS;
+        double windY = winds.getCurve().yAt(exitAltitude) * FreeFallCalculator.MPH_TO_FPS;
+        JumpRun[] runs = new JumpRun[headingCount];
+        pool.invoke(new HeadingSweep(this, headings, windX, windY, exitX, exitY, range, runs, 0, headingCount));
+        return new SpotSolution(runs);
+    }
+
+    /**
+     * Plan the jump run on one heading.
+     * @param heading The ground track in degrees.
+     * @param windX The wind at exit altitude to the east in feet per second.
+     * @param windY The wind at exit altitude to the north in feet per second.
+     * @param exitX The ideal exit point of each group, east of the target.
+     * @param exitY The ideal exit point of each group, north of the target.
+     * @param range How far from its ideal exit point each group can exit.
+     */
+    JumpRun planHeading(double heading, double windX, double windY,
+                        double[] exitX, double[] exitY, double[] range) {
+        int groupCount = exitX.length;
+        double alongX = Math.sin(Math.toRadians(heading));
+        double alongY = Math.cos(Math.toRadians(heading));
+        // Crab into the crosswind to hold the track, and the rest of the airspeed moves us along it
+        double airspeed = airspeedInMph * FreeFallCalculator.MPH_TO_FPS;
+        double tailwind = windX * alongX + windY * alongY;
+        double crosswind = windX * alongY - windY * alongX;
+        if (airspeed <= Math.abs(crosswind)) {
+            return JumpRun.unflyable(heading, separationInFeet, groupCount);
+        }
+        double groundSpeed = tailwind + Math.sqrt(airspeed * airspeed - crosswind * crosswind);
+        if (groundSpeed <= 0) {
+            return JumpRun.unflyable(heading, separationInFeet, groupCount);
+        }
+
+        // Put the track through the middle of the ideal exit points
+        double offset = 0;
+        for (int g = 0; g < groupCount; g++) {
+            offset += exitX[g] * alongY - exitY[g] * alongX;
+        }
+        offset /= groupCount;
+
+        // Intersect the stretches of track where each group can exit, shifted back to where the
+        // first group would exit
+        double windowStart = Double.NEGATIVE_INFINITY;
+        double windowEnd = Double.POSITIVE_INFINITY;
+        double preferred = 0;
+        for (int g = 0; g < groupCount; g++) {
+            double along = exitX[g] * alongX + exitY[g] * alongY - g * separationInFeet;
+            double across = exitX[g] * alongY - exitY[g] * alongX - offset;
+            double squared = range[g] * range[g] - across * across;
+            // A group the track misses is given a window of negative length, so the run ranks by how close it came
+            double halfChord = squared < 0 ? -Math.sqrt(-squared) : Math.sqrt(squared);
+            windowStart = Math.max(windowStart, along - halfChord);
+            windowEnd = Math.min(windowEnd, along + halfChord);
+            preferred += along;
+        }
+        preferred /= groupCount;
+        double firstExit = windowStart <= windowEnd ?
+                Math.min(Math.max(preferred, windowStart), windowEnd) : 0.5 * (windowStart + windowEnd);
+        return new JumpRun(heading, groundSpeed, separationInFeet, groupCount,
+                offset, windowStart, windowEnd, firstExit);
+    }
+
+    /**
+     * Integrate the drift under canopy from the deployment altitude to the ground.
+     * @param displacement Receives the drift to the east and north in feet.
+     */
+    private void canopyDrift(double deploymentAltitude, double descentRateInFps, double[] displacement) {
+        winds.checkRange(0, deploymentAltitude);
+        // Time at each altitude is dh / rate, so the drift is the integral of the wind over altitude divided by the rate
+        double scale = FreeFallCalculator.MPH_TO_FPS / descentRateInFps;
+        displacement[0] = winds.integrateX(0, deploymentAltitude) * scale;
+        displacement[1] = winds.integrateY(0, deploymentAltitude) * scale;
+    }
+
+    private static void checkPositive(double value, String name) {
+        if (!(0 < value)) {
+            throw new IllegalArgumentException("The " + name + " must be positive, not " +
+                    String.valueOf(value) + ".");
+        }
+    }
+}
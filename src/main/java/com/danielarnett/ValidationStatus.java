@@ -0,0 +1,38 @@
+package com.danielarnett;
+
+/**
+ * The outcome of checking a wind or an altitude range. The hot paths return one of these constants
+ * instead of building an exception, so checking costs nothing when everything is fine. Errors
+ * mean the request could not be served. Warnings mean it was served with a caveat.
+ */
+public enum ValidationStatus {
+    /** Nothing to report. */
+    OK(false),
+    /** A wind replaced one already recorded at the same altitude. */
+    REPLACED(false),
+    /** The range reaches below the lowest wind, where the lowest wind is assumed to hold. */
+    BELOW_LOWEST_WIND(false),
+    /** A wind or altitude was NaN, or a wind was infinite, and was ignored. */
+    NOT_A_NUMBER(true),
+    /** The high altitude of a range is not above the low altitude. */
+    EMPTY_RANGE(true),
+    /** The range reaches below the ground. */
+    BELOW_GROUND(true),
+    /** The range reaches above the highest wind. */
+    ABOVE_HIGHEST_WIND(true),
+    /** The fall is outside the altitudes the freefall table covers. */
+    OUTSIDE_FREEFALL_TABLE(true);
+
+    private final boolean error;
+
+    ValidationStatus(boolean error) {
+        this.error = error;
+    }
+
+    /**
+     * @return True if the request could not be served.
+     */
+    public boolean isError() {
+        return error;
+    }
+}
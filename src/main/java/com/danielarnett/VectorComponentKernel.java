@@ -0,0 +1,50 @@
+package com.danielarnett;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Converts as many winds at once as the CPU's widest vectors hold, with the trigonometric
+ * functions of the Vector API. The last few winds that do not fill a vector are converted one at
+ * a time. Only loaded by WindComponents when the jdk.incubator.vector module is present.
+ */
+final class VectorComponentKernel implements ComponentKernel {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final double DEGREES_TO_RADIANS = Math.PI / 180;
+    private static final double RADIANS_TO_DEGREES = 180 / Math.PI;
+
+    private final ScalarComponentKernel tail = new ScalarComponentKernel();
+
+    @Override
+    public void toComponents(double[] speeds, double[] headings, double[] x, double[] y, int from, int to) {
+        int i = from;
+        int bound = from + SPECIES.loopBound(to - from);
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector speed = DoubleVector.fromArray(SPECIES, speeds, i);
+            DoubleVector heading = DoubleVector.fromArray(SPECIES, headings, i).mul(DEGREES_TO_RADIANS);
+            speed.mul(heading.lanewise(VectorOperators.SIN)).intoArray(x, i);
+            speed.mul(heading.lanewise(VectorOperators.COS)).intoArray(y, i);
+        }
+        tail.toComponents(speeds, headings, x, y, i, to);
+    }
+
+    @Override
+    public void toPolar(double[] x, double[] y, double[] speeds, double[] headings, int from, int to) {
+        int i = from;
+        int bound = from + SPECIES.loopBound(to - from);
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector east = DoubleVector.fromArray(SPECIES, x, i);
+            DoubleVector north = DoubleVector.fromArray(SPECIES, y, i);
+            DoubleVector speed = east.mul(east).add(north.mul(north)).sqrt();
+            DoubleVector heading = east.lanewise(VectorOperators.ATAN2, north).mul(RADIANS_TO_DEGREES);
+            heading = heading.add(360, heading.lt(0));
+            // No wind has no heading, report 0 like the scalar conversion
+            VectorMask<Double> calm = speed.eq(0);
+            speed.intoArray(speeds, i);
+            heading.blend(0, calm).intoArray(headings, i);
+        }
+        tail.toPolar(x, y, speeds, headings, i, to);
+    }
+}
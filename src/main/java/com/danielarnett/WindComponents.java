@@ -0,0 +1,94 @@
+package com.danielarnett;
+
+/**
+ * Bulk conversion of winds between speed and heading and x (east) and y (north) components, with
+ * x = speed * sin(heading) and y = speed * cos(heading). Every averaging and interpolation path
+ * converts whole arrays through here rather than calling the trigonometric functions one wind at
+ * a time.
+ *
+ * When the jdk.incubator.vector module is available (run java with
+ * --add-modules jdk.incubator.vector) the conversions use SIMD instructions, otherwise they fall
+ * back to a scalar loop with identical results up to rounding. Setting the system property
+ * com.danielarnett.scalarWindComponents to true forces the scalar loop.
+ */
+public final class WindComponents {
+    private static final String VECTOR_KERNEL = "com.danielarnett.VectorComponentKernel";
+    private static final ComponentKernel KERNEL = loadKernel();
+
+    private WindComponents() {
+    }
+
+    /**
+     * Convert speeds and headings to x and y components.
+     * @param speeds The wind speeds.
+     * @param headings The headings the winds blow toward in degrees.
+     * @param x Receives the x (east) components.
+     * @param y Receives the y (north) components.
+     * @param from The first index to convert.
+     * @param to One past the last index to convert.
+     * @throws IndexOutOfBoundsException if any array is shorter than to.
+     */
+    public static void toComponents(double[] speeds, double[] headings, double[] x, double[] y, int from, int to) {
+        checkBounds(from, to, speeds.length, headings.length, x.length, y.length);
+        KERNEL.toComponents(speeds, headings, x, y, from, to);
+    }
+
+    /**
+     * Convert x and y components to speeds and headings. The output arrays may be the input
+     * arrays, in which case the components are overwritten.
+     * @param x The x (east) components.
+     * @param y The y (north) components.
+     * @param speeds Receives the wind speeds.
+     * @param headings Receives the headings in degrees, between 0 and 360.
+     * @param from The first index to convert.
+     * @param to One past the last index to convert.
+     * @throws IndexOutOfBoundsException if any array is shorter than to.
+     */
+    public static void toPolar(double[] x, double[] y, double[] speeds, double[] headings, int from, int to) {
+        checkBounds(from, to, x.length, y.length, speeds.length, headings.length);
+        KERNEL.toPolar(x, y, speeds, headings, from, to);
+    }
+
+    /**
+     * Convert a single x (east), y (north) pair into a compass heading.
+     * @return The heading in degrees, between 0 and 360.
+     */
+    public static double headingInDegrees(double x, double y) {
+        if (x == 0 && y == 0) {
+            return 0;
+        }
+        double heading = Math.toDegrees(Math.atan2(x, y));
+        return heading < 0 ? heading + 360 : heading;
+    }
+
+    /**
+     * @return True if the conversions use the Vector API.
+     */
+    public static boolean isVectorized() {
+        return !(KERNEL instanceof ScalarComponentKernel);
+    }
+
+    private static void checkBounds(int from, int to, int a, int b, int c, int d) {
+        if (from < 0 || to < from || a < to || b < to || c < to || d < to) {
+            throw new IndexOutOfBoundsException("Cannot convert winds " + from + " to " + to +
+                    " of arrays with lengths " + a + ", " + b + ", " + c + " and " + d + ".");
+        }
+    }
+
+    /**
+     * Load the vector kernel by name, so that this class still loads when the incubator module
+     * is missing.
+     */
+    private static ComponentKernel loadKernel() {
+        if (!Boolean.getBoolean("com.danielarnett.scalarWindComponents") &&
+                ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return (ComponentKernel) Class.forName(VECTOR_KERNEL).getDeclaredConstructor().newInstance();
+            }
+            catch (ReflectiveOperationException | LinkageError e) {
+                // Fall back to the scalar kernel
+            }
+        }
+        return new ScalarComponentKernel();
+    }
+}
@@ -0,0 +1,303 @@
+package com.danielarnett;
+
+/**
+ * A piecewise cubic curve through the x (east) and y (north) wind components at a set of knot
+ * altitudes. The coefficients of every segment and the integral of each component from the lowest
+ * knot up to every knot are computed once, when the curve is fitted by a WindInterpolator, so the
+ * wind at any altitude or its average over any band is found with a binary search over the knots.
+ * No dense grid of winds is ever built.
+ *
+ * Below the lowest knot and above the highest knot the wind is held at its value at that knot.
+ *
+ * Curves can only be created inside this package. WindField extends this class with views that
+ * blend two forecast hours on the fly, and WindStore with curves read straight from a mapped file.
+ * A subclass that keeps its coefficients elsewhere only overrides coefficient() and cumulative().
+ */
+public class WindCurve {
+    /**
+     * The number of coefficients per segment. On segment i, with t the height above knot i,
+     * a component is c[0] + c[1] t + c[2] t^2 + c[3] t^3.
+     */
+    static final int COEFFICIENTS = 4;
+    /** Selects the x (east) component in coefficient() and cumulative(). */
+    static final int X = 0;
+    /** Selects the y (north) component in coefficient() and cumulative(). */
+    static final int Y = 1;
+
+    private final double[] knots;
+    private final double[] coefficientsX;
+    private final double[] coefficientsY;
+    private final double[] cumulativeX;
+    private final double[] cumulativeY;
+
+    /**
+     * Creates a curve from its segment coefficients. The arrays are not copied.
+     * @param knots The knot altitudes in ascending order. Must not be empty.
+     * @param coefficientsX COEFFICIENTS coefficients of the x component for each segment.
+     * @param coefficientsY COEFFICIENTS coefficients of the y component for each segment.
+     */
+    WindCurve(double[] knots, double[] coefficientsX, double[] coefficientsY) {
+        this.knots = knots;
+        this.coefficientsX = coefficientsX;
+        this.coefficientsY = coefficientsY;
+        this.cumulativeX = new double[knots.length];
+        this.cumulativeY = new double[knots.length];
+        for (int i = 1; i < knots.length; i++) {
+            double height = knots[i] - knots[i - 1];
+            cumulativeX[i] = cumulativeX[i - 1] + segmentIntegral(X, i - 1, height);
+            cumulativeY[i] = cumulativeY[i - 1] + segmentIntegral(Y, i - 1, height);
+        }
+    }
+
+    /**
+     * Creates a curve that keeps its coefficients elsewhere. Subclasses using this constructor
+     * must override coefficient() and cumulative(), or else xAt(), yAt(), integralX() and
+     * integralY() that take a segment.
+     * @param knots The knot altitudes in ascending order. Must not be empty.
+     */
+    WindCurve(double[] knots) {
+        this.knots = knots;
+        this.coefficientsX = null;
+        this.coefficientsY = null;
+        this.cumulativeX = null;
+        this.cumulativeY = null;
+    }
+
+    /**
+     * Creates a curve through a single knot, which holds the same wind at every altitude.
+     */
+    static WindCurve constant(double knot, double x, double y) {
+        return new WindCurve(new double[] { knot }, new double[] { x, 0, 0, 0 }, new double[] { y, 0, 0, 0 });
+    }
+
+    /**
+     * Creates the coefficients of a cubic Hermite curve, where each segment is defined by the
+     * values and slopes at both of its ends.
+     * @param knots The knot altitudes in ascending order.
+     * @param values The value at each knot.
+     * @param slopesAtStart The slope at the start of each segment.
+     * @param slopesAtEnd The slope at the end of each segment.
+     * @return COEFFICIENTS coefficients for each segment.
+     */
+    static double[] hermiteCoefficients(double[] knots, double[] values,
+                                        double[] slopesAtStart, double[] slopesAtEnd) {
+        int segments = Math.max(knots.length - 1, 0);
+        double[] coefficients = new double[segments * COEFFICIENTS];
+        for (int i = 0; i < segments; i++) {
+            double height = knots[i + 1] - knots[i];
+            double secant = (values[i + 1] - values[i]) / height;
+            double m0 = slopesAtStart[i];
+            double m1 = slopesAtEnd[i];
+            int c = i * COEFFICIENTS;
+            coefficients[c]     = values[i];
+            coefficients[c + 1] = m0;
+            coefficients[c + 2] = (3 * secant - 2 * m0 - m1) / height;
+            coefficients[c + 3] = (m0 + m1 - 2 * secant) / (height * height);
+        }
+        return coefficients;
+    }
+
+    /**
+     * @return The number of knots.
+     */
+    public int size() {
+        return knots.length;
+    }
+
+    /**
+     * @param i The index of the knot, 0 being the lowest.
+     * @return The altitude of knot i.
+     */
+    public double getKnot(int i) {
+        return knots[i];
+    }
+
+    public double getMinAltitude() {
+        return knots[0];
+    }
+
+    public double getMaxAltitude() {
+        return knots[knots.length - 1];
+    }
+
+    /**
+     * @param alt The altitude.
+     * @return The x (east) component of the wind at the altitude.
+     */
+    public double xAt(double alt) {
+        return xAt(alt, segmentAtOrBelow(alt));
+    }
+
+    /**
+     * @param alt The altitude.
+     * @return The y (north) component of the wind at the altitude.
+     */
+    public double yAt(double alt) {
+        return yAt(alt, segmentAtOrBelow(alt));
+    }
+
+    /**
+     * Find the segment containing an altitude with a binary search.
+     * @return The index of the highest knot at or below alt, or -1 if alt is below every knot.
+     */
+    int segmentAtOrBelow(double alt) {
+        if (alt < knots[0]) {
+            return -1;
+        }
+        int lo = 0;
+        int hi = knots.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (knots[mid] <= alt) {
+                lo = mid;
+            }
+            else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Find the segment containing an altitude by walking down from a segment at or above it.
+     * Callers that walk down through the curve in order find every segment in amortized O(1).
+     * @return The index of the highest knot at or below alt, or -1 if alt is below every knot.
+     */
+    int segmentAtOrBelow(double alt, int start) {
+        int i = Math.min(start, knots.length - 1);
+        while (0 <= i && alt < knots[i]) {
+            i--;
+        }
+        return i;
+    }
+
+    double xAt(double alt, int segment) {
+        return valueAt(alt, segment, X);
+    }
+
+    double yAt(double alt, int segment) {
+        return valueAt(alt, segment, Y);
+    }
+
+    /**
+     * Integrate the x component from the lowest knot up to an altitude.
+     * @param segment The segment containing alt, as returned by segmentAtOrBelow().
+     * @return The integral, which is negative for altitudes below the lowest knot.
+     */
+    double integralX(double alt, int segment) {
+        return integral(alt, segment, X);
+    }
+
+    /**
+     * Integrate the y component from the lowest knot up to an altitude. See integralX().
+     */
+    double integralY(double alt, int segment) {
+        return integral(alt, segment, Y);
+    }
+
+    /**
+     * The rate a component changes with altitude, per foot. The wind is held outside the knots,
+     * so the slope there is 0.
+     * @param component X or Y.
+     * @param segment The segment to differentiate. On a knot this may be the segment below it,
+     * to get the slope from below.
+     */
+    double slopeAt(double alt, int segment, int component) {
+        if (segment < 0 || knots.length - 1 <= segment) {
+            return 0;
+        }
+        double t = alt - knots[segment];
+        int c = segment * COEFFICIENTS;
+        return coefficient(component, c + 1) + t * (2 * coefficient(component, c + 2) + t * 3 * coefficient(component, c + 3));
+    }
+
+    /**
+     * @param component X or Y.
+     * @param i The index of the coefficient, COEFFICIENTS per segment.
+     * @return Coefficient i of a component.
+     */
+    double coefficient(int component, int i) {
+        return component == X ? coefficientsX[i] : coefficientsY[i];
+    }
+
+    /**
+     * @param component X or Y.
+     * @param knot The index of the knot.
+     * @return The integral of a component from the lowest knot up to a knot.
+     */
+    double cumulative(int component, int knot) {
+        return component == X ? cumulativeX[knot] : cumulativeY[knot];
+    }
+
+    private double valueAt(double alt, int segment, int component) {
+        int last = knots.length - 1;
+        if (segment < 0) {
+            return valueAtKnot(0, component);
+        }
+        if (last <= segment) {
+            return valueAtKnot(last, component);
+        }
+        return polynomial(component, segment, alt - knots[segment]);
+    }
+
+    private double integral(double alt, int segment, int component) {
+        int last = knots.length - 1;
+        if (segment < 0) {
+            return valueAtKnot(0, component) * (alt - knots[0]);
+        }
+        if (last <= segment) {
+            return cumulative(component, last) + valueAtKnot(last, component) * (alt - knots[last]);
+        }
+        return cumulative(component, segment) + segmentIntegral(component, segment, alt - knots[segment]);
+    }
+
+    private double valueAtKnot(int i, int component) {
+        if (i < knots.length - 1 || i == 0) {
+            // A single knot has no segments, its value is stored as a constant
+            return coefficient(component, i * COEFFICIENTS);
+        }
+        return polynomial(component, i - 1, knots[i] - knots[i - 1]);
+    }
+
+    /**
+     * The value of a component on a segment, t above the knot the segment starts at.
+     */
+    private double polynomial(int component, int segment, double t) {
+        int c = segment * COEFFICIENTS;
+        return coefficient(component, c) + t * (coefficient(component, c + 1) +
+                t * (coefficient(component, c + 2) + t * coefficient(component, c + 3)));
+    }
+
+    /**
+     * The integral of a component on a segment from the knot the segment starts at up to t above it.
+     */
+    private double segmentIntegral(int component, int segment, double t) {
+        int c = segment * COEFFICIENTS;
+        return t * (coefficient(component, c) + t * (coefficient(component, c + 1) / 2 +
+                t * (coefficient(component, c + 2) / 3 + t * coefficient(component, c + 3) / 4)));
+    }
+
+    /**
+     * The arrays behind a fitted curve, for WindStore to write out. They are null for curves
+     * that evaluate their components themselves.
+     */
+    double[] knots() {
+        return knots;
+    }
+
+    double[] coefficientsX() {
+        return coefficientsX;
+    }
+
+    double[] coefficientsY() {
+        return coefficientsY;
+    }
+
+    double[] cumulativeX() {
+        return cumulativeX;
+    }
+
+    double[] cumulativeY() {
+        return cumulativeY;
+    }
+}
@@ -0,0 +1,298 @@
+package com.danielarnett;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Winds as a function of both time and altitude, built from forecast profiles valid at a
+ * series of times, such as hourly winds aloft. Every profile is resampled onto the same altitude
+ * levels as a cubic between each pair of levels, with the profile's own value and slope at both
+ * ends, and the coefficients of the x (east) and y (north) components are stored in one flat
+ * array, one row per time, together with the running integral of each row. By default the levels
+ * are the knots of all the profiles, so every cubic lies within one of the profile's own segments
+ * and reproduces it exactly. The wind between two times is interpolated linearly, which blends
+ * the coefficients of the two rows, so monotone cubic and spline profiles stay smooth.
+ *
+ * snapshotAt() returns a view that blends the two profiles either side of a time as it is
+ * queried, so it costs a binary search over the times and no copying of the profiles. Before
+ * the first time and after the last the nearest profile is used.
+ *
+ * The views are cached, so asking for the same time again returns the same snapshot, and the
+ * version of a snapshot is the time its winds are blended for in epoch milliseconds. Caches keyed
+ * on snapshots, such as DriftCache, therefore hit for repeated times. snapshot() rounds the current
+ * time down to the minute so it keeps returning the same snapshot for a minute at a time.
+ */
+public final class WindField implements WindSource {
+    /** snapshot() blends the winds for the current time rounded down to this many milliseconds. */
+    public static final long SNAPSHOT_RESOLUTION_MILLIS = 60_000;
+    /** The number of blended snapshots kept. Must be a power of two. */
+    private static final int CACHED_SNAPSHOTS = 64;
+
+    private final double[] levels;
+    private final long[] times;
+    /**
+     * The coefficients of the components on each segment between levels, and their integrals
+     * from the lowest level up to each level, row major, one row per time. See WindCurve.
+     */
+    private final double[] coefficientsX;
+    private final double[] coefficientsY;
+    private final double[] cumulativeX;
+    private final double[] cumulativeY;
+    /**
+     * Recently blended snapshots, each in the slot its version hashes to.
+     */
+    private final AtomicReferenceArray<WindSnapshot> snapshots = new AtomicReferenceArray<>(CACHED_SNAPSHOTS);
+
+    /**
+     * Creates a wind field on the altitudes where the profiles have knots, which reproduces every
+     * profile exactly at its time. See WindField(Instant[], WindSnapshot[], double[]).
+     */
+    public WindField(Instant[] times, WindSnapshot[] profiles) {
+        this(times, profiles, knotsOf(profiles));
+    }
+
+    /**
+     * Creates a wind field.
+     * @param times The time from which each profile is valid, in ascending order.
+     * @param profiles The profile valid at each time.
+     * @param levels The altitudes to resample the profiles onto, in ascending order. A profile
+     * with knots between two levels is approximated there by the cubic with its value and slope
+     * at both levels.
+     * @throws IllegalArgumentException if there are no profiles, the arrays are not the same
+     * length, or the times or levels are not ascending.
+     */
+    public WindField(Instant[] times, WindSnapshot[] profiles, double[] levels) {
+        if (times.length == 0 || times.length != profiles.length) {
+            throw new IllegalArgumentException("A wind field needs at least one profile and one time per profile." +
+                    "\nNumber of Times:    " + times.length +
+                    "\nNumber of Profiles: " + profiles.length + "\n");
+        }
+        if (levels.length == 0) {
+            throw new IllegalArgumentException("A wind field needs at least one altitude level.");
+        }
+        for (int i = 1; i < levels.length; i++) {
+            if (!(levels[i - 1] < levels[i])) {
+                throw new IllegalArgumentException("Altitude levels must be ascending, but " +
+                        String.valueOf(levels[i]) + " follows " + String.valueOf(levels[i - 1]) + ".");
+            }
+        }
+        this.levels = levels.clone();
+        this.times = new long[times.length];
+        for (int t = 0; t < times.length; t++) {
+            this.times[t] = times[t].toEpochMilli();
+            if (0 < t && this.times[t] <= this.times[t - 1]) {
+                throw new IllegalArgumentException("Profile times must be ascending, but " +
+                        times[t] + " follows " + times[t - 1] + ".");
+            }
+        }
+        int n = levels.length;
+        int coefficients = Math.max(n - 1, 1) * WindCurve.COEFFICIENTS;
+        this.coefficientsX = new double[times.length * coefficients];
+        this.coefficientsY = new double[times.length * coefficients];
+        this.cumulativeX = new double[times.length * n];
+        this.cumulativeY = new double[times.length * n];
+        for (int t = 0; t < times.length; t++) {
+            WindCurve row = resample(profiles[t].getCurve(), this.levels);
+            System.arraycopy(row.coefficientsX(), 0, coefficientsX, t * coefficients, coefficients);
+            System.arraycopy(row.coefficientsY(), 0, coefficientsY, t * coefficients, coefficients);
+            System.arraycopy(row.cumulativeX(), 0, cumulativeX, t * n, n);
+            System.arraycopy(row.cumulativeY(), 0, cumulativeY, t * n, n);
+        }
+    }
+
+    /**
+     * Fit a profile onto the levels with a cubic Hermite segment between each pair of levels,
+     * using the profile's own value and slope at both ends of the segment.
+     */
+    private static WindCurve resample(WindCurve curve, double[] levels) {
+        int n = levels.length;
+        if (n == 1) {
+            return WindCurve.constant(levels[0], curve.xAt(levels[0]), curve.yAt(levels[0]));
+        }
+        double[] x = new double[n];
+        double[] y = new double[n];
+        double[] slopesAtStartX = new double[n - 1];
+        double[] slopesAtStartY = new double[n - 1];
+        double[] slopesAtEndX = new double[n - 1];
+        double[] slopesAtEndY = new double[n - 1];
+        int segment = curve.size() - 1;
+        // Walk down the levels so the curve's segments are found in amortized O(1)
+        for (int i = n - 1; 0 <= i; i--) {
+            segment = curve.segmentAtOrBelow(levels[i], segment);
+            // A level segment ending on a knot takes its slope there from the curve segment below
+            int below = 0 <= segment && curve.getKnot(segment) == levels[i] ? segment - 1 : segment;
+            x[i] = curve.xAt(levels[i], segment);
+            y[i] = curve.yAt(levels[i], segment);
+            if (i < n - 1) {
+                slopesAtStartX[i] = curve.slopeAt(levels[i], segment, WindCurve.X);
+                slopesAtStartY[i] = curve.slopeAt(levels[i], segment, WindCurve.Y);
+            }
+            if (0 < i) {
+                slopesAtEndX[i - 1] = curve.slopeAt(levels[i], below, WindCurve.X);
+                slopesAtEndY[i - 1] = curve.slopeAt(levels[i], below, WindCurve.Y);
+            }
+        }
+        return new WindCurve(levels, WindCurve.hermiteCoefficients(levels, x, slopesAtStartX, slopesAtEndX),
+                WindCurve.hermiteCoefficients(levels, y, slopesAtStartY, slopesAtEndY));
+    }
+
+    /**
+     * @return The number of profiles.
+     */
+    public int size() {
+        return times.length;
+    }
+
+    /**
+     * @param i The index of the profile, 0 being the earliest.
+     * @return The time from which profile i is valid.
+     */
+    public Instant getTime(int i) {
+        return Instant.ofEpochMilli(times[i]);
+    }
+
+    /**
+     * @return A copy of the altitude levels the profiles are stored on.
+     */
+    public double[] copyLevels() {
+        return levels.clone();
+    }
+
+    /**
+     * @return The x (east) component of the wind at a time and altitude.
+     */
+    public double getXAt(Instant time, double alt) {
+        return snapshotAt(time).getCurve().xAt(alt);
+    }
+
+    /**
+     * @return The y (north) component of the wind at a time and altitude.
+     */
+    public double getYAt(Instant time, double alt) {
+        return snapshotAt(time).getCurve().yAt(alt);
+    }
+
+    /**
+     * @return The windspeed at a time and altitude.
+     */
+    public double getSpeedAt(Instant time, double alt) {
+        return snapshotAt(time).getSpeedAt(alt);
+    }
+
+    /**
+     * @return The heading of the wind at a time and altitude in degrees.
+     */
+    public double getHeadingAt(Instant time, double alt) {
+        return snapshotAt(time).getHeadingAt(alt);
+    }
+
+    /**
+     * @return The winds now, rounded down to SNAPSHOT_RESOLUTION_MILLIS. See snapshotAt().
+     */
+    @Override
+    public WindSnapshot snapshot() {
+        long now = System.currentTimeMillis();
+        return snapshotAt(Instant.ofEpochMilli(now - Math.floorMod(now, SNAPSHOT_RESOLUTION_MILLIS)));
+    }
+
+    /**
+     * Get the winds at a time, blended from the profiles valid before and after it. The snapshot
+     * is a view onto this field and copies none of it. Its version is the time in epoch
+     * milliseconds, clamped to the times of the profiles, and the same snapshot is returned for
+     * the same time while it is still cached.
+     * @param time The time.
+     * @return The winds at that time.
+     */
+    @Override
+    public WindSnapshot snapshotAt(Instant time) {
+        long millis = Math.min(Math.max(time.toEpochMilli(), times[0]), times[times.length - 1]);
+        int slot = Long.hashCode(millis * 0x9E3779B97F4A7C15L) & (CACHED_SNAPSHOTS - 1);
+        WindSnapshot cached = snapshots.get(slot);
+        if (cached != null && cached.getVersion() == millis) {
+            return cached;
+        }
+        WindSnapshot snapshot = new WindSnapshot(millis, blendAt(millis));
+        snapshots.set(slot, snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Blend the profiles either side of a time within the times of the profiles.
+     */
+    private Blend blendAt(long millis) {
+        int i = Arrays.binarySearch(times, millis);
+        if (0 <= i) {
+            return new Blend(this, i, 0);
+        }
+        int before = -(i + 1) - 1;
+        double weight = (double) (millis - times[before]) / (times[before + 1] - times[before]);
+        return new Blend(this, before, weight);
+    }
+
+    private static double[] knotsOf(WindSnapshot[] profiles) {
+        int count = 0;
+        for (WindSnapshot profile : profiles) {
+            count += profile.getCurve().size();
+        }
+        double[] knots = new double[count];
+        int i = 0;
+        for (WindSnapshot profile : profiles) {
+            WindCurve curve = profile.getCurve();
+            for (int k = 0; k < curve.size(); k++) {
+                knots[i++] = curve.getKnot(k);
+            }
+        }
+        Arrays.sort(knots);
+        int unique = 0;
+        for (int k = 0; k < knots.length; k++) {
+            if (unique == 0 || knots[unique - 1] != knots[k]) {
+                knots[unique++] = knots[k];
+            }
+        }
+        return Arrays.copyOf(knots, unique);
+    }
+
+    /**
+     * The winds at a time between two rows of a field, weighted towards the later row by weight.
+     * Every coefficient is blended from the field as it is asked for.
+     */
+    private static final class Blend extends WindCurve {
+        private final WindField field;
+        private final int earlierCoefficients;
+        private final int laterCoefficients;
+        private final int earlierKnots;
+        private final int laterKnots;
+        private final double weight;
+
+        Blend(WindField field, int row, double weight) {
+            super(field.levels);
+            int n = field.levels.length;
+            int coefficients = Math.max(n - 1, 1) * COEFFICIENTS;
+            this.field = field;
+            // A weight of 0 never reads the later row, which may not exist
+            int later = weight == 0 ? row : row + 1;
+            this.earlierCoefficients = row * coefficients;
+            this.laterCoefficients = later * coefficients;
+            this.earlierKnots = row * n;
+            this.laterKnots = later * n;
+            this.weight = weight;
+        }
+
+        @Override
+        double coefficient(int component, int i) {
+            double[] coefficients = component == X ? field.coefficientsX : field.coefficientsY;
+            double a = coefficients[earlierCoefficients + i];
+            double b = coefficients[laterCoefficients + i];
+            return a + weight * (b - a);
+        }
+
+        @Override
+        double cumulative(int component, int knot) {
+            double[] cumulative = component == X ? field.cumulativeX : field.cumulativeY;
+            double a = cumulative[earlierKnots + knot];
+            double b = cumulative[laterKnots + knot];
+            return a + weight * (b - a);
+        }
+    }
+}
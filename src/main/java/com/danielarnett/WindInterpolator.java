@@ -0,0 +1,34 @@
+package com.danielarnett;
+
+/**
+ * A strategy for interpolating winds between the measured altitudes. The wind is interpolated
+ * as x (east) and y (north) components rather than as speed and heading, so that a wind veering
+ * through north does not swing the long way around the compass.
+ */
+public interface WindInterpolator {
+    /** Straight lines between the measured winds. */
+    WindInterpolator LINEAR = new LinearInterpolator();
+    /** A monotone cubic (PCHIP) curve, which is smooth but never overshoots the measured winds. */
+    WindInterpolator MONOTONE_CUBIC = new MonotoneCubicInterpolator();
+    /** A natural cubic spline, the smoothest curve through the measured winds. */
+    WindInterpolator NATURAL_SPLINE = new NaturalSplineInterpolator();
+
+    /**
+     * Fit a curve through the measured winds. The arrays belong to the curve afterwards.
+     * @param altitudes The measured altitudes in ascending order, at least one.
+     * @param x The x (east) component of the wind at each altitude.
+     * @param y The y (north) component of the wind at each altitude.
+     * @return The fitted curve.
+     */
+    WindCurve fit(double[] altitudes, double[] x, double[] y);
+
+    /**
+     * How far along the curve a change to one measured wind can reach. If the wind at knot k
+     * changes, or a wind is inserted as knot k, the curve only changes between knots k - reach
+     * and k + reach. Used by DriftPipeline to recompute only the scenarios a change affects.
+     * @return The reach in knots, or Integer.MAX_VALUE if a change can move the whole curve.
+     */
+    default int getReach() {
+        return Integer.MAX_VALUE;
+    }
+}
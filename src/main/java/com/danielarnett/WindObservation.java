@@ -0,0 +1,39 @@
+package com.danielarnett;
+
+/**
+ * One wind measured at one altitude, such as a radiosonde level or a wind reported by an
+ * aircraft, in the units used by Winds. Fed to a DriftPipeline.
+ */
+public final class WindObservation {
+    private final double altitude;
+    private final double speed;
+    private final double heading;
+
+    /**
+     * @param altitude The altitude of the wind in feet.
+     * @param speed The windspeed in miles per hour.
+     * @param heading The heading the wind blows towards in degrees.
+     */
+    public WindObservation(double altitude, double speed, double heading) {
+        this.altitude = altitude;
+        this.speed = speed;
+        this.heading = heading;
+    }
+
+    public double getAltitude() {
+        return altitude;
+    }
+
+    public double getSpeed() {
+        return speed;
+    }
+
+    public double getHeading() {
+        return heading;
+    }
+
+    @Override
+    public String toString() {
+        return speed + " mph toward " + heading + " degrees at " + altitude + " feet";
+    }
+}
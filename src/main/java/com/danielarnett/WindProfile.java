@@ -0,0 +1,250 @@
+package com.danielarnett;
+
+import java.util.Arrays;
+
+/**
+ * A primitive, structure-of-arrays wind profile. Altitudes, speeds, and headings are stored
+ * in parallel double arrays which are always kept in ascending altitude order, so no sorting
+ * is ever needed and no values are boxed.
+ *
+ * The read methods are public and the methods that change the profile are package-private.
+ * A profile is not thread safe, so Winds only ever hands out copies of the profiles it keeps.
+ */
+public class WindProfile {
+    private static final int DEFAULT_CAPACITY = 16;
+    private double[] altitude;
+    private double[] speed;
+    private double[] heading;
+    private int size;
+
+    /**
+     * Creates an empty profile.
+     */
+    public WindProfile() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty profile with room for a number of winds before it has to grow.
+     * @param capacity The number of winds to reserve space for.
+     */
+    public WindProfile(int capacity) {
+        capacity = Math.max(capacity, 1);
+        this.altitude = new double[capacity];
+        this.speed    = new double[capacity];
+        this.heading  = new double[capacity];
+        this.size = 0;
+    }
+
+    /**
+     * Creates a copy of a profile with just enough room for its winds.
+     * @param other The profile to copy.
+     */
+    WindProfile(WindProfile other) {
+        int capacity = Math.max(other.size, 1);
+        this.altitude = Arrays.copyOf(other.altitude, capacity);
+        this.speed    = Arrays.copyOf(other.speed,    capacity);
+        this.heading  = Arrays.copyOf(other.heading,  capacity);
+        this.size = other.size;
+    }
+
+    /**
+     * @return The number of winds in the profile.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return True if there are no winds in the profile.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param i The index of the wind, 0 being the lowest altitude.
+     * @return The altitude of the wind at index i.
+     */
+    public double getAltitude(int i) {
+        checkIndex(i);
+        return altitude[i];
+    }
+
+    /**
+     * @param i The index of the wind, 0 being the lowest altitude.
+     * @return The speed of the wind at index i.
+     */
+    public double getSpeed(int i) {
+        checkIndex(i);
+        return speed[i];
+    }
+
+    /**
+     * @param i The index of the wind, 0 being the lowest altitude.
+     * @return The heading of the wind at index i in degrees.
+     */
+    public double getHeading(int i) {
+        checkIndex(i);
+        return heading[i];
+    }
+
+    /**
+     * @return The lowest altitude in the profile.
+     * @throws IllegalStateException if the profile is empty.
+     */
+    public double getMinAltitude() {
+        checkNotEmpty();
+        return altitude[0];
+    }
+
+    /**
+     * @return The highest altitude in the profile.
+     * @throws IllegalStateException if the profile is empty.
+     */
+    public double getMaxAltitude() {
+        checkNotEmpty();
+        return altitude[size - 1];
+    }
+
+    /**
+     * Find the index of a wind recorded at exactly the given altitude.
+     * @param alt The altitude to look for.
+     * @return The index of the wind, or -1 if there is no wind at that altitude.
+     */
+    public int indexOf(double alt) {
+        int i = search(alt);
+        return i < 0 ? -1 : i;
+    }
+
+    /**
+     * Find the cell of the profile that contains an altitude with a binary search. Altitudes
+     * do not have to be recorded exactly in the profile.
+     * @param alt The altitude to look for.
+     * @return The index of the highest wind at or below alt, or -1 if alt is below every wind.
+     */
+    public int floorIndex(double alt) {
+        int i = search(alt);
+        return i < 0 ? -(i + 1) - 1 : i;
+    }
+
+    /**
+     * Copy the altitudes into a new array.
+     * @return The altitudes in ascending order.
+     */
+    public double[] copyAltitudes() {
+        return Arrays.copyOf(altitude, size);
+    }
+
+    /**
+     * Copy the speeds into a new array.
+     * @return The speeds, in the same order as the altitudes.
+     */
+    public double[] copySpeeds() {
+        return Arrays.copyOf(speed, size);
+    }
+
+    /**
+     * Copy the headings into a new array.
+     * @return The headings in degrees, in the same order as the altitudes.
+     */
+    public double[] copyHeadings() {
+        return Arrays.copyOf(heading, size);
+    }
+
+    /**
+     * Convert every wind to x (east) and y (north) components with WindComponents.
+     * @param x Receives the x components. Must hold at least size() values.
+     * @param y Receives the y components. Must hold at least size() values.
+     */
+    public void copyComponents(double[] x, double[] y) {
+        WindComponents.toComponents(speed, heading, x, y, 0, size);
+    }
+
+    /**
+     * Treat the speed and heading columns as x (east) and y (north) components, as written by
+     * append(), and convert them to speeds and headings in place.
+     */
+    void convertComponentsToPolar() {
+        WindComponents.toPolar(speed, heading, speed, heading, 0, size);
+    }
+
+    /**
+     * Add a wind, keeping the profile in altitude order. If there is already a wind at the
+     * altitude it is replaced. Winds added in ascending altitude order are appended in O(1).
+     * @param newAltitude The altitude of the wind.
+     * @param newSpeed The speed of the wind.
+     * @param newHeading The heading of the wind in degrees.
+     * @return True if an existing wind was replaced.
+     */
+    boolean put(double newAltitude, double newSpeed, double newHeading) {
+        // Fast path for winds arriving in ascending order
+        if (size == 0 || altitude[size - 1] < newAltitude) {
+            append(newAltitude, newSpeed, newHeading);
+            return false;
+        }
+        int i = search(newAltitude);
+        if (0 <= i) {
+            speed[i]   = newSpeed;
+            heading[i] = newHeading;
+            return true;
+        }
+        long start = WindsMetrics.start();
+        int insertionPoint = -(i + 1);
+        ensureCapacity(size + 1);
+        System.arraycopy(altitude, insertionPoint, altitude, insertionPoint + 1, size - insertionPoint);
+        System.arraycopy(speed,    insertionPoint, speed,    insertionPoint + 1, size - insertionPoint);
+        System.arraycopy(heading,  insertionPoint, heading,  insertionPoint + 1, size - insertionPoint);
+        altitude[insertionPoint] = newAltitude;
+        speed[insertionPoint]    = newSpeed;
+        heading[insertionPoint]  = newHeading;
+        size++;
+        WindsMetrics.stop(WindsMetrics.Operation.SHIFTED_INSERTION, start);
+        return false;
+    }
+
+    /**
+     * Append a wind above every wind already in the profile. The caller is responsible for
+     * keeping the altitudes ascending.
+     * @param newAltitude The altitude of the wind.
+     * @param newSpeed The speed of the wind.
+     * @param newHeading The heading of the wind in degrees.
+     */
+    void append(double newAltitude, double newSpeed, double newHeading) {
+        ensureCapacity(size + 1);
+        altitude[size] = newAltitude;
+        speed[size]    = newSpeed;
+        heading[size]  = newHeading;
+        size++;
+    }
+
+    /**
+     * Make sure the columns can hold a number of winds without growing again.
+     * @param capacity The number of winds to make room for.
+     */
+    void ensureCapacity(int capacity) {
+        if (altitude.length < capacity) {
+            int newCapacity = Math.max(capacity, altitude.length + (altitude.length >> 1));
+            altitude = Arrays.copyOf(altitude, newCapacity);
+            speed    = Arrays.copyOf(speed,    newCapacity);
+            heading  = Arrays.copyOf(heading,  newCapacity);
+        }
+    }
+
+    private int search(double alt) {
+        return Arrays.binarySearch(altitude, 0, size, alt);
+    }
+
+    private void checkIndex(int i) {
+        if (i < 0 || size <= i) {
+            throw new IndexOutOfBoundsException("Wind index " + i + " is out of bounds for a profile of " +
+                    size + " winds.");
+        }
+    }
+
+    private void checkNotEmpty() {
+        if (size == 0) {
+            throw new IllegalStateException("Error: No winds have been added. Call addWind() first.");
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.danielarnett;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the forecast wind profiles of many drop zones, each valid from a point in time. Profiles
+ * are immutable WindSnapshots, so they can be read by any number of threads at once.
+ *
+ * Reads never lock. Each drop zone has a timeline of its profiles, sorted by valid time, which is
+ * never changed once it is published. Publishing a profile copies the timeline, adds the profile,
+ * and swaps the new timeline in with a compare-and-set, so a reader sees either the old timeline
+ * or the new one, never a half-updated one. Profiles are replaced about once an hour and read
+ * constantly, so the copy is cheap compared to the reads it keeps lock-free.
+ */
+public final class WindProfileRegistry {
+    private final ConcurrentHashMap<String, AtomicReference<Timeline>> dropZones = new ConcurrentHashMap<>();
+    private final Clock clock;
+
+    /**
+     * Creates an empty registry that uses the system clock to decide which profile is current.
+     */
+    public WindProfileRegistry() {
+        this(Clock.systemUTC());
+    }
+
+    /**
+     * Creates an empty registry.
+     * @param clock The clock that decides which profile is current.
+     */
+    public WindProfileRegistry(Clock clock) {
+        if (clock == null) {
+            throw new IllegalArgumentException("The clock must not be null.");
+        }
+        this.clock = clock;
+    }
+
+    /**
+     * Publish a profile for a drop zone. A profile already published for the same valid time is
+     * replaced.
+     * @param dropZone The drop zone.
+     * @param validTime The time from which the profile is valid.
+     * @param winds The profile.
+     * @throws IllegalArgumentException if any argument is null.
+     */
+    public void publish(String dropZone, Instant validTime, WindSnapshot winds) {
+        if (dropZone == null || validTime == null || winds == null) {
+            throw new IllegalArgumentException("The drop zone, valid time and winds must not be null.");
+        }
+        long time = validTime.toEpochMilli();
+        while (true) {
+            AtomicReference<Timeline> reference =
+                    dropZones.computeIfAbsent(dropZone, k -> new AtomicReference<>(Timeline.EMPTY));
+            Timeline current = reference.get();
+            while (current != Timeline.REMOVED) {
+                if (reference.compareAndSet(current, current.with(time, winds))) {
+                    return;
+                }
+                current = reference.get();
+            }
+            // The drop zone was removed after its reference was looked up. Help take the old
+            // reference out of the map and publish into a fresh one.
+            dropZones.remove(dropZone, reference);
+        }
+    }
+
+    /**
+     * Publish the current winds of a Winds object for a drop zone.
+     * See publish(String, Instant, WindSnapshot).
+     */
+    public void publish(String dropZone, Instant validTime, Winds winds) {
+        publish(dropZone, validTime, winds.snapshot());
+    }
+
+    /**
+     * Get the profile in effect at a time, which is the one with the latest valid time at or
+     * before it.
+     * @param dropZone The drop zone.
+     * @param time The time.
+     * @return The profile, or null if the drop zone has no profile valid at that time.
+     */
+    public WindSnapshot get(String dropZone, Instant time) {
+        AtomicReference<Timeline> reference = dropZones.get(dropZone);
+        return reference == null ? null : reference.get().at(time.toEpochMilli());
+    }
+
+    /**
+     * @return The profile in effect now, or null if the drop zone has no current profile.
+     */
+    public WindSnapshot getCurrent(String dropZone) {
+        return get(dropZone, clock.instant());
+    }
+
+    /**
+     * @return The profile with the latest valid time, or null if the drop zone has none.
+     */
+    public WindSnapshot getLatest(String dropZone) {
+        AtomicReference<Timeline> reference = dropZones.get(dropZone);
+        return reference == null ? null : reference.get().latest();
+    }
+
+    /**
+     * Get a source that resolves the profile in effect for a drop zone every time it is asked,
+     * so a calculator using it follows new forecasts as they are published. Asked for the winds
+     * at a time, it returns the profile in effect at that time.
+     * @param dropZone The drop zone.
+     * @return The source. It throws an IllegalStateException when the drop zone has no profile
+     * in effect at the time asked for.
+     */
+    public WindSource source(String dropZone) {
+        return new WindSource() {
+            @Override
+            public WindSnapshot snapshot() {
+                return snapshotAt(clock.instant());
+            }
+
+            @Override
+            public WindSnapshot snapshotAt(Instant time) {
+                WindSnapshot winds = get(dropZone, time);
+                if (winds == null) {
+                    throw new IllegalStateException("Error: No winds have been published for drop zone " +
+                            dropZone + " that are valid at " + time + ".");
+                }
+                return winds;
+            }
+        };
+    }
+
+    /**
+     * Remove the profiles of a drop zone that were superseded before a time. The profile in
+     * effect at that time is kept.
+     * @param dropZone The drop zone.
+     * @param time Profiles replaced by a later profile before this time are removed.
+     */
+    public void removeBefore(String dropZone, Instant time) {
+        AtomicReference<Timeline> reference = dropZones.get(dropZone);
+        if (reference == null) {
+            return;
+        }
+        long cutoff = time.toEpochMilli();
+        Timeline current;
+        do {
+            current = reference.get();
+            if (current == Timeline.REMOVED) {
+                return;
+            }
+        } while (!reference.compareAndSet(current, current.from(cutoff)));
+    }
+
+    /**
+     * Remove every profile of a drop zone. The timeline is marked as removed before it is taken
+     * out of the map, so a publish that raced with the removal sees the mark and starts again
+     * instead of adding its profile to a timeline nobody can reach.
+     */
+    public void remove(String dropZone) {
+        AtomicReference<Timeline> reference = dropZones.get(dropZone);
+        if (reference != null) {
+            reference.set(Timeline.REMOVED);
+            dropZones.remove(dropZone, reference);
+        }
+    }
+
+    /**
+     * @return A read-only view of the drop zones with profiles.
+     */
+    public Set<String> getDropZones() {
+        return Collections.unmodifiableSet(dropZones.keySet());
+    }
+
+    /**
+     * @return The number of profiles held for a drop zone.
+     */
+    public int size(String dropZone) {
+        AtomicReference<Timeline> reference = dropZones.get(dropZone);
+        return reference == null ? 0 : reference.get().validTimes.length;
+    }
+
+    /**
+     * The profiles of one drop zone in ascending valid time order. Never changed once published.
+     */
+    private static final class Timeline {
+        static final Timeline EMPTY = new Timeline(new long[0], new WindSnapshot[0]);
+        /**
+         * Marks the timeline of a drop zone that has been removed. It reads as empty.
+         */
+        static final Timeline REMOVED = new Timeline(new long[0], new WindSnapshot[0]);
+
+        final long[] validTimes;
+        final WindSnapshot[] profiles;
+
+        Timeline(long[] validTimes, WindSnapshot[] profiles) {
+            this.validTimes = validTimes;
+            this.profiles = profiles;
+        }
+
+        WindSnapshot at(long time) {
+            int i = floorIndex(time);
+            return i < 0 ? null : profiles[i];
+        }
+
+        WindSnapshot latest() {
+            return profiles.length == 0 ? null : profiles[profiles.length - 1];
+        }
+
+        /**
+         * @return A copy of this timeline with a profile added or replaced.
+         */
+        Timeline with(long time, WindSnapshot profile) {
+            int i = Arrays.binarySearch(validTimes, time);
+            if (0 <= i) {
+                WindSnapshot[] newProfiles = profiles.clone();
+                newProfiles[i] = profile;
+                return new Timeline(validTimes, newProfiles);
+            }
+            int insertionPoint = -(i + 1);
+            int n = validTimes.length;
+            long[] newTimes = new long[n + 1];
+            WindSnapshot[] newProfiles = new WindSnapshot[n + 1];
+            System.arraycopy(validTimes, 0, newTimes, 0, insertionPoint);
+            System.arraycopy(profiles, 0, newProfiles, 0, insertionPoint);
+            newTimes[insertionPoint] = time;
+            newProfiles[insertionPoint] = profile;
+            System.arraycopy(validTimes, insertionPoint, newTimes, insertionPoint + 1, n - insertionPoint);
+            System.arraycopy(profiles, insertionPoint, newProfiles, insertionPoint + 1, n - insertionPoint);
+            return new Timeline(newTimes, newProfiles);
+        }
+
+        /**
+         * @return A copy of this timeline without the profiles superseded before a time.
+         */
+        Timeline from(long time) {
+            int first = Math.max(floorIndex(time), 0);
+            if (first == 0) {
+                return this;
+            }
+            return new Timeline(Arrays.copyOfRange(validTimes, first, validTimes.length),
+                    Arrays.copyOfRange(profiles, first, profiles.length));
+        }
+
+        /**
+         * @return The index of the latest valid time at or before time, or -1 if there is none.
+         */
+        private int floorIndex(long time) {
+            int i = Arrays.binarySearch(validTimes, time);
+            return i < 0 ? -(i + 1) - 1 : i;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.danielarnett;
+
+/**
+ * An immutable snapshot of the winds of a Winds object. It holds a WindCurve fitted through the
+ * measured winds, with the integrals of the wind components precomputed at every knot, so the wind
+ * at any altitude or its average over any band costs a binary search over the measured altitudes.
+ *
+ * A snapshot never changes after it is created, so one snapshot can be shared by any number of
+ * calculations. Get one from Winds.snapshot().
+ */
+public final class WindSnapshot {
+    private final long version;
+    private final WindCurve curve;
+
+    /**
+     * Creates a snapshot of a fitted wind curve.
+     * @param version The version of the measured winds the curve was fitted to.
+     * @param curve The fitted curve.
+     */
+    WindSnapshot(long version, WindCurve curve) {
+        this.version = version;
+        this.curve = curve;
+    }
+
+    /**
+     * @return The version of the measured winds this snapshot was taken from. For a snapshot
+     * blended by a WindField, the time it was blended for in epoch milliseconds.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return The curve the winds are interpolated with.
+     */
+    public WindCurve getCurve() {
+        return curve;
+    }
+
+    /**
+     * @return The lowest measured altitude.
+     */
+    public double getMinAltitude() {
+        return curve.getMinAltitude();
+    }
+
+    /**
+     * @return The highest measured altitude.
+     */
+    public double getMaxAltitude() {
+        return curve.getMaxAltitude();
+    }
+
+    /**
+     * @param alt The altitude.
+     * @return The interpolated windspeed at the altitude.
+     */
+    public double getSpeedAt(double alt) {
+        int segment = curve.segmentAtOrBelow(alt);
+        double x = curve.xAt(alt, segment);
+        double y = curve.yAt(alt, segment);
+        return Math.sqrt(x*x + y*y);
+    }
+
+    /**
+     * @param alt The altitude.
+     * @return The interpolated wind heading at the altitude in degrees.
+     */
+    public double getHeadingAt(double alt) {
+        int segment = curve.segmentAtOrBelow(alt);
+        return WindComponents.headingInDegrees(curve.xAt(alt, segment), curve.yAt(alt, segment));
+    }
+
+    /**
+     * @param lo The low altitude in a range
+     * @param hi The high altitude in a range
+     * @return The average x (east) component of the wind between those altitudes.
+     * @throws IllegalArgumentException if hi <= lo, lo is below the ground, or hi is above the highest wind.
+     */
+    public double getAverageXInRange(double lo, double hi) {
+        long start = WindsMetrics.start();
+        checkRange(lo, hi);
+        double average = integrateX(lo, hi) / (hi - lo);
+        WindsMetrics.stop(WindsMetrics.Operation.RANGE_AVERAGE, start);
+        return average;
+    }
+
+    /**
+     * @param lo The low altitude in a range
+     * @param hi The high altitude in a range
+     * @return The average y (north) component of the wind between those altitudes.
+     * @throws IllegalArgumentException if hi <= lo, lo is below the ground, or hi is above the highest wind.
+     */
+    public double getAverageYInRange(double lo, double hi) {
+        long start = WindsMetrics.start();
+        checkRange(lo, hi);
+        double average = integrateY(lo, hi) / (hi - lo);
+        WindsMetrics.stop(WindsMetrics.Operation.RANGE_AVERAGE, start);
+        return average;
+    }
+
+    /**
+     * @param lo The low altitude in a range
+     * @param hi The high altitude in a range
+     * @return The average windspeed between those altitudes.
+     * @throws IllegalArgumentException if hi <= lo, lo is below the ground, or hi is above the highest wind.
+     */
+    public double getAverageWindspeedInRange(double lo, double hi) {
+        long start = WindsMetrics.start();
+        checkRange(lo, hi);
+        double x = integrateX(lo, hi);
+        double y = integrateY(lo, hi);
+        double average = Math.sqrt(x*x + y*y) / (hi - lo);
+        WindsMetrics.stop(WindsMetrics.Operation.RANGE_AVERAGE, start);
+        return average;
+    }
+
+    /**
+     * @param lo The low altitude in a range
+     * @param hi The high altitude in a range
+     * @return The heading of the average wind between those altitudes in degrees.
+     * @throws IllegalArgumentException if hi <= lo, lo is below the ground, or hi is above the highest wind.
+     */
+    public double getAverageHeadingInRange(double lo, double hi) {
+        long start = WindsMetrics.start();
+        checkRange(lo, hi);
+        double heading = WindComponents.headingInDegrees(integrateX(lo, hi), integrateY(lo, hi));
+        WindsMetrics.stop(WindsMetrics.Operation.RANGE_AVERAGE, start);
+        return heading;
+    }
+
+    /**
+     * Integrate the x component of the wind between two altitudes without checking the range.
+     * @return The integral in feet times wind units.
+     */
+    double integrateX(double lo, double hi) {
+        return integralXFromBottom(hi, floorIndex(hi)) - integralXFromBottom(lo, floorIndex(lo));
+    }
+
+    /**
+     * Integrate the y component of the wind between two altitudes without checking the range.
+     * @return The integral in feet times wind units.
+     */
+    double integrateY(double lo, double hi) {
+        return integralYFromBottom(hi, floorIndex(hi)) - integralYFromBottom(lo, floorIndex(lo));
+    }
+
+    /**
+     * Integrate the x component from the lowest altitude up to an altitude.
+     * @param alt The altitude to integrate up to.
+     * @param cell The index of the highest knot at or below alt, or -1 if alt is below every
+     *             knot, as returned by floorIndex() or cellAtOrBelow().
+     * @return The integral, which is negative for altitudes below the lowest wind.
+     */
+    double integralXFromBottom(double alt, int cell) {
+        return curve.integralX(alt, cell);
+    }
+
+    /**
+     * Integrate the y component from the lowest altitude up to an altitude.
+     * See integralXFromBottom().
+     */
+    double integralYFromBottom(double alt, int cell) {
+        return curve.integralY(alt, cell);
+    }
+
+    /**
+     * Find the cell containing an altitude by walking down from a cell at or above it. Callers that
+     * walk down through the winds in order find every cell in amortized O(1).
+     * @param alt The altitude to look for.
+     * @param start A cell at or above the one containing alt.
+     * @return The index of the highest knot at or below alt, or -1 if alt is below every knot.
+     */
+    int cellAtOrBelow(double alt, int start) {
+        return curve.segmentAtOrBelow(alt, start);
+    }
+
+    /**
+     * @return The index of the highest knot at or below alt, or -1 if alt is below every knot.
+     */
+    int floorIndex(double alt) {
+        return curve.segmentAtOrBelow(alt);
+    }
+
+    /**
+     * Check whether the winds cover an altitude range without allocating anything.
+     * @return OK, the error that stops the winds from being averaged over the range, or
+     * BELOW_LOWEST_WIND if the range reaches below the lowest wind.
+     */
+    public ValidationStatus validateRange(double lo, double hi) {
+        if (Double.isNaN(lo) || Double.isNaN(hi)) {
+            return ValidationStatus.NOT_A_NUMBER;
+        }
+        if (hi <= lo) {
+            return ValidationStatus.EMPTY_RANGE;
+        }
+        if (this.getMaxAltitude() < hi) {
+            return ValidationStatus.ABOVE_HIGHEST_WIND;
+        }
+        if (lo < 0) {
+            return ValidationStatus.BELOW_GROUND;
+        }
+        if (lo < this.getMinAltitude()) {
+            return ValidationStatus.BELOW_LOWEST_WIND;
+        }
+        return ValidationStatus.OK;
+    }
+
+    /**
+     * Check that winds can be averaged between two altitudes.
+     * @throws IllegalArgumentException if hi <= lo, lo is below the ground, or hi is above the highest wind.
+     */
+    void checkRange(double lo, double hi) {
+        ValidationStatus status = validateRange(lo, hi);
+        if (status.isError()) {
+            throw rangeException(status, lo, hi);
+        }
+    }
+
+    /**
+     * Build the exception for a range that failed validateRange(). Only called once it is known
+     * the range is bad.
+     */
+    IllegalArgumentException rangeException(ValidationStatus status, double lo, double hi) {
+        switch (status) {
+            case EMPTY_RANGE:
+                return new IllegalArgumentException("The low windspeed is greater or equal to the " +
+                        "high windspeed. Something's not right here.");
+            case ABOVE_HIGHEST_WIND:
+                return new IllegalArgumentException("Error: No windspeed data available above " +
+                        String.valueOf(this.getMaxAltitude()) + " feet." +
+                        "Please jump lower or get windspeeds at higher altitudes. " +
+                        "Wind information was requested at " + String.valueOf(hi) + " feet.");
+            case BELOW_GROUND:
+                return new IllegalArgumentException("Error: No windspeed data available below the ground" +
+                        String.valueOf(lo) + " is not an altitude to which you want to fall.");
+            default:
+                return new IllegalArgumentException("Cannot average the winds between " +
+                        String.valueOf(lo) + " and " + String.valueOf(hi) + " feet: " + status + ".");
+        }
+    }
+}
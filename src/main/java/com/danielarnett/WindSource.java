@@ -0,0 +1,26 @@
+package com.danielarnett;
+
+import java.time.Instant;
+
+/**
+ * Anything that can supply the current winds as an immutable snapshot. Winds is the simplest
+ * source. WindProfileRegistry hands out sources that follow the latest forecast for a drop zone,
+ * and a WindField blends the forecasts either side of a time.
+ */
+public interface WindSource {
+    /**
+     * @return The current winds. Never null.
+     * @throws IllegalStateException if there are no winds to return.
+     */
+    WindSnapshot snapshot();
+
+    /**
+     * Get the winds at a time. Sources whose winds do not change with time return snapshot().
+     * @param time The time, such as when a load will jump.
+     * @return The winds at that time. Never null.
+     * @throws IllegalStateException if there are no winds for that time.
+     */
+    default WindSnapshot snapshotAt(Instant time) {
+        return snapshot();
+    }
+}
@@ -0,0 +1,338 @@
+package com.danielarnett;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A file of fitted wind curves and freefall tables, written once and then opened by any number of
+ * processes through a memory mapped buffer. Opening a store reads only the headers: the curves
+ * are evaluated straight from the mapped file, so processes on the same host share one copy of
+ * the data in the page cache and nothing is refitted or reintegrated at startup. Freefall tables
+ * are copied out of the file in one bulk read each, since their lookups are the hottest path.
+ *
+ * The format is little endian. Every entry starts on an 8 byte boundary, so its doubles are
+ * aligned.
+ *
+ *     int     MAGIC
+ *     int     FORMAT_VERSION
+ *     int     number of curves
+ *     int     number of freefall tables
+ *     curves, each:
+ *         int     name length, then the name in UTF-8, padded to 8 bytes
+ *         long    version of the measured winds
+ *         int     knot count n
+ *         int     coefficient count c
+ *         double  knots[n], coefficientsX[c], coefficientsY[c], cumulativeX[n], cumulativeY[n]
+ *     freefall tables, each:
+ *         int     name length, then the name in UTF-8, padded to 8 bytes
+ *         double  terminal velocity in mph
+ *         int     exit rows r, window columns w, terminal rows t, and 0
+ *         double  accelerationTimes[r * w], accelerationPenalty[r], terminalTimes[t]
+ *
+ * A file is replaced by writing a new one beside it and moving it into place, so a process that
+ * has the old file mapped keeps reading the old data.
+ */
+public final class WindStore {
+    static final int MAGIC = 0x57464643;
+    static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+
+    private final Map<String, WindSnapshot> snapshots;
+    private final Map<String, JumperProfile> jumperProfiles;
+
+    private WindStore(Map<String, WindSnapshot> snapshots, Map<String, JumperProfile> jumperProfiles) {
+        this.snapshots = snapshots;
+        this.jumperProfiles = jumperProfiles;
+    }
+
+    /**
+     * Write curves and freefall tables to a file, replacing it if it exists.
+     * @param file The file to write.
+     * @param snapshots The winds to store, by name, such as the drop zone they belong to.
+     * @param jumperProfiles The jumper profiles whose freefall tables to store, by their names.
+     * @throws IOException if the file cannot be written.
+     * @throws IllegalArgumentException if a snapshot is a view that has no fitted curve, such as
+     * one blended from a WindField, or two jumper profiles have the same name.
+     */
+    public static void write(Path file, Map<String, WindSnapshot> snapshots,
+                             Collection<JumperProfile> jumperProfiles) throws IOException {
+        long size = HEADER_BYTES;
+        for (Map.Entry<String, WindSnapshot> entry : snapshots.entrySet()) {
+            WindCurve curve = entry.getValue().getCurve();
+            if (curve.coefficientsX() == null) {
+                throw new IllegalArgumentException("The winds " + entry.getKey() + " are a view with no " +
+                        "fitted curve to store. Store the snapshots the view was made from.");
+            }
+            size += nameBytes(entry.getKey()) + 16 + 8L * (3 * curve.size() + 2 * curve.coefficientsX().length);
+        }
+        Map<String, FreefallTable> tables = new LinkedHashMap<>();
+        for (JumperProfile profile : jumperProfiles) {
+            if (tables.put(profile.getName(), profile.getFreefallTable()) != null) {
+                throw new IllegalArgumentException("More than one jumper profile is named " + profile.getName() + ".");
+            }
+            size += nameBytes(profile.getName()) + 24 + 8L * (FreefallTable.EXIT_ROWS * FreefallTable.WINDOW_COLUMNS +
+                    FreefallTable.EXIT_ROWS + FreefallTable.TERMINAL_ROWS);
+        }
+        if (Integer.MAX_VALUE < size) {
+            throw new IllegalArgumentException("A wind store cannot be larger than 2 GB, but this one would be " +
+                    String.valueOf(size) + " bytes.");
+        }
+
+        // Write beside the file and move it into place, so nobody maps a half written file
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(snapshots.size()).putInt(tables.size());
+            for (Map.Entry<String, WindSnapshot> entry : snapshots.entrySet()) {
+                WindCurve curve = entry.getValue().getCurve();
+                putName(buffer, entry.getKey());
+                buffer.putLong(entry.getValue().getVersion());
+                buffer.putInt(curve.size()).putInt(curve.coefficientsX().length);
+                putDoubles(buffer, curve.knots());
+                putDoubles(buffer, curve.coefficientsX());
+                putDoubles(buffer, curve.coefficientsY());
+                putDoubles(buffer, curve.cumulativeX());
+                putDoubles(buffer, curve.cumulativeY());
+            }
+            for (JumperProfile profile : jumperProfiles) {
+                FreefallTable table = tables.get(profile.getName());
+                putName(buffer, profile.getName());
+                buffer.putDouble(profile.getTerminalVelocityInMph());
+                buffer.putInt(FreefallTable.EXIT_ROWS).putInt(FreefallTable.WINDOW_COLUMNS)
+                        .putInt(FreefallTable.TERMINAL_ROWS).putInt(0);
+                putDoubles(buffer, table.accelerationTimes());
+                putDoubles(buffer, table.accelerationPenalty());
+                putDoubles(buffer, table.terminalTimes());
+            }
+            buffer.force();
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Map a store written by write().
+     * @param file The file to open.
+     * @return The store.
+     * @throws IOException if the file cannot be read, is not a wind store, was written in another
+     * version of the format, or holds freefall tables of another shape than this version builds.
+     */
+    public static WindStore open(Path file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES || Integer.MAX_VALUE < size) {
+                throw new IOException(file + " is not a wind store.");
+            }
+            // The mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException(file + " is not a wind store.");
+        }
+        int formatVersion = buffer.getInt();
+        if (formatVersion != FORMAT_VERSION) {
+            throw new IOException(file + " is in version " + formatVersion + " of the wind store format, " +
+                    "but only version " + FORMAT_VERSION + " can be read.");
+        }
+        int curveCount = buffer.getInt();
+        int tableCount = buffer.getInt();
+        try {
+            Map<String, WindSnapshot> snapshots = new LinkedHashMap<>();
+            for (int i = 0; i < curveCount; i++) {
+                String name = getName(buffer);
+                long version = buffer.getLong();
+                int knotCount = buffer.getInt();
+                int coefficientCount = buffer.getInt();
+                double[] knots = new double[knotCount];
+                buffer.asDoubleBuffer().get(knots);
+                skipDoubles(buffer, knotCount);
+                DoubleBuffer coefficientsX = sliceDoubles(buffer, coefficientCount);
+                DoubleBuffer coefficientsY = sliceDoubles(buffer, coefficientCount);
+                DoubleBuffer cumulativeX = sliceDoubles(buffer, knotCount);
+                DoubleBuffer cumulativeY = sliceDoubles(buffer, knotCount);
+                snapshots.put(name, new WindSnapshot(version,
+                        new MappedCurve(knots, coefficientsX, coefficientsY, cumulativeX, cumulativeY)));
+            }
+            Map<String, JumperProfile> jumperProfiles = new LinkedHashMap<>();
+            for (int i = 0; i < tableCount; i++) {
+                String name = getName(buffer);
+                double terminalVelocityInMph = buffer.getDouble();
+                int exitRows = buffer.getInt();
+                int windowColumns = buffer.getInt();
+                int terminalRows = buffer.getInt();
+                buffer.getInt();
+                if (exitRows != FreefallTable.EXIT_ROWS || windowColumns != FreefallTable.WINDOW_COLUMNS ||
+                        terminalRows != FreefallTable.TERMINAL_ROWS) {
+                    throw new IOException("The freefall table " + name + " in " + file + " has a different " +
+                            "shape than this version builds. Write the store again.");
+                }
+                double[] accelerationTimes = getDoubles(buffer, exitRows * windowColumns);
+                double[] accelerationPenalty = getDoubles(buffer, exitRows);
+                double[] terminalTimes = getDoubles(buffer, terminalRows);
+                jumperProfiles.put(name, new JumperProfile(name, terminalVelocityInMph,
+                        new FreefallTable(terminalVelocityInMph, accelerationTimes, accelerationPenalty, terminalTimes)));
+            }
+            return new WindStore(Collections.unmodifiableMap(snapshots), Collections.unmodifiableMap(jumperProfiles));
+        }
+        catch (RuntimeException e) {
+            // Buffer underflows and bad lengths from a truncated or corrupt file
+            throw new IOException(file + " is not a valid wind store.", e);
+        }
+    }
+
+    /**
+     * @return The names of the stored winds, in the order they were written.
+     */
+    public Set<String> getSnapshotNames() {
+        return snapshots.keySet();
+    }
+
+    /**
+     * @param name The name the winds were stored under.
+     * @return The winds, evaluated straight from the mapped file, or null if there are none by
+     * that name.
+     */
+    public WindSnapshot getSnapshot(String name) {
+        return snapshots.get(name);
+    }
+
+    /**
+     * @return The names of the stored jumper profiles, in the order they were written.
+     */
+    public Set<String> getJumperProfileNames() {
+        return jumperProfiles.keySet();
+    }
+
+    /**
+     * @param name The name of the jumper profile.
+     * @return The profile with its stored freefall table, or null if there is none by that name.
+     */
+    public JumperProfile getJumperProfile(String name) {
+        return jumperProfiles.get(name);
+    }
+
+    private static int nameBytes(String name) {
+        return align(4 + name.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    private static int align(int bytes) {
+        return (bytes + 7) & ~7;
+    }
+
+    private static void putName(ByteBuffer buffer, String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        int start = buffer.position();
+        buffer.putInt(bytes.length).put(bytes);
+        buffer.position(start + align(4 + bytes.length));
+    }
+
+    private static String getName(ByteBuffer buffer) {
+        int start = buffer.position();
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        buffer.position(start + align(4 + bytes.length));
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void putDoubles(ByteBuffer buffer, double[] values) {
+        buffer.asDoubleBuffer().put(values);
+        skipDoubles(buffer, values.length);
+    }
+
+    private static double[] getDoubles(ByteBuffer buffer, int count) {
+        double[] values = new double[count];
+        buffer.asDoubleBuffer().get(values);
+        skipDoubles(buffer, count);
+        return values;
+    }
+
+    /**
+     * @return A view of the next count doubles, which are then skipped.
+     */
+    private static DoubleBuffer sliceDoubles(ByteBuffer buffer, int count) {
+        DoubleBuffer doubles = buffer.slice(buffer.position(), 8 * count).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+        skipDoubles(buffer, count);
+        return doubles;
+    }
+
+    private static void skipDoubles(ByteBuffer buffer, int count) {
+        buffer.position(buffer.position() + 8 * count);
+    }
+
+    /**
+     * A curve whose coefficients and integrals are read from a mapped file as they are needed.
+     * Only the knots are copied onto the heap, for the binary search. WindCurve evaluates it.
+     */
+    private static final class MappedCurve extends WindCurve {
+        private final DoubleBuffer coefficientsX;
+        private final DoubleBuffer coefficientsY;
+        private final DoubleBuffer cumulativeX;
+        private final DoubleBuffer cumulativeY;
+
+        MappedCurve(double[] knots, DoubleBuffer coefficientsX, DoubleBuffer coefficientsY,
+                    DoubleBuffer cumulativeX, DoubleBuffer cumulativeY) {
+            super(knots);
+            int segments = Math.max(knots.length - 1, 1);
+            if (knots.length == 0 || coefficientsX.capacity() != segments * COEFFICIENTS) {
+                throw new IllegalArgumentException("A curve with " + knots.length + " knots cannot have " +
+                        coefficientsX.capacity() + " coefficients.");
+            }
+            this.coefficientsX = coefficientsX;
+            this.coefficientsY = coefficientsY;
+            this.cumulativeX = cumulativeX;
+            this.cumulativeY = cumulativeY;
+        }
+
+        @Override
+        double coefficient(int component, int i) {
+            return (component == X ? coefficientsX : coefficientsY).get(i);
+        }
+
+        @Override
+        double cumulative(int component, int knot) {
+            return (component == X ? cumulativeX : cumulativeY).get(knot);
+        }
+
+        @Override
+        double[] coefficientsX() {
+            return copy(coefficientsX);
+        }
+
+        @Override
+        double[] coefficientsY() {
+            return copy(coefficientsY);
+        }
+
+        @Override
+        double[] cumulativeX() {
+            return copy(cumulativeX);
+        }
+
+        @Override
+        double[] cumulativeY() {
+            return copy(cumulativeY);
+        }
+
+        private static double[] copy(DoubleBuffer buffer) {
+            double[] values = new double[buffer.capacity()];
+            buffer.get(0, values);
+            return values;
+        }
+    }
+}
@@ -1,31 +1,61 @@
 package com.danielarnett;
 
-import java.util.Vector;
-
 /**
  * This object stores and processes winds at different altitudes. It estimates the
  * average wind heading and speed, and interpolates the windspeeds between the measured altitudes.
+ *
+ * Methods that change the winds are synchronized. To share the winds between threads take a
+ * snapshot(), which is immutable and can be queried by any number of threads without locking.
+ *
+ * Problems with the data are reported as a ValidationStatus rather than logged. Register a
+ * WindsListener to be told about them as they happen. Insertion, curve fitting and interpolation
+ * are timed by WindsMetrics while it is enabled.
  */
-public class Winds {
-    private enum SortMethod { ALTITUDE, SPEED, HEADING, NONE };
-    private SortMethod currentSortMethod;
+public class Winds implements WindSource {
+    /**
+     * The measured winds, kept in ascending altitude order.
+     */
+    private WindProfile winds;
+
+    /**
+     * The version of the measured winds goes up every time addWind() changes them. The
+     * interpolated winds remember the version and resolution they were built for, so they are
+     * only rebuilt when one of those changes.
+     */
+    private long version;
+    private long interpolatedVersion;
+    private double interpolatedSteps;
+    private long interpolationCount;
+    private long fitCount;
+
+    /**
+     * Fits the curve that snapshots interpolate the measured winds with.
+     */
+    private WindInterpolator interpolator;
+
     /**
-     * windAltitude, windSpeed, and windHeading must all stay in the same order.
-     * TODO: Create a simple Wind object that contains each of these doubles, then create a list or vector of Wind objects.
+     * Scratch space for the x (east) and y (north) components of the measured winds.
      */
-    private Vector<Double> windAltitude;
-    private Vector<Double> windSpeed;
-    private Vector<Double> windHeading;
-    private boolean interpolated;
+    private double[] componentX;
+    private double[] componentY;
 
     /**
      * The interpolated winds estimate the wind parameters between the measured altitudes.
      * They can be generated with an interpolateWindspeed function, the simplest being linear
      * interpolation. More advanced interpolation schemes such as smoother polynomial fit functions.
      */
-    public Vector<Double> interpolatedAltitude;
-    public Vector<Double> interpolatedSpeed;
-    public Vector<Double> interpolatedHeading;
+    private WindProfile interpolatedWinds;
+
+    /**
+     * An immutable curve fitted through the measured winds, which answers the range averages.
+     * It is refitted lazily after the measured winds or the interpolator change.
+     */
+    private volatile WindSnapshot snapshot;
+
+    /**
+     * Receives warnings, or null if nobody asked for them.
+     */
+    private volatile WindsListener listener;
 
     /**
      * Initialize Winds but does not set them. Must call addWind() before doing any processing.
@@ -40,234 +70,260 @@ public class Winds {
      * @param altitudes The altitudes of the Winds. Each index must match with a windspeed.
      * @param speeds The windspeed. Each index must match with an altitude.
      * @param headings The heading of the wind in degrees.
+     * @throws IllegalArgumentException if the arrays are not all the same length.
      */
     public Winds(double altitudes[], double speeds[], double headings[]) {
         this.init();
         int initialWindCount = altitudes.length;
-        try
-        {
-            if (altitudes.length != speeds.length) {
-                initialWindCount = altitudes.length < speeds.length ? altitudes.length : speeds.length;
-                throw new IllegalArgumentException("The number of Wind altitudes must equal the number of speeds." +
-                        "\nNumber of Altitudes: " + altitudes.length +
-                        "\nNumber of Speeds:    " + speeds.length + "\n");
-            }
-            if (initialWindCount != headings.length) {
-                initialWindCount = initialWindCount < headings.length ? initialWindCount : headings.length;
-                throw new IllegalArgumentException("The number of Wind altitudes must equal the number of headings." +
-                        "\nNumber of Winds:    " + String.valueOf(initialWindCount) +
-                        "\nNumber of Headings: " + String.valueOf(headings.length) + "\n");
-            }
+        if (altitudes.length != speeds.length) {
+            throw new IllegalArgumentException("The number of Wind altitudes must equal the number of speeds." +
+                    "\nNumber of Altitudes: " + altitudes.length +
+                    "\nNumber of Speeds:    " + speeds.length + "\n");
         }
-        catch (IllegalArgumentException e)
-        {
-            e.printStackTrace();
+        if (initialWindCount != headings.length) {
+            throw new IllegalArgumentException("The number of Wind altitudes must equal the number of headings." +
+                    "\nNumber of Winds:    " + String.valueOf(initialWindCount) +
+                    "\nNumber of Headings: " + String.valueOf(headings.length) + "\n");
         }
 
+        this.winds.ensureCapacity(initialWindCount);
         for (int i = 0; i < initialWindCount; i++)
         {
             addWind(altitudes[i], speeds[i], headings[i]);
         }
     }
     private void init() {
-        windAltitude            = new Vector<>();
-        windSpeed               = new Vector<>();
-        windHeading             = new Vector<>();
-        interpolatedAltitude    = new Vector<>();
-        interpolatedSpeed       = new Vector<>();
-        interpolatedHeading     = new Vector<>();
-        currentSortMethod = SortMethod.NONE;
-
+        winds             = new WindProfile();
+        interpolatedWinds = new WindProfile();
+        snapshot          = null;
+        version             = 0;
+        interpolatedVersion = -1;
+        interpolatedSteps   = Double.NaN;
+        interpolationCount  = 0;
+        fitCount            = 0;
+        interpolator        = WindInterpolator.LINEAR;
+        componentX          = new double[0];
+        componentY          = new double[0];
     }
+
     /**
      * Add a windspeed at a certain altitude.
      * @param newAltitude The altitude of the wind.
      * @param newSpeed The velocity of the wind.
      * @param newHeading The heading of the wind.
+     * @return OK, REPLACED if a wind was already recorded at the altitude, or NOT_A_NUMBER if
+     * the wind was ignored because a value was NaN or infinite. The listener hears about
+     * anything but OK.
      */
-    public void addWind(double newAltitude, double newSpeed, double newHeading) {
-        // If a windspeed is already recorded at a particular altitude
-        if (windAltitude.contains(newAltitude)) {
-            // Remove the old value
-            int indexToRemove = windAltitude.indexOf(newAltitude);
-            new IllegalArgumentException("Windspeed already recorded at altitude " +
-                    String.valueOf(newAltitude) + ". Windspeed of " + String.valueOf(newSpeed) +
-                    " will be used.").printStackTrace();
-            windAltitude.remove(indexToRemove);
-            windSpeed.remove(   indexToRemove);
-            windHeading.remove( indexToRemove);
+    public synchronized ValidationStatus addWind(double newAltitude, double newSpeed, double newHeading) {
+        if (!Double.isFinite(newAltitude) || !Double.isFinite(newSpeed) || !Double.isFinite(newHeading)) {
+            return reject(newAltitude, newSpeed, newHeading);
+        }
+        // If a windspeed is already recorded at a particular altitude the old value is replaced
+        long start = WindsMetrics.start();
+        this.version++;
+        this.snapshot = null;
+        boolean replaced = winds.put(newAltitude, newSpeed, newHeading);
+        WindsMetrics.stop(WindsMetrics.Operation.INSERTION, start);
+        if (replaced) {
+            WindsListener current = this.listener;
+            if (current != null) {
+                current.windReplaced(newAltitude, newSpeed, newHeading, false);
+            }
+            return ValidationStatus.REPLACED;
         }
-        windAltitude.add(newAltitude);
-        windSpeed.add(newSpeed);
-        windHeading.add(newHeading);
-        currentSortMethod = SortMethod.NONE;
+        return ValidationStatus.OK;
     }
 
     /**
-     * Add a windspeed at a certain altitude.
+     * Add a wind to the interpolated winds returned by getInterpolatedWinds(). Snapshots are
+     * fitted to the measured winds and are not affected.
      * @param newAltitude The altitude of the wind.
      * @param newSpeed The velocity of the wind.
      * @param newHeading The heading of the wind.
+     * @return OK, REPLACED if a wind was already recorded at the altitude, or NOT_A_NUMBER if
+     * the wind was ignored because a value was NaN or infinite. The listener hears about
+     * anything but OK.
      */
-    public void addInterpolatedWind(double newAltitude, double newSpeed, double newHeading) {
-        // If a windspeed is already recorded at a particular altitude
-        if (interpolatedAltitude.contains(newAltitude)) {
-            // Remove the old value
-            int indexToRemove = interpolatedAltitude.indexOf(newAltitude);
-            new IllegalArgumentException("Interpolated windspeed already recorded at altitude " +
-                    String.valueOf(newAltitude) + ". Windspeed of " + String.valueOf(newSpeed) +
-                    " will be used.").printStackTrace();
-            interpolatedAltitude.remove(indexToRemove);
-            interpolatedSpeed.remove(   indexToRemove);
-            interpolatedHeading.remove( indexToRemove);
+    public synchronized ValidationStatus addInterpolatedWind(double newAltitude, double newSpeed, double newHeading) {
+        if (!Double.isFinite(newAltitude) || !Double.isFinite(newSpeed) || !Double.isFinite(newHeading)) {
+            return reject(newAltitude, newSpeed, newHeading);
+        }
+        // If a windspeed is already recorded at a particular altitude the old value is replaced
+        // The interpolated winds no longer match any one resolution
+        this.interpolatedSteps = Double.NaN;
+        if (interpolatedWinds.put(newAltitude, newSpeed, newHeading)) {
+            WindsListener current = this.listener;
+            if (current != null) {
+                current.windReplaced(newAltitude, newSpeed, newHeading, true);
+            }
+            return ValidationStatus.REPLACED;
+        }
+        return ValidationStatus.OK;
+    }
+
+    private ValidationStatus reject(double altitude, double speed, double heading) {
+        WindsListener current = this.listener;
+        if (current != null) {
+            current.windRejected(altitude, speed, heading);
         }
-        interpolatedAltitude.add(newAltitude);
-        interpolatedSpeed.add(newSpeed);
-        interpolatedHeading.add(newHeading);
+        return ValidationStatus.NOT_A_NUMBER;
     }
 
     /**
-     * @return The average x value of the wind headings.
+     * @return The listener that receives warnings, or null if there is none.
      */
-    private double averageX() {
-        double average = 0;
-        for (int i = 0; i < windAltitude.size(); i++) {
-            average += windSpeed.get(i) * Math.sin(Math.toRadians(windHeading.get(i)));
-        }
-        average /= windSpeed.size();
-        return average;
+    public WindsListener getListener() {
+        return listener;
     }
 
     /**
-     * @return The average y value of the wind headings.
+     * Register a listener for warnings such as replaced winds and altitude ranges the winds do
+     * not cover. No warnings are reported by default.
+     * @param listener The listener, or null to stop reporting warnings.
      */
-    private double averageY() {
-        double average = 0;
-        for (int i = 0; i < windAltitude.size(); i++) {
-            average += windSpeed.get(i) * Math.cos(Math.toRadians(windHeading.get(i)));
-        }
-        average /= windSpeed.size();
-        return average;
+    public void setListener(WindsListener listener) {
+        this.listener = listener;
     }
 
     /**
-     * @return The average interpolated X value of the wind headings.
-     * @throws IllegalStateException if an interpolate function has not been called yet,
-     * or if there are no interpolated winds.
-     * @throws IllegalArgumentException if lo <= hi
-     * @throws IllegalArgumentException if hi < the maximum recorded wind altitude
+     * Tell the listener, if there is one, that a calculation used an altitude range the winds do
+     * not fully cover.
      */
-    private double averageXInRange(double lo, double hi) {
-        if (this.interpolated == false) {
-            throw new IllegalStateException("Error: The altitude range needs to be interpolated " +
-                    "before averaging a limited range. Call an Interpolate function first.");
-        }
-        if (hi <= lo) {
-            throw new IllegalArgumentException("The low windspeed is greater or equal to the " +
-                    "high windspeed. Something's not right here.");
-        }
-        if (this.getMaxAltitude() < hi) {
-            throw new IllegalArgumentException("Error: No windspeed data available above " +
-                    String.valueOf(this.getMaxAltitude()) + " feet." +
-                    "Please jump lower or get windspeeds at higher altitudes. " +
-                    "Wind information was requested at " + String.valueOf(hi) + " feet.");
-        }
-        if (lo < 0) {
-            throw new IllegalArgumentException("Error: No windspeed data available below the ground" +
-                    String.valueOf(lo) + " is not an altitude to which you want to fall.");
+    void reportOutOfRange(ValidationStatus status, double lo, double hi) {
+        WindsListener current = this.listener;
+        if (current != null) {
+            current.altitudeOutOfRange(status, lo, hi);
         }
-        int loIndex = interpolatedAltitude.indexOf(lo);
-        int hiIndex = interpolatedAltitude.indexOf(hi);
-        double average = 0;
-        double heading = 0;
-        for (int i = loIndex; i < hiIndex; i++) {
-            heading = interpolatedHeading.get(i);
-            average += interpolatedSpeed.get(i) * Math.sin(Math.toRadians(heading));
-        }
-        average /= interpolatedSpeed.size();
-        return average;
     }
+
     /**
-     * @return The average interpolated Y value of the wind headings.
-     * @throws IllegalStateException if an interpolate function has not been called yet,
-     * or if there are no interpolated winds.
-     * @throws IllegalArgumentException if lo <= hi
-     * @throws IllegalArgumentException if hi < the maximum recorded wind altitude
+     * @return The version of the measured winds, which goes up every time addWind() is called.
      */
-    private double averageYInRange(double lo, double hi) {
-        if (this.interpolated == false) {
-            throw new IllegalStateException("Error: The altitude range needs to be interpolated " +
-                    "before averaging a limited range. Call an Interpolate function first.");
-        }
-        if (hi <= lo) {
-            throw new IllegalArgumentException("The low windspeed is greater or equal to the " +
-                    "high windspeed. Something's not right here.");
-        }
-        if (this.getMaxAltitude() < hi) {
-            throw new IllegalArgumentException("Error: No windspeed data available above " +
-                    String.valueOf(this.getMaxAltitude()) + " feet." +
-                    "Please jump lower or get windspeeds at higher altitudes. " +
-                    "Wind information was requested at " + String.valueOf(hi) + " feet.");
-        }
-        if (lo < 0) {
-            throw new IllegalArgumentException("Error: No windspeed data available below the ground" +
-                    String.valueOf(lo) + " is not an altitude to which you want to fall.");
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return The interpolator snapshots are fitted with.
+     */
+    public synchronized WindInterpolator getInterpolator() {
+        return interpolator;
+    }
+
+    /**
+     * Choose how snapshots interpolate between the measured winds. The default is
+     * WindInterpolator.LINEAR.
+     * @param interpolator The interpolator to fit snapshots with.
+     * @throws IllegalArgumentException if interpolator is null.
+     */
+    public synchronized void setInterpolator(WindInterpolator interpolator) {
+        if (interpolator == null) {
+            throw new IllegalArgumentException("The interpolator must not be null.");
         }
-        int loIndex = interpolatedAltitude.indexOf(lo);
-        int hiIndex = interpolatedAltitude.indexOf(hi);
-        double average = 0;
-        double heading = 0;
-        for (int i = loIndex; i < hiIndex; i++) {
-            heading = interpolatedHeading.get(i);
-            average += interpolatedSpeed.get(i) * Math.cos(Math.toRadians(heading));
+        if (interpolator != this.interpolator) {
+            this.interpolator = interpolator;
+            this.snapshot = null;
         }
-        average /= interpolatedSpeed.size();
-        return average;
     }
 
     /**
-     *
-     * @return The average heading of the wind in degrees
+     * @return True if the interpolated winds are up to date with the measured winds.
+     */
+    public synchronized boolean isInterpolated() {
+        return interpolatedVersion == version;
+    }
+
+    /**
+     * @return The number of times the interpolated winds have been rebuilt. Calls that find them
+     * up to date do not add to this count.
+     */
+    public synchronized long getInterpolationCount() {
+        return interpolationCount;
+    }
+
+    /**
+     * @return The number of times a curve has been fitted for a snapshot. Snapshots that are
+     * reused because nothing changed do not add to this count.
+     */
+    public synchronized long getFitCount() {
+        return fitCount;
+    }
+
+    /**
+     * @return The number of measured winds.
+     */
+    public synchronized int size() {
+        return winds.size();
+    }
+
+    /**
+     * @return A copy of the measured winds in ascending altitude order. Later changes to the
+     * winds do not show up in the copy.
+     */
+    public synchronized WindProfile getWinds() {
+        return new WindProfile(winds);
+    }
+
+    /**
+     * @return A copy of the interpolated winds in ascending altitude order. Later changes to the
+     * winds do not show up in the copy. Empty until an interpolate function has been called.
      */
-    public double getAverageHeading() {
-        return pointToHeadingInDegrees(this.averageY(),this.averageX());
+    public synchronized WindProfile getInterpolatedWinds() {
+        return new WindProfile(interpolatedWinds);
     }
 
     /**
-     * Convert an x,y pair into a heading in radians. Note that since we're using compass
-     * headings instead of the unit circle x and y are flipped.
-     * @param x
-     * @param y
-     * @return An angle in radians corresponding to the heading of point x,y.
+     * Convert the measured winds to x (east) and y (north) components in the scratch arrays.
      */
-    private double pointToHeadingInRadians(double x, double y) {
-        if (x == 0 && y == 0) {
-            return 0;
+    private void updateComponents() {
+        int n = winds.size();
+        if (componentX.length < n) {
+            componentX = new double[n + (n >> 1)];
+            componentY = new double[componentX.length];
         }
-        double heading = y/x;
+        winds.copyComponents(componentX, componentY);
+    }
 
-        heading = Math.atan(heading);
-        // If x is negative on the unit circle add Pi to the value
-        if (x < 0) {
-            heading += Math.PI;
+    /**
+     * @return The average x value of the wind headings. Call updateComponents() first.
+     */
+    private double averageX() {
+        double average = 0;
+        for (int i = 0; i < winds.size(); i++) {
+            average += componentX[i];
         }
-        // If x is positive but y is negative on the unit circle
-        else if (0 < x && y < 0)
-        {
-            // When x is positive but y is negative arctan returns values which are off by 2*Pi
-            heading += 2*Math.PI;
+        average /= winds.size();
+        return average;
+    }
+
+    /**
+     * @return The average y value of the wind headings. Call updateComponents() first.
+     */
+    private double averageY() {
+        double average = 0;
+        for (int i = 0; i < winds.size(); i++) {
+            average += componentY[i];
         }
-        return heading;
+        average /= winds.size();
+        return average;
     }
-    private double pointToHeadingInDegrees(double x, double y) {
-        return Math.toDegrees(this.pointToHeadingInRadians(x,y));
+
+    /**
+     *
+     * @return The average heading of the wind in degrees
+     */
+    public synchronized double getAverageHeading() {
+        updateComponents();
+        return WindComponents.headingInDegrees(this.averageX(), this.averageY());
     }
 
     /**
      *
      * @return The windspeed averaged over the different altitudes.
      */
-    public double getAverageWindSpeed() {
+    public synchronized double getAverageWindSpeed() {
+        updateComponents();
         double average = 0;
         average = Math.pow(averageX(),2) + Math.pow(averageY(),2);
         average = Math.sqrt(average);
@@ -279,69 +335,51 @@ public class Winds {
      * @param lo The low altitude in a range
      * @param hi The high altitude in a range
      * @return The average windspeed between those values
-     * @throws IllegalArgumentException if hi <= lo
+     * @throws IllegalArgumentException if hi <= lo, lo is below the ground, or hi is above the highest wind.
      */
     public double getAverageWindspeedInRange(double lo, double hi) {
         if (hi <= lo) {
             throw new IllegalArgumentException("The low windspeed is greater or equal to the " +
                     "high windspeed. Something's not right here.");
         }
-        this.interpolateWindspeedLinearly(this.getMaxAltitude() - this.getMinAltitude());
-        double average = 0;
-        average = Math.pow(averageXInRange(lo, hi), 2) + Math.pow(averageYInRange(lo, hi), 2);
-        average = Math.sqrt(average);
-        return average;
-    }
-    private void sortWindsByAltitudeAscending() {
-        if (currentSortMethod != SortMethod.ALTITUDE) {
-            quickSortByAltitudeAscending(0, windAltitude.size() - 1);
-            currentSortMethod = SortMethod.ALTITUDE;
+        WindSnapshot current = this.snapshot();
+        ValidationStatus status = current.validateRange(lo, hi);
+        if (status != ValidationStatus.OK) {
+            reportOutOfRange(status, lo, hi);
         }
+        return current.getAverageWindspeedInRange(lo, hi);
     }
-    private void quickSortByAltitudeAscending(int lowerIndex, int higherIndex) {
-
-        int i = lowerIndex;
-        int j = higherIndex;
-        // calculate pivot number, I am taking pivot as middle index number
-        double pivot = windAltitude.get(lowerIndex+(higherIndex-lowerIndex)/2);
-        // Divide into two arrays
-        while (i <= j) {
-            /**
-             * In each iteration, we will identify a number from left side which
-             * is greater then the pivot value, and also we will identify a number
-             * from right side which is less then the pivot value. Once the search
-             * is done, then we exchange both numbers.
-             */
-            while (windAltitude.get(i) < pivot) {
-                i++;
-            }
-            while (windAltitude.get(j) > pivot) {
-                j--;
-            }
-            if (i <= j) {
-                exchangeNumbers(i, j);
-                //move index to next position on both sides
-                i++;
-                j--;
+
+    /**
+     * Get an immutable snapshot of the winds. If the measured winds or the interpolator have
+     * changed since the last snapshot a new curve is fitted through the measured winds, otherwise
+     * the same snapshot is returned without taking a lock.
+     * @return A snapshot of the winds.
+     * @throws IllegalStateException if no winds have been added.
+     */
+    @Override
+    public WindSnapshot snapshot() {
+        WindSnapshot current = this.snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (this.snapshot == null) {
+                int n = winds.size();
+                if (n == 0) {
+                    throw new IllegalStateException("Error: No winds have been added. Call addWind() first.");
+                }
+                double[] altitudes = winds.copyAltitudes();
+                double[] x = new double[n];
+                double[] y = new double[n];
+                long start = WindsMetrics.start();
+                winds.copyComponents(x, y);
+                this.snapshot = new WindSnapshot(this.version, interpolator.fit(altitudes, x, y));
+                WindsMetrics.stop(WindsMetrics.Operation.CURVE_FIT, start);
+                this.fitCount++;
             }
+            return this.snapshot;
         }
-        // call quickSort() method recursively
-        if (lowerIndex < j)
-            quickSortByAltitudeAscending(lowerIndex, j);
-        if (i < higherIndex)
-            quickSortByAltitudeAscending(i, higherIndex);
-    }
-
-    private void exchangeNumbers(int i, int j) {
-        double tempAltitude = windAltitude.get(i);
-        double tempSpeed = windSpeed.get(i);
-        double tempHeading = windHeading.get(i);
-        windAltitude.set(i, windAltitude.get(j));
-        windAltitude.set(j, tempAltitude);
-        windSpeed.set(i, windSpeed.get(j));
-        windSpeed.set(j, tempSpeed);
-        windHeading.set(i, windHeading.get(j));
-        windHeading.set(j, tempHeading);
     }
 
     /**
@@ -352,78 +390,70 @@ public class Winds {
      *              of 2000ft you can estimate the windspeed at every foot in between by setting the
      *              step size to 3000-2000=1000. Otherwise if you want to estimate the windspeed at
      *              every other foot you would set the step size to be 500.
+     *              Nothing is rebuilt if the winds are already interpolated with the same number
+     *              of steps and addWind() has not been called since.
+     *              Snapshots do not use these winds, they fit a curve to the measured winds.
+     * @throws IllegalArgumentException if steps is not a positive, finite number.
      */
-    public void interpolateWindspeedLinearly(double steps) {
-        if (0 < this.interpolatedAltitude.size()) {
-            if (steps != this.interpolatedAltitude.size() ||
-                    getMinAltitude() != getMinInterpolatedAltitude() ||
-                    getMaxAltitude() != getMaxInterpolatedAltitude()) {
-                this.interpolatedAltitude.clear();
-                this.interpolatedHeading.clear();
-                this.interpolatedSpeed.clear();
-            }
+    public synchronized void interpolateWindspeedLinearly(double steps) {
+        if (!(0 < steps && steps < Double.POSITIVE_INFINITY)) {
+            throw new IllegalArgumentException("The number of interpolation steps must be positive and finite, not " +
+                    String.valueOf(steps) + ".");
         }
-        // Sort the winds
-        sortWindsByAltitudeAscending();
-
+        if (this.isInterpolated() && steps == this.interpolatedSteps) {
+            return;
+        }
+        long start = WindsMetrics.start();
         double feetPerStep = (getMaxAltitude() - getMinAltitude()) / steps;
+        // The grid is built in a new profile from x and y components, stored in the speed and
+        // heading columns, and converted to speeds and headings all at once at the end. It only
+        // replaces the interpolated winds once it is finished, so the old grid is never seen
+        // half rebuilt.
+        WindProfile grid = new WindProfile((int) Math.ceil(steps) + winds.size());
+        updateComponents();
         // For each pair of altitudes
-        for (int i = 0; i < windAltitude.size()-1; i++) {
-            // Get the number of steps between the altitude pair
-            double feetBetweenAltitudePair = windAltitude.get(i + 1) - windAltitude.get(i);
-            double stepAltitude = windAltitude.get(i);
-            double stepsBetweenPair = feetBetweenAltitudePair / feetPerStep;
+        for (int i = 0; i < winds.size()-1; i++) {
+            double lowAltitude = winds.getAltitude(i);
+            // Get the number of feet between the altitude pair
+            double feetBetweenAltitudePair = winds.getAltitude(i + 1) - lowAltitude;
             // Get the distance between the two velocity points
-            double lowX  = windSpeed.get(i) *   Math.cos(Math.toRadians(windHeading.get(i)));
-            double lowY  = windSpeed.get(i) *   Math.sin(Math.toRadians(windHeading.get(i)));
-            double highX = windSpeed.get(i+1) * Math.cos(Math.toRadians(windHeading.get(i+1)));
-            double highY = windSpeed.get(i+1) * Math.sin(Math.toRadians(windHeading.get(i+1)));
+            double lowX  = componentX[i];
+            double lowY  = componentY[i];
+            double highX = componentX[i+1];
+            double highY = componentY[i+1];
 
             // Add the lower of the altitude pair, one of the recorded windspeeds that
             // was set by the user.
-            addInterpolatedWind(windAltitude.get(i), windSpeed.get(i), windHeading.get(i));
-            // For each interpolated altitude
-            for (int j = 0; j < stepsBetweenPair; j++) {
+            // The altitudes are generated in ascending order, so each one is appended in O(1)
+            grid.append(lowAltitude, lowX, lowY);
+            // For each interpolated altitude strictly between the pair
+            for (int j = 1; j * feetPerStep < feetBetweenAltitudePair; j++) {
+                double fraction = (j * feetPerStep) / feetBetweenAltitudePair;
                 // Generate the interpolated x and y values.
-                double x = ((stepsBetweenPair - 1 - j)/stepsBetweenPair) * lowX + ((j+1)/stepsBetweenPair) * highX;
-                double y = ((stepsBetweenPair - 1 - j)/stepsBetweenPair) * lowY + ((j+1)/stepsBetweenPair) * highY;
-                // Set the new heading
-                double heading = pointToHeadingInDegrees(x,y);
-                // Set the new Speed
-                double speed = Math.sqrt(x*x +y*y);
-                // If there isn't already one recorded at that altitude
-                if (!windAltitude.contains(stepAltitude)) {
-                    // Add the interpolated wind value
-                    addInterpolatedWind(stepAltitude, speed, heading);
-                }
-                // Increment the altitude of the next step
-                stepAltitude += feetPerStep;
+                double x = (1 - fraction) * lowX + fraction * highX;
+                double y = (1 - fraction) * lowY + fraction * highY;
+                // Add the interpolated wind value
+                grid.append(lowAltitude + j * feetPerStep, x, y);
             }
         }
-        addInterpolatedWind(windAltitude.get(windAltitude.size()-1),
-                windSpeed.get(windAltitude.size()-1),
-                windHeading.get(windAltitude.size()-1));
-        if (interpolatedAltitude.size() != interpolatedSpeed.size() || interpolatedAltitude.size() != interpolatedHeading.size()) {
-            System.out.println("Warning! Unequal number of altitudes,speeds, and sizes.");
-        }
-        this.interpolated = true;
-    }
-    public double getMaxAltitude() {
-        if (currentSortMethod != SortMethod.ALTITUDE) {
-            this.sortWindsByAltitudeAscending();
-        }
-        return windAltitude.get(windAltitude.size()-1);
-    }
-    public double getMinAltitude() {
-        if (currentSortMethod != SortMethod.ALTITUDE) {
-            this.sortWindsByAltitudeAscending();
+        int last = winds.size()-1;
+        grid.append(winds.getAltitude(last), componentX[last], componentY[last]);
+        grid.convertComponentsToPolar();
+        // Keep the recorded winds exactly as they were set rather than converted there and back
+        for (int i = 0; i < winds.size(); i++) {
+            grid.put(winds.getAltitude(i), winds.getSpeed(i), winds.getHeading(i));
         }
-        return windAltitude.get(0);
+        this.interpolatedWinds = grid;
+        this.interpolatedVersion = this.version;
+        this.interpolatedSteps = steps;
+        this.interpolationCount++;
+        WindsMetrics.stop(WindsMetrics.Operation.GRID_INTERPOLATION, start);
+        WindsMetrics.recordGridSize(grid.size());
     }
-    private double getMaxInterpolatedAltitude() {
-        return interpolatedAltitude.get(interpolatedAltitude.size()-1);
+    public synchronized double getMaxAltitude() {
+        return winds.getMaxAltitude();
     }
-    private double getMinInterpolatedAltitude() {
-        return interpolatedAltitude.get(0);
+    public synchronized double getMinAltitude() {
+        return winds.getMinAltitude();
     }
 }
@@ -0,0 +1,352 @@
+package com.danielarnett;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reads winds into Winds objects in a single pass over the input. Two formats are supported:
+ *
+ * 1. Winds aloft forecast bulletins (FD/FB). A header line starting with "FT" lists the altitudes,
+ *    and each following line holds a station identifier and one DDSS[+TT] group per altitude,
+ *    aligned under the altitude it belongs to. DD is the direction the wind blows from in tens of
+ *    degrees and SS the speed in knots. Directions of 51 to 86 mean the speed is 100 knots more,
+ *    and 9900 means light and variable. Temperatures are ignored. Winds are converted to the
+ *    heading they blow towards and to miles per hour, the units used by Winds.
+ * 2. CSV with one altitude,speed,heading row per line, in the units used by Winds. Blank lines,
+ *    lines starting with # and a header row before the first data row are skipped.
+ *
+ * Input is parsed byte by byte from a reusable line buffer, so no strings are created per line.
+ * Altitudes in a bulletin are read in ascending order, so each wind is appended to the sorted
+ * profile in O(1). Files are read through a memory mapped buffer.
+ */
+public final class WindsAloftReader {
+    static final double KNOTS_TO_MPH = 1.150779;
+    private static final int READ_BUFFER_SIZE = 1 << 16;
+
+    private WindsAloftReader() {
+    }
+
+    /**
+     * Read a winds aloft bulletin.
+     * @param in The bulletin text.
+     * @return The winds of each station, keyed by station identifier, in the order they appear.
+     * @throws IOException if the stream cannot be read.
+     */
+    public static Map<String, Winds> readBulletin(InputStream in) throws IOException {
+        BulletinParser parser = new BulletinParser();
+        feed(in, parser);
+        return parser.stations;
+    }
+
+    /**
+     * Read a winds aloft bulletin from a file through a memory mapped buffer.
+     * @param file The bulletin file.
+     * @return The winds of each station, keyed by station identifier, in the order they appear.
+     * @throws IOException if the file cannot be read.
+     */
+    public static Map<String, Winds> readBulletin(Path file) throws IOException {
+        BulletinParser parser = new BulletinParser();
+        feed(file, parser);
+        return parser.stations;
+    }
+
+    /**
+     * Read altitude,speed,heading rows into a Winds object.
+     * @param in The CSV text.
+     * @param winds The winds to add to.
+     * @throws IOException if the stream cannot be read.
+     * @throws IllegalArgumentException if a row does not have three numbers.
+     */
+    public static void readCsv(InputStream in, Winds winds) throws IOException {
+        feed(in, new CsvParser(winds));
+    }
+
+    /**
+     * Read altitude,speed,heading rows from a file into a Winds object through a memory mapped buffer.
+     * @param file The CSV file.
+     * @param winds The winds to add to.
+     * @throws IOException if the file cannot be read.
+     * @throws IllegalArgumentException if a row does not have three numbers.
+     */
+    public static void readCsv(Path file, Winds winds) throws IOException {
+        feed(file, new CsvParser(winds));
+    }
+
+    private static void feed(InputStream in, LineParser parser) throws IOException {
+        byte[] buffer = new byte[READ_BUFFER_SIZE];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            for (int i = 0; i < read; i++) {
+                parser.accept(buffer[i]);
+            }
+        }
+        parser.finish();
+    }
+
+    private static void feed(Path file, LineParser parser) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                long length = Math.min(size - position, Integer.MAX_VALUE);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                feed(buffer, parser);
+                position += length;
+            }
+        }
+        parser.finish();
+    }
+
+    private static void feed(ByteBuffer buffer, LineParser parser) {
+        while (buffer.hasRemaining()) {
+            parser.accept(buffer.get());
+        }
+    }
+
+    /**
+     * Splits bytes into lines and hands each line to parseLine() from a reused buffer.
+     */
+    private abstract static class LineParser {
+        byte[] line = new byte[256];
+        int length;
+        int lineNumber;
+
+        void accept(byte b) {
+            if (b == '\n') {
+                endLine();
+            }
+            else if (b != '\r') {
+                if (length == line.length) {
+                    line = Arrays.copyOf(line, line.length * 2);
+                }
+                line[length++] = b;
+            }
+        }
+
+        void finish() {
+            if (0 < length) {
+                endLine();
+            }
+        }
+
+        private void endLine() {
+            lineNumber++;
+            parseLine();
+            length = 0;
+        }
+
+        abstract void parseLine();
+
+        int skipSpaces(int i) {
+            while (i < length && (line[i] == ' ' || line[i] == '\t')) {
+                i++;
+            }
+            return i;
+        }
+
+        int tokenEnd(int i) {
+            while (i < length && line[i] != ' ' && line[i] != '\t') {
+                i++;
+            }
+            return i;
+        }
+
+        boolean isDigit(int i) {
+            return '0' <= line[i] && line[i] <= '9';
+        }
+
+        int digits(int start, int count) {
+            int value = 0;
+            for (int i = start; i < start + count; i++) {
+                value = value * 10 + (line[i] - '0');
+            }
+            return value;
+        }
+    }
+
+    private static final class BulletinParser extends LineParser {
+        final Map<String, Winds> stations = new LinkedHashMap<>();
+        /**
+         * The altitudes from the last header line, and the column each altitude label ends at.
+         */
+        double[] altitudes = new double[0];
+        int[] columns = new int[0];
+
+        @Override
+        void parseLine() {
+            int start = skipSpaces(0);
+            if (length <= start) {
+                return;
+            }
+            int end = tokenEnd(start);
+            if (end - start == 2 && line[start] == 'F' && line[start + 1] == 'T') {
+                parseHeader(end);
+            }
+            else if (0 < altitudes.length) {
+                parseStation(start, end);
+            }
+        }
+
+        private void parseHeader(int i) {
+            int count = 0;
+            double[] newAltitudes = new double[16];
+            int[] newColumns = new int[16];
+            while ((i = skipSpaces(i)) < length) {
+                int end = tokenEnd(i);
+                if (count == newAltitudes.length) {
+                    newAltitudes = Arrays.copyOf(newAltitudes, count * 2);
+                    newColumns = Arrays.copyOf(newColumns, count * 2);
+                }
+                newAltitudes[count] = digits(i, end - i);
+                newColumns[count] = end;
+                count++;
+                i = end;
+            }
+            altitudes = Arrays.copyOf(newAltitudes, count);
+            columns = Arrays.copyOf(newColumns, count);
+        }
+
+        private void parseStation(int start, int end) {
+            Winds winds = null;
+            int i = end;
+            while ((i = skipSpaces(i)) < length) {
+                int tokenEnd = tokenEnd(i);
+                int level = nearestColumn(tokenEnd);
+                if (4 <= tokenEnd - i && isDigit(i) && isDigit(i + 1) && isDigit(i + 2) && isDigit(i + 3)) {
+                    if (winds == null) {
+                        String station = new String(line, start, end - start, StandardCharsets.US_ASCII);
+                        winds = stations.computeIfAbsent(station, k -> new Winds());
+                    }
+                    int direction = digits(i, 2);
+                    int knots = digits(i + 2, 2);
+                    if (direction == 99) {
+                        // Light and variable
+                        winds.addWind(altitudes[level], 0, 0);
+                    }
+                    else {
+                        if (50 < direction) {
+                            direction -= 50;
+                            knots += 100;
+                        }
+                        double heading = (direction * 10 + 180) % 360;
+                        winds.addWind(altitudes[level], knots * KNOTS_TO_MPH, heading);
+                    }
+                }
+                i = tokenEnd;
+            }
+        }
+
+        private int nearestColumn(int column) {
+            int nearest = 0;
+            for (int level = 1; level < columns.length; level++) {
+                if (Math.abs(columns[level] - column) < Math.abs(columns[nearest] - column)) {
+                    nearest = level;
+                }
+            }
+            return nearest;
+        }
+    }
+
+    private static final class CsvParser extends LineParser {
+        final Winds winds;
+        final double[] values = new double[3];
+        /**
+         * True once a line that is neither blank nor a comment has been read.
+         */
+        boolean started;
+
+        CsvParser(Winds winds) {
+            this.winds = winds;
+        }
+
+        @Override
+        void parseLine() {
+            int i = skipSpaces(0);
+            if (length <= i || line[i] == '#') {
+                return;
+            }
+            // The first line that is not blank or a comment is a header if it starts with a letter
+            boolean first = !started;
+            started = true;
+            if (first && Character.isLetter(line[i])) {
+                return;
+            }
+            for (int field = 0; field < 3; field++) {
+                int end = i;
+                while (end < length && line[end] != ',') {
+                    end++;
+                }
+                if (end == length && field < 2) {
+                    throw malformed();
+                }
+                values[field] = parseNumber(i, end);
+                i = end + 1;
+            }
+            winds.addWind(values[0], values[1], values[2]);
+        }
+
+        /**
+         * Parse a plain decimal number. Anything fancier falls back to Double.parseDouble().
+         */
+        private double parseNumber(int start, int end) {
+            start = skipSpaces(start);
+            while (start < end && (line[end - 1] == ' ' || line[end - 1] == '\t')) {
+                end--;
+            }
+            int i = start;
+            boolean negative = false;
+            if (i < end && (line[i] == '-' || line[i] == '+')) {
+                negative = line[i] == '-';
+                i++;
+            }
+            long mantissa = 0;
+            int scale = 0;
+            int digitCount = 0;
+            boolean fraction = false;
+            for (; i < end; i++) {
+                byte b = line[i];
+                if ('0' <= b && b <= '9' && digitCount < 18) {
+                    mantissa = mantissa * 10 + (b - '0');
+                    digitCount++;
+                    if (fraction) {
+                        scale++;
+                    }
+                }
+                else if (b == '.' && !fraction) {
+                    fraction = true;
+                }
+                else {
+                    return parseSlowly(start, end);
+                }
+            }
+            if (digitCount == 0) {
+                throw malformed();
+            }
+            double value = scale == 0 ? mantissa : mantissa / Math.pow(10, scale);
+            return negative ? -value : value;
+        }
+
+        private double parseSlowly(int start, int end) {
+            try {
+                return Double.parseDouble(new String(line, start, end - start, StandardCharsets.US_ASCII));
+            }
+            catch (NumberFormatException e) {
+                throw malformed();
+            }
+        }
+
+        private IllegalArgumentException malformed() {
+            return new IllegalArgumentException("Line " + lineNumber + " must have an altitude, speed, " +
+                    "and heading separated by commas.");
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.danielarnett;
+
+/**
+ * Receives warnings about the winds. Nothing is reported unless a listener is registered with
+ * Winds.setListener(), and the methods are only called when something worth reporting happens, so
+ * a registered listener costs nothing while the data is clean. Every method does nothing by
+ * default, so implementations only override what they care about.
+ *
+ * Listeners are called on the thread that caused the warning, sometimes while the Winds object
+ * is locked. They should return quickly and must not change the winds.
+ */
+public interface WindsListener {
+    /**
+     * A wind was recorded at an altitude that already had one, and replaced it.
+     * @param altitude The altitude of the wind.
+     * @param speed The new speed.
+     * @param heading The new heading in degrees.
+     * @param interpolated True if it was an interpolated wind.
+     */
+    default void windReplaced(double altitude, double speed, double heading, boolean interpolated) {
+    }
+
+    /**
+     * A wind was ignored because one of its values was NaN or infinite.
+     * @param altitude The altitude of the wind.
+     * @param speed The speed of the wind.
+     * @param heading The heading of the wind in degrees.
+     */
+    default void windRejected(double altitude, double speed, double heading) {
+    }
+
+    /**
+     * A calculation used winds over an altitude range that they do not fully cover.
+     * @param status Why the range is not covered.
+     * @param lo The low altitude of the range.
+     * @param hi The high altitude of the range.
+     */
+    default void altitudeOutOfRange(ValidationStatus status, double lo, double hi) {
+    }
+}
@@ -0,0 +1,169 @@
+package com.danielarnett;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts and times the hot paths of Winds, WindSnapshot and FreeFallCalculator: how many calls
+ * each operation gets, a LogHistogram of how long they take in nanoseconds, and a LogHistogram of
+ * how many winds the interpolated grids hold.
+ *
+ * Metrics are off until setEnabled(true) is called, and can be switched on and off at any time.
+ * While they are off each instrumented call costs one read of a volatile boolean. While they are
+ * on, two calls to System.nanoTime() and a few uncontended atomic adds. Publish them with
+ * report(), through any MetricsReporter, such as a JfrMetricsReporter.
+ *
+ * Instrumented code follows one pattern:
+ *
+ *     long start = WindsMetrics.start();
+ *     ...
+ *     WindsMetrics.stop(WindsMetrics.Operation.DRIFT, start);
+ *
+ * A call that throws is not recorded.
+ */
+public final class WindsMetrics {
+    /**
+     * The operations that are measured.
+     */
+    public enum Operation {
+        /** Fitting a WindCurve through the measured winds for a snapshot. */
+        CURVE_FIT,
+        /** Building the grid of interpolated winds. */
+        GRID_INTERPOLATION,
+        /** Adding a wind to Winds. */
+        INSERTION,
+        /**
+         * Inserting a wind below the highest one already in a profile, which shifts the winds
+         * above it. This is what replaced sorting the winds.
+         */
+        SHIFTED_INSERTION,
+        /** Averaging the winds over an altitude range. */
+        RANGE_AVERAGE,
+        /** Calculating the drift of one jump. */
+        DRIFT,
+        /**
+         * Calculating the drift of a block of a batch. The count is the number of scenarios and
+         * the latencies are per block.
+         */
+        BATCH_DRIFT
+    }
+
+    private static final long NOT_TIMED = Long.MIN_VALUE;
+    private static final Operation[] OPERATIONS = Operation.values();
+
+    private static volatile boolean enabled;
+    private static final LongAdder[] counts = new LongAdder[OPERATIONS.length];
+    private static final LogHistogram[] latencies = new LogHistogram[OPERATIONS.length];
+    private static final LogHistogram gridSizes = new LogHistogram();
+
+    static {
+        for (int i = 0; i < OPERATIONS.length; i++) {
+            counts[i] = new LongAdder();
+            latencies[i] = new LogHistogram();
+        }
+    }
+
+    private WindsMetrics() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Switch recording on or off. What has been recorded is kept either way.
+     * @param enabled True to record.
+     */
+    public static void setEnabled(boolean enabled) {
+        WindsMetrics.enabled = enabled;
+    }
+
+    /**
+     * @param operation An operation.
+     * @return The number of calls recorded.
+     */
+    public static long getCount(Operation operation) {
+        return counts[operation.ordinal()].sum();
+    }
+
+    /**
+     * @param operation An operation.
+     * @return The latencies recorded in nanoseconds. The histogram is live, not a copy.
+     */
+    public static LogHistogram getLatencies(Operation operation) {
+        return latencies[operation.ordinal()];
+    }
+
+    /**
+     * @return The number of winds in each interpolated grid built. The histogram is live, not a copy.
+     */
+    public static LogHistogram getGridSizes() {
+        return gridSizes;
+    }
+
+    /**
+     * Hand every operation that has been called, then the grid sizes, to a reporter.
+     * @param reporter Where to publish the metrics.
+     */
+    public static void report(MetricsReporter reporter) {
+        for (Operation operation : OPERATIONS) {
+            long count = getCount(operation);
+            if (0 < count) {
+                reporter.report(operation, count, getLatencies(operation));
+            }
+        }
+        if (0 < gridSizes.getCount()) {
+            reporter.reportGridSizes(gridSizes);
+        }
+    }
+
+    /**
+     * Forget everything recorded.
+     */
+    public static void reset() {
+        for (int i = 0; i < OPERATIONS.length; i++) {
+            counts[i].reset();
+            latencies[i].reset();
+        }
+        gridSizes.reset();
+    }
+
+    /**
+     * Start timing an operation.
+     * @return The time to pass to stop(), or a marker telling stop() to do nothing if metrics are off.
+     */
+    static long start() {
+        return enabled ? System.nanoTime() : NOT_TIMED;
+    }
+
+    /**
+     * Record one call of an operation that started at start.
+     */
+    static void stop(Operation operation, long start) {
+        if (start != NOT_TIMED) {
+            record(operation, 1, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Record one sample of an operation that handled count calls at once, such as a block of a batch.
+     */
+    static void stop(Operation operation, long start, int count) {
+        if (start != NOT_TIMED) {
+            record(operation, count, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Record the size of an interpolated grid.
+     */
+    static void recordGridSize(int size) {
+        if (enabled) {
+            gridSizes.record(size);
+        }
+    }
+
+    private static void record(Operation operation, int count, long nanos) {
+        counts[operation.ordinal()].add(count);
+        latencies[operation.ordinal()].record(nanos);
+    }
+}
@@ -0,0 +1,99 @@
+package com.danielarnett;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class CanopySimulatorTest {
+    /**
+     * How close to the target a canopy has to land, in feet.
+     */
+    private static final double ACCURACY = 30;
+
+    private static WindSnapshot winds(double groundSpeed, double groundHeading, double upperSpeed, double upperHeading) {
+        Winds winds = new Winds();
+        winds.addWind(0, groundSpeed, groundHeading);
+        winds.addWind(1500, (groundSpeed + upperSpeed) / 2, groundHeading);
+        winds.addWind(5000, upperSpeed, upperHeading);
+        return winds.snapshot();
+    }
+
+    @Test
+    void landsOnTheTargetInCalmAir() {
+        CanopySimulator simulator = new CanopySimulator(winds(0, 0, 0, 0), Canopy.STUDENT, 230);
+        CanopyLanding landing = simulator.fly(800, -600, 3500);
+        assertTrue(landing.getDistanceFromTarget() < ACCURACY, landing.toString());
+    }
+
+    @Test
+    void landsOnTheTargetInShearedWinds() {
+        WindSnapshot winds = winds(8, 45, 20, 120);
+        double[][] starts = { { 0, 0 }, { 1500, 500 }, { -1200, -900 }, { 300, 2000 } };
+        for (Canopy canopy : new Canopy[] { Canopy.STUDENT, Canopy.SPORT }) {
+            CanopySimulator simulator = new CanopySimulator(winds, canopy, 210);
+            for (double[] start : starts) {
+                CanopyLanding landing = simulator.fly(start[0], start[1], 3000);
+                assertTrue(landing.getDistanceFromTarget() < ACCURACY,
+                        canopy + " from " + start[0] + ", " + start[1] + " landed at " + landing);
+            }
+        }
+    }
+
+    @Test
+    void landsOnTheTargetOnARightHandPatternWithAFixedHeading() {
+        CanopySimulator simulator = new CanopySimulator(winds(5, 270, 15, 300), Canopy.SPORT, 190);
+        simulator.setRightHandPattern(true);
+        simulator.setLandingHeadingInDegrees(90);
+        CanopyLanding landing = simulator.fly(-500, 700, 2500);
+        assertTrue(landing.getDistanceFromTarget() < ACCURACY, landing.toString());
+    }
+
+    @Test
+    void fliesThePatternLegsInOrder() {
+        CanopySimulator simulator = new CanopySimulator(winds(8, 45, 20, 120), Canopy.STUDENT, 230);
+        CanopyTrajectory trajectory = new CanopyTrajectory(10000);
+        CanopyLanding landing = simulator.fly(1000, 1000, 3000, trajectory);
+        assertFalse(trajectory.isTruncated());
+        int last = trajectory.size() - 1;
+        assertEquals(CanopyTrajectory.FINAL, trajectory.getLeg(last));
+        assertEquals(landing.getX(), trajectory.getX(last), 1e-9);
+        assertEquals(landing.getFlightTimeInSeconds(), trajectory.getTime(last), 1e-9);
+        for (int i = 1; i <= last; i++) {
+            assertTrue(trajectory.getAltitude(i) < trajectory.getAltitude(i - 1));
+            assertTrue(trajectory.getLeg(i - 1) <= trajectory.getLeg(i));
+            if (trajectory.getLeg(i) == CanopyTrajectory.BASE) {
+                assertTrue(trajectory.getAltitude(i) <= simulator.getBaseAltitude());
+            }
+        }
+    }
+
+    @Test
+    void flyAllMatchesFlyingOneAtATime() {
+        CanopySimulator simulator = new CanopySimulator(winds(8, 45, 20, 120), Canopy.SPORT, 200);
+        double[] startX = { 0, 900, -400 };
+        double[] startY = { 0, -300, 1200 };
+        double[] deployments = { 3000, 3500, 2500 };
+        double[] landingX = new double[3];
+        double[] landingY = new double[3];
+        double[] flightTimes = new double[3];
+        simulator.flyAll(startX, startY, deployments, landingX, landingY, flightTimes);
+        for (int i = 0; i < 3; i++) {
+            CanopyLanding landing = simulator.fly(startX[i], startY[i], deployments[i]);
+            assertEquals(landing.getX(), landingX[i], 0);
+            assertEquals(landing.getY(), landingY[i], 0);
+            assertEquals(landing.getFlightTimeInSeconds(), flightTimes[i], 0);
+        }
+    }
+
+    @Test
+    void rejectsBadConfigurations() {
+        WindSnapshot winds = winds(0, 0, 0, 0);
+        assertThrows(IllegalArgumentException.class, () -> new CanopySimulator(winds, Canopy.STUDENT, 0));
+        CanopySimulator simulator = new CanopySimulator(winds, Canopy.STUDENT, 230);
+        assertThrows(IllegalArgumentException.class, () -> simulator.setPatternAltitudes(600, 1000, 300));
+        assertThrows(IllegalArgumentException.class, () -> simulator.fly(0, 0, 6000));
+    }
+}
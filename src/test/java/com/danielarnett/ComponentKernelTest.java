@@ -0,0 +1,132 @@
+package com.danielarnett;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import jdk.incubator.vector.DoubleVector;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that the Vector API kernel and the scalar fallback agree, including tails shorter than
+ * the lane count and conversions that start part way into the arrays.
+ */
+class ComponentKernelTest {
+    private static final double TOLERANCE = 1e-12;
+    private static final int LANES = DoubleVector.SPECIES_PREFERRED.length();
+
+    private final ComponentKernel vector = new VectorComponentKernel();
+    private final ComponentKernel scalar = new ScalarComponentKernel();
+
+    private static double[] random(SplittableRandom random, int length, double bound) {
+        double[] values = new double[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = random.nextDouble(-bound, bound);
+        }
+        return values;
+    }
+
+    /**
+     * Headings either side of north are equally good answers, so compare them around the compass.
+     */
+    private static void assertSameHeading(double expected, double actual, String message) {
+        double difference = Math.abs(expected - actual);
+        assertTrue(Math.min(difference, 360 - difference) <= TOLERANCE, message + ": " + expected + " vs " + actual);
+    }
+
+    @Test
+    void usesTheVectorKernelWhenTheModuleIsPresent() {
+        assertTrue(WindComponents.isVectorized());
+    }
+
+    @Test
+    void toComponentsMatchesTheScalarKernel() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int length = 0; length <= 2 * LANES + 3; length++) {
+            for (int from = 0; from <= Math.min(length, 3); from++) {
+                double[] speeds = random(random, length, 60);
+                double[] headings = random(random, length, 720);
+                double[] vectorX = new double[length];
+                double[] vectorY = new double[length];
+                double[] scalarX = new double[length];
+                double[] scalarY = new double[length];
+                Arrays.fill(vectorX, -1);
+                Arrays.fill(scalarX, -1);
+                vector.toComponents(speeds, headings, vectorX, vectorY, from, length);
+                scalar.toComponents(speeds, headings, scalarX, scalarY, from, length);
+                for (int i = 0; i < length; i++) {
+                    String message = "length " + length + " from " + from + " index " + i;
+                    assertEquals(scalarX[i], vectorX[i], TOLERANCE, message);
+                    assertEquals(scalarY[i], vectorY[i], TOLERANCE, message);
+                }
+                for (int i = 0; i < from; i++) {
+                    assertEquals(-1, vectorX[i]);
+                }
+            }
+        }
+    }
+
+    @Test
+    void toPolarMatchesTheScalarKernel() {
+        SplittableRandom random = new SplittableRandom(7);
+        for (int length = 0; length <= 2 * LANES + 3; length++) {
+            for (int from = 0; from <= Math.min(length, 3); from++) {
+                double[] x = random(random, length, 60);
+                double[] y = random(random, length, 60);
+                if (0 < length) {
+                    // Calm air has no heading, both kernels must call it north
+                    x[length - 1] = 0;
+                    y[length - 1] = 0;
+                }
+                double[] vectorSpeeds = new double[length];
+                double[] vectorHeadings = new double[length];
+                double[] scalarSpeeds = new double[length];
+                double[] scalarHeadings = new double[length];
+                vector.toPolar(x, y, vectorSpeeds, vectorHeadings, from, length);
+                scalar.toPolar(x, y, scalarSpeeds, scalarHeadings, from, length);
+                for (int i = from; i < length; i++) {
+                    String message = "length " + length + " from " + from + " index " + i;
+                    assertEquals(scalarSpeeds[i], vectorSpeeds[i], TOLERANCE, message);
+                    assertSameHeading(scalarHeadings[i], vectorHeadings[i], message);
+                    assertTrue(0 <= vectorHeadings[i] && vectorHeadings[i] < 360, message);
+                }
+            }
+        }
+    }
+
+    @Test
+    void toPolarCanConvertInPlace() {
+        SplittableRandom random = new SplittableRandom(3);
+        int length = 2 * LANES + 3;
+        double[] x = random(random, length, 60);
+        double[] y = random(random, length, 60);
+        double[] speeds = new double[length];
+        double[] headings = new double[length];
+        scalar.toPolar(x, y, speeds, headings, 1, length);
+        vector.toPolar(x, y, x, y, 1, length);
+        for (int i = 1; i < length; i++) {
+            assertEquals(speeds[i], x[i], TOLERANCE);
+            assertSameHeading(headings[i], y[i], "index " + i);
+        }
+    }
+
+    @Test
+    void componentsRoundTripThroughPolar() {
+        SplittableRandom random = new SplittableRandom(11);
+        int length = 2 * LANES + 3;
+        double[] x = random(random, length, 60);
+        double[] y = random(random, length, 60);
+        double[] speeds = new double[length];
+        double[] headings = new double[length];
+        double[] backX = new double[length];
+        double[] backY = new double[length];
+        WindComponents.toPolar(x, y, speeds, headings, 0, length);
+        WindComponents.toComponents(speeds, headings, backX, backY, 0, length);
+        for (int i = 0; i < length; i++) {
+            assertEquals(x[i], backX[i], 1e-9);
+            assertEquals(y[i], backY[i], 1e-9);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.danielarnett;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+
+class DriftCacheTest {
+    private static Winds winds() {
+        Winds winds = new Winds();
+        winds.addWind(12000, 25,   0);
+        winds.addWind( 9000, 25,  90);
+        winds.addWind( 6000, 25, 180);
+        winds.addWind( 3000, 25, 270);
+        return winds;
+    }
+
+    @Test
+    void hitsForTheSameSnapshotAndAltitudes() {
+        DriftCache cache = new DriftCache(16);
+        WindSnapshot snapshot = winds().snapshot();
+        Drift first = cache.getDrift(snapshot, JumperProfile.BELLY, 12000, 3500);
+        Drift second = cache.getDrift(snapshot, JumperProfile.BELLY, 12000, 3500);
+        assertSame(first, second);
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    void missesForAnotherVersionOfTheWinds() {
+        DriftCache cache = new DriftCache(16);
+        Winds winds = winds();
+        cache.getDrift(winds.snapshot(), JumperProfile.BELLY, 12000, 3500);
+        winds.addWind(7500, 30, 45);
+        cache.getDrift(winds.snapshot(), JumperProfile.BELLY, 12000, 3500);
+        cache.getDrift(winds.snapshot(), JumperProfile.FREEFLY, 12000, 3500);
+        assertEquals(0, cache.getHitCount());
+        assertEquals(3, cache.getMissCount());
+    }
+
+    @Test
+    void calculatesAtTheRoundedAltitudes() {
+        DriftCache cache = new DriftCache(16, 100);
+        WindSnapshot snapshot = winds().snapshot();
+        FreefallTable table = JumperProfile.BELLY.getFreefallTable();
+        Drift rounded = FreeFallCalculator.calculateDrift(snapshot, table, 10000, 3500);
+        // Whichever altitude misses first, every altitude with the same key gets the rounded drift
+        Drift drift = cache.getDrift(snapshot, JumperProfile.BELLY, 10030, 3460);
+        assertEquals(rounded.getX(), drift.getX(), 1e-9);
+        assertEquals(rounded.getY(), drift.getY(), 1e-9);
+        assertSame(drift, cache.getDrift(snapshot, JumperProfile.BELLY, 9970, 3540));
+    }
+
+    @Test
+    void neverRoundsAnExitAboveTheHighestWind() {
+        DriftCache cache = new DriftCache(16, 1000);
+        WindSnapshot snapshot = winds().snapshot();
+        Drift drift = cache.getDrift(snapshot, JumperProfile.BELLY, 11900, 4000);
+        Drift capped = FreeFallCalculator.calculateDrift(snapshot, JumperProfile.BELLY.getFreefallTable(), 12000, 4000);
+        assertEquals(capped.getX(), drift.getX(), 1e-9);
+    }
+
+    @Test
+    void calculatesFallsShorterThanTheQuantumExactly() {
+        DriftCache cache = new DriftCache(16, 1000);
+        WindSnapshot snapshot = winds().snapshot();
+        Drift drift = cache.getDrift(snapshot, JumperProfile.BELLY, 5200, 4900);
+        Drift exact = FreeFallCalculator.calculateDrift(snapshot, JumperProfile.BELLY.getFreefallTable(), 5200, 4900);
+        assertEquals(exact.getX(), drift.getX(), 1e-9);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsed() {
+        DriftCache cache = new DriftCache(2);
+        WindSnapshot snapshot = winds().snapshot();
+        Drift kept = cache.getDrift(snapshot, JumperProfile.BELLY, 12000, 3000);
+        cache.getDrift(snapshot, JumperProfile.BELLY, 11000, 3000);
+        cache.getDrift(snapshot, JumperProfile.BELLY, 12000, 3000);
+        cache.getDrift(snapshot, JumperProfile.BELLY, 10000, 3000);
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertSame(kept, cache.getDrift(snapshot, JumperProfile.BELLY, 12000, 3000));
+    }
+
+    @Test
+    void hitsThroughACalculatorOnAWindField() {
+        Instant noon = Instant.parse("2026-10-17T12:00:00Z");
+        WindSnapshot calm = new Winds(new double[] { 3000, 12000 }, new double[] { 5, 5 }, new double[] { 0, 0 }).snapshot();
+        WindField field = new WindField(new Instant[] { noon, noon.plusSeconds(3600) },
+                new WindSnapshot[] { calm, winds().snapshot() });
+        DriftCache cache = new DriftCache(16);
+        FreeFallCalculator calculator = new FreeFallCalculator(12000, 3500, field);
+        calculator.setDriftCache(cache);
+        calculator.setJumpTime(noon.plusSeconds(1800));
+        Drift first = calculator.getDrift();
+        assertSame(first, calculator.getDrift());
+        assertEquals(1, cache.getHitCount());
+        calculator.setJumpTime(noon.plusSeconds(2700));
+        assertNotSame(first, calculator.getDrift());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    void rejectsBadSizes() {
+        assertThrows(IllegalArgumentException.class, () -> new DriftCache(0));
+        assertThrows(IllegalArgumentException.class, () -> new DriftCache(16, 0));
+    }
+}
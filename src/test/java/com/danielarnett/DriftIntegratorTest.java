@@ -0,0 +1,64 @@
+package com.danielarnett;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class DriftIntegratorTest {
+    private static WindSnapshot uniform(double speed, double heading) {
+        Winds winds = new Winds();
+        winds.addWind(0, speed, heading);
+        winds.addWind(6000, speed, heading);
+        winds.addWind(15000, speed, heading);
+        return winds.snapshot();
+    }
+
+    @Test
+    void driftInAUniformWindIsTheWindTimesTheFreefallTime() {
+        for (JumperProfile profile : new JumperProfile[] { JumperProfile.BELLY, JumperProfile.FREEFLY }) {
+            FreefallTable table = profile.getFreefallTable();
+            double[] displacement = new double[2];
+            double seconds = DriftIntegrator.integrate(uniform(20, 60), table, 13500, 3000, displacement);
+            assertEquals(table.getFreefallTimeInSeconds(13500, 3000), seconds, 1e-9);
+            double feet = 20 * FreeFallCalculator.MPH_TO_FPS * seconds;
+            assertEquals(feet * Math.sin(Math.toRadians(60)), displacement[0], 1e-6 * feet);
+            assertEquals(feet * Math.cos(Math.toRadians(60)), displacement[1], 1e-6 * feet);
+        }
+    }
+
+    @Test
+    void noWindMeansNoDrift() {
+        double[] displacement = new double[2];
+        DriftIntegrator.integrate(uniform(0, 0), JumperProfile.BELLY.getFreefallTable(), 12000, 3500, displacement);
+        assertEquals(0, displacement[0], 1e-12);
+        assertEquals(0, displacement[1], 1e-12);
+    }
+
+    @Test
+    void windsAreWeightedByTheTimeSpentInThem() {
+        // 10 mph east in the top half of the fall and 10 mph west in the bottom half. The jumper
+        // spends longer in the top half while accelerating, so ends up east of the exit.
+        Winds winds = new Winds();
+        winds.addWind(3000, 10, 270);
+        winds.addWind(7499, 10, 270);
+        winds.addWind(7501, 10, 90);
+        winds.addWind(12000, 10, 90);
+        FreefallTable table = JumperProfile.BELLY.getFreefallTable();
+        double[] displacement = new double[2];
+        DriftIntegrator.integrate(winds.snapshot(), table, 12000, 3000, displacement);
+        double top = table.getFreefallTimeInSeconds(12000, 7500);
+        double bottom = table.getFreefallTimeInSeconds(12000, 3000) - top;
+        double expected = 10 * FreeFallCalculator.MPH_TO_FPS * (top - bottom);
+        assertEquals(expected, displacement[0], 0.01 * Math.abs(expected));
+        assertEquals(0, displacement[1], 1e-9);
+    }
+
+    @Test
+    void endsThatAreNotOnASliceBoundaryAreIntegratedExactly() {
+        FreefallTable table = JumperProfile.BELLY.getFreefallTable();
+        double[] displacement = new double[2];
+        double seconds = DriftIntegrator.integrate(uniform(15, 0), table, 12013, 3007, displacement);
+        assertEquals(table.getFreefallTimeInSeconds(12013, 3007), seconds, 1e-9);
+        assertEquals(15 * FreeFallCalculator.MPH_TO_FPS * seconds, displacement[1], 1e-6);
+    }
+}
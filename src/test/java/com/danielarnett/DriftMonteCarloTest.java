@@ -0,0 +1,102 @@
+package com.danielarnett;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+class DriftMonteCarloTest {
+    /** Enough samples to split the sweep into several tasks. */
+    private static final int SAMPLES = 5 * DispersionSweep.SAMPLES_PER_TASK + 123;
+
+    private static WindSnapshot winds() {
+        return new Winds(new double[] { 0, 3000, 6000, 9000, 12000, 15000 },
+                new double[] { 8, 15, 25, 30, 40, 45 },
+                new double[] { 180, 200, 230, 250, 270, 280 }).snapshot();
+    }
+
+    private static DriftDispersion run(ForkJoinPool pool, long seed) {
+        DriftMonteCarlo monteCarlo = new DriftMonteCarlo(SAMPLES);
+        monteCarlo.setPool(pool);
+        return monteCarlo.run(winds(), JumperProfile.BELLY, 13500, 3000, seed);
+    }
+
+    @Test
+    void theSameSeedGivesTheSameDispersionOnAnyNumberOfThreads() {
+        ForkJoinPool sequential = new ForkJoinPool(1);
+        ForkJoinPool parallel = new ForkJoinPool(4);
+        try {
+            DriftDispersion expected = run(sequential, 42);
+            DriftDispersion actual = run(parallel, 42);
+            assertEquals(expected.getMeanX(), actual.getMeanX(), 0);
+            assertEquals(expected.getMeanY(), actual.getMeanY(), 0);
+            assertEquals(expected.getCovarianceXX(), actual.getCovarianceXX(), 0);
+            assertEquals(expected.getCovarianceXY(), actual.getCovarianceXY(), 0);
+            assertEquals(expected.getCovarianceYY(), actual.getCovarianceYY(), 0);
+            for (int p = 0; p <= 100; p++) {
+                assertEquals(expected.getDistancePercentile(p), actual.getDistancePercentile(p), 0);
+            }
+            assertNotEquals(expected.getMeanX(), run(parallel, 43).getMeanX());
+        }
+        finally {
+            sequential.shutdown();
+            parallel.shutdown();
+        }
+    }
+
+    @Test
+    void percentilesAreOrdered() {
+        DriftDispersion dispersion = new DriftMonteCarlo(SAMPLES).run(winds(), JumperProfile.BELLY, 13500, 3000, 7);
+        for (double p = 0.5; p <= 100; p += 0.5) {
+            assertTrue(dispersion.getDistancePercentile(p - 0.5) <= dispersion.getDistancePercentile(p), "percentile " + p);
+        }
+        assertTrue(dispersion.getDistancePercentile(0) < dispersion.getDistancePercentile(100));
+        assertTrue(dispersion.getSemiMinorAxis(0.95) <= dispersion.getSemiMajorAxis(0.95));
+        assertTrue(dispersion.getSemiMajorAxis(0.5) < dispersion.getSemiMajorAxis(0.95));
+        assertThrows(IllegalArgumentException.class, () -> dispersion.getDistancePercentile(101));
+    }
+
+    @Test
+    void withoutUncertaintyEverySampleIsTheForecastDrift() {
+        DriftMonteCarlo monteCarlo = new DriftMonteCarlo(1000);
+        monteCarlo.setWindSpeedUncertainty(0);
+        monteCarlo.setWindHeadingUncertaintyInDegrees(0);
+        monteCarlo.setFallRateUncertainty(0);
+        DriftDispersion dispersion = monteCarlo.run(winds(), JumperProfile.TRACKING, 13500, 3000, 1);
+        Drift drift = FreeFallCalculator.calculateDrift(winds(), JumperProfile.TRACKING.getFreefallTable(), 13500, 3000);
+        assertEquals(drift.getX(), dispersion.getMeanX(), 1e-9);
+        assertEquals(drift.getY(), dispersion.getMeanY(), 1e-9);
+        assertEquals(0, dispersion.getCovarianceXX(), 1e-9);
+        assertEquals(0, dispersion.getCovarianceYY(), 1e-9);
+        double distance = Math.hypot(drift.getX(), drift.getY());
+        assertEquals(distance, dispersion.getDistancePercentile(0), 1e-9);
+        assertEquals(distance, dispersion.getDistancePercentile(100), 1e-9);
+    }
+
+    @Test
+    void theMeanStaysNearTheForecastDrift() {
+        DriftMonteCarlo monteCarlo = new DriftMonteCarlo(SAMPLES);
+        monteCarlo.setWindHeadingUncertaintyInDegrees(0);
+        monteCarlo.setFallRateUncertainty(0);
+        DriftDispersion dispersion = monteCarlo.run(winds(), JumperProfile.BELLY, 13500, 3000, 3);
+        Drift drift = FreeFallCalculator.calculateDrift(winds(), JumperProfile.BELLY.getFreefallTable(), 13500, 3000);
+        // Only the windspeed is perturbed, by a normal scale with a mean of 1
+        assertEquals(drift.getX(), dispersion.getMeanX(), 0.01 * Math.abs(drift.getX()));
+        assertEquals(drift.getY(), dispersion.getMeanY(), 0.01 * Math.abs(drift.getY()));
+    }
+
+    @Test
+    void rejectsBadSettings() {
+        DriftMonteCarlo monteCarlo = new DriftMonteCarlo(10);
+        assertThrows(IllegalArgumentException.class, () -> new DriftMonteCarlo(0));
+        assertThrows(IllegalArgumentException.class, () -> monteCarlo.setWindSpeedUncertainty(-0.1));
+        assertThrows(IllegalArgumentException.class, () -> monteCarlo.setWindHeadingUncertaintyInDegrees(Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> monteCarlo.setFallRateUncertainty(0.5));
+        assertThrows(IllegalArgumentException.class,
+                () -> monteCarlo.run(winds(), JumperProfile.BELLY, 20000, 3000, 1));
+    }
+}
@@ -0,0 +1,244 @@
+package com.danielarnett;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class DriftPipelineTest {
+    private static final Executor DIRECT = Runnable::run;
+
+    private static final DriftScenario HIGH = new DriftScenario("High", 14000, 10000, JumperProfile.BELLY);
+    private static final DriftScenario LOW = new DriftScenario("Low", 5000, 2500, JumperProfile.BELLY);
+
+    /**
+     * Runs the drains only when the test asks, so everything that arrives before is coalesced.
+     */
+    private static final class ManualExecutor implements Executor {
+        final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable task) {
+            tasks.add(task);
+        }
+
+        void runAll() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+        }
+    }
+
+    /**
+     * Stands in for upstream and remembers how many observations were requested.
+     */
+    private static final class CountingSubscription implements Flow.Subscription {
+        final AtomicLong requested = new AtomicLong();
+        volatile boolean cancelled;
+
+        @Override
+        public void request(long n) {
+            requested.addAndGet(n);
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+
+    private static final class CollectingSubscriber implements Flow.Subscriber<DriftUpdate> {
+        final List<DriftUpdate> updates = new CopyOnWriteArrayList<>();
+        final CountDownLatch completed = new CountDownLatch(1);
+        final long delayMillis;
+
+        CollectingSubscriber(long delayMillis) {
+            this.delayMillis = delayMillis;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(DriftUpdate update) {
+            if (0 < delayMillis) {
+                try {
+                    Thread.sleep(delayMillis);
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            updates.add(update);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            completed.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed.countDown();
+        }
+
+        long countFor(DriftScenario scenario) {
+            return updates.stream().filter(u -> u.getScenario() == scenario).count();
+        }
+    }
+
+    private static Winds winds() {
+        Winds winds = new Winds();
+        for (int altitude = 1000; altitude <= 15000; altitude += 1000) {
+            winds.addWind(altitude, 10 + altitude / 1000, altitude / 50 % 360);
+        }
+        return winds;
+    }
+
+    @Test
+    void publishesTheFirstDriftOfEveryScenario() {
+        ManualExecutor drains = new ManualExecutor();
+        DriftPipeline pipeline = new DriftPipeline(winds(), drains, DIRECT, 64, 64);
+        CollectingSubscriber subscriber = new CollectingSubscriber(0);
+        pipeline.subscribe(subscriber);
+        pipeline.addScenario(HIGH);
+        pipeline.addScenario(LOW);
+        drains.runAll();
+        assertEquals(1, subscriber.countFor(HIGH));
+        assertEquals(1, subscriber.countFor(LOW));
+        assertNotNull(pipeline.getLatest(HIGH).getDrift());
+        assertEquals(ValidationStatus.OK, pipeline.getLatest(HIGH).getStatus());
+    }
+
+    @Test
+    void coalescesABurstIntoOneFitAndOneUpdatePerScenario() {
+        Winds winds = winds();
+        ManualExecutor drains = new ManualExecutor();
+        DriftPipeline pipeline = new DriftPipeline(winds, drains, DIRECT, 64, 64);
+        CountingSubscription upstream = new CountingSubscription();
+        pipeline.onSubscribe(upstream);
+        CollectingSubscriber subscriber = new CollectingSubscriber(0);
+        pipeline.subscribe(subscriber);
+        pipeline.addScenario(HIGH);
+        pipeline.addScenario(LOW);
+        drains.runAll();
+        long fits = winds.getFitCount();
+
+        for (int i = 0; i < 50; i++) {
+            pipeline.onNext(new WindObservation(1500 + i * 250, 20 + i % 7, i * 7));
+        }
+        drains.runAll();
+        assertEquals(fits + 1, winds.getFitCount());
+        assertEquals(2, subscriber.countFor(HIGH));
+        assertEquals(2, subscriber.countFor(LOW));
+        // Everything handled is requested again
+        assertEquals(64 + 50, upstream.requested.get());
+    }
+
+    @Test
+    void onlyRecomputesTheScenariosAChangeReaches() {
+        ManualExecutor drains = new ManualExecutor();
+        DriftPipeline pipeline = new DriftPipeline(winds(), drains, DIRECT, 64, 64);
+        pipeline.onSubscribe(new CountingSubscription());
+        CollectingSubscriber subscriber = new CollectingSubscriber(0);
+        pipeline.subscribe(subscriber);
+        pipeline.addScenario(HIGH);
+        pipeline.addScenario(LOW);
+        drains.runAll();
+        long recomputations = pipeline.getRecomputationCount();
+
+        // The linear curve only changes between 2000 and 4000 ft
+        pipeline.onNext(new WindObservation(3000, 40, 200));
+        drains.runAll();
+        assertEquals(recomputations + 1, pipeline.getRecomputationCount());
+        assertEquals(1, subscriber.countFor(HIGH));
+        assertEquals(2, subscriber.countFor(LOW));
+    }
+
+    @Test
+    void doesNotPublishADriftThatDidNotChange() {
+        Winds winds = winds();
+        ManualExecutor drains = new ManualExecutor();
+        DriftPipeline pipeline = new DriftPipeline(winds, drains, DIRECT, 64, 64);
+        pipeline.onSubscribe(new CountingSubscription());
+        CollectingSubscriber subscriber = new CollectingSubscriber(0);
+        pipeline.subscribe(subscriber);
+        pipeline.addScenario(LOW);
+        drains.runAll();
+
+        WindProfile profile = winds.getWinds();
+        int i = profile.indexOf(3000);
+        pipeline.onNext(new WindObservation(3000, profile.getSpeed(i), profile.getHeading(i)));
+        drains.runAll();
+        assertEquals(2, pipeline.getRecomputationCount());
+        assertEquals(1, subscriber.countFor(LOW));
+    }
+
+    @Test
+    void closesTheUpdatesOnceUpstreamCompletes() throws InterruptedException {
+        ManualExecutor drains = new ManualExecutor();
+        DriftPipeline pipeline = new DriftPipeline(winds(), drains, DIRECT, 64, 64);
+        pipeline.onSubscribe(new CountingSubscription());
+        CollectingSubscriber subscriber = new CollectingSubscriber(0);
+        pipeline.subscribe(subscriber);
+        pipeline.addScenario(LOW);
+        pipeline.onNext(new WindObservation(3000, 40, 200));
+        pipeline.onComplete();
+        drains.runAll();
+        assertTrue(subscriber.completed.await(1, TimeUnit.SECONDS));
+        assertEquals(1, subscriber.countFor(LOW));
+    }
+
+    /**
+     * A slow subscriber with a buffer of one blocks the drain, which must not stop the
+     * deliveries that would unblock it.
+     */
+    @Test
+    void aSlowSubscriberDoesNotDeadlockSingleThreadedExecutors() throws InterruptedException {
+        ExecutorService drains = Executors.newSingleThreadExecutor();
+        ExecutorService deliveries = Executors.newSingleThreadExecutor();
+        try {
+            DriftPipeline pipeline = new DriftPipeline(winds(), drains, deliveries, 64, 1);
+            CollectingSubscriber subscriber = new CollectingSubscriber(5);
+            pipeline.subscribe(subscriber);
+            for (int exit = 6000; exit <= 15000; exit += 1000) {
+                pipeline.addScenario(new DriftScenario("Exit " + exit, exit, 3000, JumperProfile.BELLY));
+            }
+            pipeline.close();
+            assertTrue(subscriber.completed.await(10, TimeUnit.SECONDS));
+            assertEquals(10, subscriber.updates.size());
+        }
+        finally {
+            drains.shutdownNow();
+            deliveries.shutdownNow();
+        }
+    }
+
+    @Test
+    void rejectsOneExecutorForDrainsAndDeliveries() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            assertThrows(IllegalArgumentException.class,
+                    () -> new DriftPipeline(winds(), executor, executor, 64, 64));
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+}
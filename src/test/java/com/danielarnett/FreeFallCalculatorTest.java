@@ -0,0 +1,210 @@
+package com.danielarnett;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the calculator against the example in FreeFallCalculator.main().
+ */
+class FreeFallCalculatorTest {
+    private static Winds exampleWinds() {
+        Winds winds = new Winds();
+        winds.addWind(12000, 25,   0);
+        winds.addWind( 9000, 25,  90);
+        winds.addWind( 6000, 25, 180);
+        winds.addWind( 3000, 25, 270);
+        return winds;
+    }
+
+    @Test
+    void calculatesTheExampleJump() {
+        FreeFallCalculator calculator = new FreeFallCalculator(12000.0, 3500.0, exampleWinds());
+        assertEquals(47.33, calculator.getFreefallTimeInSeconds(), 0.01);
+        assertEquals(386.69, calculator.getHorizontalDistanceTraveled(), 0.01);
+        assertEquals(113.09, calculator.getDriftHeadingInDegrees(), 0.01);
+    }
+
+    @Test
+    void averagesTheExampleWinds() {
+        Winds winds = exampleWinds();
+        assertEquals(135.0, winds.getAverageHeading(), 1e-9);
+        assertEquals(7.18, winds.getAverageWindspeedInRange(3500, 12000), 0.01);
+    }
+
+    @Test
+    void driftDistanceMatchesItsComponents() {
+        Drift drift = new FreeFallCalculator(12000.0, 3500.0, exampleWinds()).getDrift();
+        assertEquals(Math.hypot(drift.getX(), drift.getY()), drift.getDistance(), 1e-9);
+        assertEquals(47.33, drift.getFreefallTimeInSeconds(), 0.01);
+    }
+
+    @Test
+    void rejectsANegativeExitAltitude() {
+        FreeFallCalculator calculator = new FreeFallCalculator(12000.0, 3500.0);
+        assertThrows(IllegalArgumentException.class, () -> calculator.setExitAltitude(-1));
+    }
+
+    private static final double[] EXITS = { 12000, 10000, 9000, 12000, 7000 };
+    private static final double[] DEPLOYMENTS = { 3500, 4000, 3000, 5000, 3500 };
+
+    /**
+     * Check batch results against getDrift() for each scenario on its own.
+     */
+    static void assertMatchesGetDrift(Winds winds, double[] exits, double[] deployments, double[] freefallTimes,
+                                      double[] driftDistances, double[] driftHeadings) {
+        for (int i = 0; i < exits.length; i++) {
+            Drift drift = new FreeFallCalculator(exits[i], deployments[i], winds).getDrift();
+            assertEquals(drift.getFreefallTimeInSeconds(), freefallTimes[i], 1e-9, "scenario " + i);
+            assertEquals(drift.getDistance(), driftDistances[i], 1e-9, "scenario " + i);
+            assertEquals(drift.getHeadingInDegrees(), driftHeadings[i], 1e-9, "scenario " + i);
+        }
+    }
+
+    @Test
+    void evaluateMatchesGetDrift() {
+        Winds winds = exampleWinds();
+        int n = EXITS.length;
+        double[] times = new double[n];
+        double[] distances = new double[n];
+        double[] headings = new double[n];
+        FreeFallCalculator.evaluate(winds.snapshot(), EXITS, DEPLOYMENTS, times, distances, headings);
+        assertMatchesGetDrift(winds, EXITS, DEPLOYMENTS, times, distances, headings);
+    }
+
+    @Test
+    void evaluateRecordsAStatusForEachScenario() {
+        Winds winds = exampleWinds();
+        double[] exits = { 12000, 13000, 9000, 12000 };
+        double[] deployments = { 3500, 4000, 9000, 5000 };
+        double[] times = new double[4];
+        double[] distances = new double[4];
+        double[] headings = new double[4];
+        ValidationStatus[] statuses = new ValidationStatus[4];
+        FreeFallCalculator.evaluate(winds.snapshot(), JumperProfile.BELLY, exits, deployments,
+                times, distances, headings, statuses);
+        assertEquals(ValidationStatus.OK, statuses[0]);
+        assertEquals(ValidationStatus.ABOVE_HIGHEST_WIND, statuses[1]);
+        assertEquals(ValidationStatus.EMPTY_RANGE, statuses[2]);
+        assertEquals(ValidationStatus.OK, statuses[3]);
+        assertEquals(Double.NaN, distances[1]);
+        assertEquals(Double.NaN, headings[2]);
+        int[] good = { 0, 3 };
+        for (int i : good) {
+            Drift drift = new FreeFallCalculator(exits[i], deployments[i], winds).getDrift();
+            assertEquals(drift.getDistance(), distances[i], 1e-9);
+            assertEquals(drift.getHeadingInDegrees(), headings[i], 1e-9);
+        }
+    }
+
+    @Test
+    void evaluateLeavesTheOutputsAloneWhenAScenarioIsBad() {
+        double[] exits = { 12000, 10000, 13000 };
+        double[] deployments = { 3500, 4000, 4000 };
+        double[] times = new double[3];
+        double[] distances = new double[3];
+        double[] headings = new double[3];
+        Arrays.fill(distances, -1);
+        Arrays.fill(headings, -1);
+        assertThrows(IllegalArgumentException.class, () -> FreeFallCalculator.evaluate(
+                exampleWinds().snapshot(), exits, deployments, times, distances, headings));
+        for (int i = 0; i < 3; i++) {
+            assertEquals(-1, distances[i]);
+            assertEquals(-1, headings[i]);
+        }
+    }
+
+    /**
+     * Enough scenarios to split into several DriftSweep tasks.
+     */
+    private static double[][] sweep(int n) {
+        double[] exits = new double[n];
+        double[] deployments = new double[n];
+        for (int i = 0; i < n; i++) {
+            exits[i] = 6000 + (i * 37) % 6000;
+            deployments[i] = 3000 + (i * 11) % 2000;
+        }
+        return new double[][] { exits, deployments };
+    }
+
+    @Test
+    void evaluateParallelMatchesEvaluate() {
+        WindSnapshot snapshot = exampleWinds().snapshot();
+        int n = 3 * DriftSweep.SCENARIOS_PER_TASK + 17;
+        double[][] sweep = sweep(n);
+        double[] times = new double[n];
+        double[] distances = new double[n];
+        double[] headings = new double[n];
+        double[] parallelTimes = new double[n];
+        double[] parallelDistances = new double[n];
+        double[] parallelHeadings = new double[n];
+        FreeFallCalculator.evaluate(snapshot, sweep[0], sweep[1], times, distances, headings);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            FreeFallCalculator.evaluateParallel(pool, snapshot, JumperProfile.BELLY, sweep[0], sweep[1],
+                    parallelTimes, parallelDistances, parallelHeadings);
+        }
+        finally {
+            pool.shutdown();
+        }
+        assertArrayEquals(times, parallelTimes, 0);
+        assertArrayEquals(distances, parallelDistances, 0);
+        assertArrayEquals(headings, parallelHeadings, 0);
+    }
+
+    @Test
+    void evaluateParallelMatchesGetDrift() {
+        Winds winds = exampleWinds();
+        int n = EXITS.length;
+        double[] times = new double[n];
+        double[] distances = new double[n];
+        double[] headings = new double[n];
+        FreeFallCalculator.evaluateParallel(winds.snapshot(), EXITS, DEPLOYMENTS, times, distances, headings);
+        assertMatchesGetDrift(winds, EXITS, DEPLOYMENTS, times, distances, headings);
+    }
+
+    @Test
+    void evaluateParallelRecordsAStatusForEachScenario() {
+        WindSnapshot snapshot = exampleWinds().snapshot();
+        int n = 2 * DriftSweep.SCENARIOS_PER_TASK + 5;
+        double[][] sweep = sweep(n);
+        // One bad scenario in each half
+        sweep[0][10] = 13000;
+        sweep[1][n - 3] = sweep[0][n - 3];
+        double[] times = new double[n];
+        double[] distances = new double[n];
+        double[] headings = new double[n];
+        ValidationStatus[] statuses = new ValidationStatus[n];
+        FreeFallCalculator.evaluateParallel(ForkJoinPool.commonPool(), snapshot, JumperProfile.BELLY,
+                sweep[0], sweep[1], times, distances, headings, statuses);
+        double[] expectedTimes = new double[n];
+        double[] expectedDistances = new double[n];
+        double[] expectedHeadings = new double[n];
+        ValidationStatus[] expectedStatuses = new ValidationStatus[n];
+        FreeFallCalculator.evaluate(snapshot, JumperProfile.BELLY, sweep[0], sweep[1],
+                expectedTimes, expectedDistances, expectedHeadings, expectedStatuses);
+        assertArrayEquals(expectedStatuses, statuses);
+        assertArrayEquals(expectedDistances, distances, 0);
+        assertEquals(ValidationStatus.ABOVE_HIGHEST_WIND, statuses[10]);
+        assertEquals(ValidationStatus.EMPTY_RANGE, statuses[n - 3]);
+    }
+
+    @Test
+    void evaluateParallelLeavesTheOutputsAloneWhenAScenarioIsBad() {
+        int n = 2 * DriftSweep.SCENARIOS_PER_TASK;
+        double[][] sweep = sweep(n);
+        sweep[0][n - 1] = 13000;
+        double[] distances = new double[n];
+        Arrays.fill(distances, -1);
+        assertThrows(IllegalArgumentException.class, () -> FreeFallCalculator.evaluateParallel(
+                exampleWinds().snapshot(), sweep[0], sweep[1], new double[n], distances, new double[n]));
+        for (double distance : distances) {
+            assertEquals(-1, distance);
+        }
+    }
+}
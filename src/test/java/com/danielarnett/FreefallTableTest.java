@@ -0,0 +1,76 @@
+package com.danielarnett;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class FreefallTableTest {
+    private static final JumperProfile[] PROFILES = { JumperProfile.TRACKING, JumperProfile.BELLY, JumperProfile.FREEFLY };
+
+    /**
+     * The average speed of a jumper between two altitudes during a fall from an exit altitude.
+     */
+    private static double speedBetween(FreefallTable table, double exit, double upper, double lower) {
+        return (upper - lower) / (table.getFreefallTimeInSeconds(exit, lower) - table.getFreefallTimeInSeconds(exit, upper));
+    }
+
+    @Test
+    void aLongFallReachesTheTerminalVelocityOfTheProfile() {
+        for (JumperProfile profile : PROFILES) {
+            FreefallTable table = profile.getFreefallTable();
+            assertEquals(profile.getTerminalVelocityInMph(),
+                    table.getTerminalVelocityInFps() / FreeFallCalculator.MPH_TO_FPS, 1e-9);
+            // Near sea level, long after exit
+            double seaLevel = speedBetween(table, 13000, 500, 0) / FreeFallCalculator.MPH_TO_FPS;
+            assertEquals(profile.getTerminalVelocityInMph(), seaLevel, 0.02 * profile.getTerminalVelocityInMph(),
+                    profile.toString());
+            // Higher up the air is thinner, so the jumper falls faster
+            double high = speedBetween(table, 20000, 11000, 10000);
+            assertEquals(table.terminalVelocity(10500), high, 0.01 * high, profile.toString());
+            assertTrue(seaLevel * FreeFallCalculator.MPH_TO_FPS < high);
+        }
+    }
+
+    @Test
+    void theFirstSecondsAreAlmostInAVacuum() {
+        // Drag is tiny at first, so the first 64 feet take about 2 seconds
+        for (JumperProfile profile : PROFILES) {
+            double expected = Math.sqrt(2 * 64 / FreefallTable.GRAVITY_IN_FPS2);
+            double time = profile.getFreefallTable().getFreefallTimeInSeconds(12000, 12000 - 64);
+            assertEquals(expected, time, 0.05 * expected, profile.toString());
+            assertTrue(expected <= time, profile.toString());
+        }
+    }
+
+    @Test
+    void freefallTimeIncreasesWithExitAltitude() {
+        for (JumperProfile profile : PROFILES) {
+            FreefallTable table = profile.getFreefallTable();
+            double previous = 0;
+            for (double exit = 3100; exit <= FreefallTable.MAX_ALTITUDE; exit += 100) {
+                double time = table.getFreefallTimeInSeconds(exit, 3000);
+                assertTrue(previous < time, profile + " from " + exit);
+                previous = time;
+            }
+        }
+    }
+
+    @Test
+    void slowerProfilesFallForLonger() {
+        double tracking = JumperProfile.TRACKING.getFreefallTable().getFreefallTimeInSeconds(13000, 4000);
+        double belly = JumperProfile.BELLY.getFreefallTable().getFreefallTimeInSeconds(13000, 4000);
+        double freefly = JumperProfile.FREEFLY.getFreefallTable().getFreefallTimeInSeconds(13000, 4000);
+        assertTrue(freefly < belly && belly < tracking);
+    }
+
+    @Test
+    void timesAddUpAcrossTheAccelerationWindow() {
+        FreefallTable table = JumperProfile.BELLY.getFreefallTable();
+        // The table switches from the acceleration rows to the terminal table 5000 ft below exit
+        double justInside = table.getFreefallTimeInSeconds(13000, 13000 - FreefallTable.WINDOW + 1);
+        double justOutside = table.getFreefallTimeInSeconds(13000, 13000 - FreefallTable.WINDOW - 1);
+        double twoFeet = 2 / table.terminalVelocity(13000 - FreefallTable.WINDOW);
+        assertEquals(twoFeet, justOutside - justInside, 0.01);
+    }
+}
@@ -0,0 +1,97 @@
+package com.danielarnett;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class LogHistogramTest {
+    private static final int SUB_BUCKETS = 1 << LogHistogram.SUB_BUCKET_BITS;
+
+    @Test
+    void smallValuesHaveABucketEach() {
+        for (int value = 0; value < 2 * SUB_BUCKETS; value++) {
+            assertEquals(value, LogHistogram.bucketOf(value));
+            assertEquals(value, LogHistogram.highestValueInBucket(value));
+        }
+    }
+
+    @Test
+    void bucketsRoundTripAtPowersOfTwo() {
+        for (int bit = LogHistogram.SUB_BUCKET_BITS; bit < 63; bit++) {
+            long power = 1L << bit;
+            int below = LogHistogram.bucketOf(power - 1);
+            int at = LogHistogram.bucketOf(power);
+            assertEquals(below + 1, at, "2^" + bit);
+            assertEquals(power - 1, LogHistogram.highestValueInBucket(below), "2^" + bit);
+            assertEquals(at, LogHistogram.bucketOf(LogHistogram.highestValueInBucket(at)), "2^" + bit);
+        }
+        assertEquals(Long.MAX_VALUE, LogHistogram.highestValueInBucket(LogHistogram.bucketOf(Long.MAX_VALUE)));
+    }
+
+    @Test
+    void everyBucketEndsWhereTheNextBegins() {
+        int last = LogHistogram.bucketOf(Long.MAX_VALUE);
+        for (int bucket = 0; bucket < last; bucket++) {
+            long highest = LogHistogram.highestValueInBucket(bucket);
+            assertEquals(bucket, LogHistogram.bucketOf(highest));
+            assertEquals(bucket + 1, LogHistogram.bucketOf(highest + 1));
+            // A bucket is never wider than 1/SUB_BUCKETS of the values in it
+            long lowest = bucket == 0 ? 0 : LogHistogram.highestValueInBucket(bucket - 1) + 1;
+            assertTrue(highest - lowest <= lowest / SUB_BUCKETS, "bucket " + bucket);
+        }
+    }
+
+    @Test
+    void percentilesOfKnownValues() {
+        LogHistogram histogram = new LogHistogram();
+        for (int value = 1; value <= 1000; value++) {
+            histogram.record(value);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1000, histogram.getMax());
+        assertEquals(500.5, histogram.getMean(), 0);
+        assertEquals(1, histogram.getValueAtPercentile(0));
+        assertEquals(1000, histogram.getValueAtPercentile(100));
+        for (int percentile = 1; percentile <= 100; percentile++) {
+            long exact = 10L * percentile;
+            long value = histogram.getValueAtPercentile(percentile);
+            assertTrue(exact <= value && value <= exact + exact / SUB_BUCKETS, percentile + "th percentile " + value);
+        }
+    }
+
+    @Test
+    void percentilesOfSmallValuesAreExact() {
+        LogHistogram histogram = new LogHistogram();
+        for (int value = 1; value <= 50; value++) {
+            histogram.record(value);
+            histogram.record(value);
+        }
+        assertEquals(25, histogram.getValueAtPercentile(50));
+        assertEquals(45, histogram.getValueAtPercentile(90));
+        assertEquals(50, histogram.getValueAtPercentile(99));
+    }
+
+    @Test
+    void recordsNegativeValuesAsZero() {
+        LogHistogram histogram = new LogHistogram();
+        histogram.record(-5);
+        assertEquals(1, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    void isEmptyAfterAReset() {
+        LogHistogram histogram = new LogHistogram();
+        assertEquals(0, histogram.getValueAtPercentile(50));
+        assertTrue(Double.isNaN(histogram.getMean()));
+        histogram.record(1_000_000);
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getValueAtPercentile(99));
+        assertThrows(IllegalArgumentException.class, () -> histogram.getValueAtPercentile(100.5));
+    }
+}
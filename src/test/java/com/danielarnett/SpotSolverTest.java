@@ -0,0 +1,149 @@
+package com.danielarnett;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+class SpotSolverTest {
+    private static final double EXIT = 13500;
+    private static final double DEPLOYMENT = 3000;
+    private static final double TOLERANCE = 1e-6;
+
+    private static WindSnapshot uniform(double speed, double heading) {
+        return new Winds(new double[] { 0, 15000 }, new double[] { speed, speed },
+                new double[] { heading, heading }).snapshot();
+    }
+
+    private static JumpGroup[] groups(int count) {
+        JumpGroup[] groups = new JumpGroup[count];
+        for (int g = 0; g < count; g++) {
+            groups[g] = new JumpGroup("Group " + g, JumperProfile.BELLY, DEPLOYMENT);
+        }
+        return groups;
+    }
+
+    @Test
+    void inCalmAirEveryGroupExitsOverTheTarget() {
+        SpotSolution solution = new SpotSolver(uniform(0, 0), EXIT).solve(groups(1));
+        assertEquals(72, solution.size());
+        for (int i = 0; i < solution.size(); i++) {
+            JumpRun run = solution.getJumpRun(i);
+            assertEquals(0, run.getExitX(0), TOLERANCE);
+            assertEquals(0, run.getExitY(0), TOLERANCE);
+            assertEquals(SpotSolver.DEFAULT_AIRSPEED_IN_MPH, run.getGroundSpeedInMph(), TOLERANCE);
+            // The group can exit anywhere within its canopy range either side of the target
+            double range = JumpGroup.DEFAULT_CANOPY_RANGE_IN_FEET;
+            assertEquals(2 * range / (SpotSolver.DEFAULT_AIRSPEED_IN_MPH * FreeFallCalculator.MPH_TO_FPS),
+                    run.getGreenLightWindowInSeconds(), TOLERANCE);
+            assertEquals(0, run.getGreenLightStartX() + run.getGreenLightEndX(), TOLERANCE);
+            assertEquals(0, run.getGreenLightStartY() + run.getGreenLightEndY(), TOLERANCE);
+        }
+    }
+
+    @Test
+    void exitsUpwindByTheFreefallAndCanopyDrift() {
+        WindSnapshot winds = uniform(20, 90);
+        SpotSolution solution = new SpotSolver(winds, EXIT).solve(groups(1));
+        Drift freefall = FreeFallCalculator.calculateDrift(winds, JumperProfile.BELLY.getFreefallTable(), EXIT, DEPLOYMENT);
+        double wind = 20 * FreeFallCalculator.MPH_TO_FPS;
+        double canopy = wind * DEPLOYMENT / JumpGroup.DEFAULT_CANOPY_DESCENT_RATE_IN_FPS;
+        assertEquals(wind * freefall.getFreefallTimeInSeconds(), freefall.getX(), 1e-6);
+        for (int i = 0; i < solution.size(); i++) {
+            JumpRun run = solution.getJumpRun(i);
+            String message = "heading " + run.getHeadingInDegrees();
+            assertEquals(-(freefall.getX() + canopy), run.getExitX(0), TOLERANCE, message);
+            assertEquals(-freefall.getY(), run.getExitY(0), TOLERANCE, message);
+        }
+    }
+
+    @Test
+    void inAUniformWindTheWindowIsSymmetricAboutTheIdealExit() {
+        WindSnapshot winds = uniform(20, 90);
+        int count = 2;
+        SpotSolution solution = new SpotSolver(winds, EXIT).solve(groups(count));
+        double idealX = new SpotSolver(winds, EXIT).solve(groups(1)).getJumpRun(0).getExitX(0);
+        double idealY = new SpotSolver(winds, EXIT).solve(groups(1)).getJumpRun(0).getExitY(0);
+        for (int i = 0; i < solution.size(); i++) {
+            JumpRun run = solution.getJumpRun(i);
+            String message = "heading " + run.getHeadingInDegrees();
+            assertTrue(run.isFeasible(), message);
+            // The groups are centred on the ideal exit point, and the first exit on its window
+            for (int g = 0; g < count; g++) {
+                assertEquals(2 * idealX, run.getExitX(g) + run.getExitX(count - 1 - g), TOLERANCE, message);
+                assertEquals(2 * idealY, run.getExitY(g) + run.getExitY(count - 1 - g), TOLERANCE, message);
+            }
+            assertEquals(run.getExitX(0) - run.getGreenLightStartX(), run.getGreenLightEndX() - run.getExitX(0),
+                    TOLERANCE, message);
+            assertEquals(run.getExitY(0) - run.getGreenLightStartY(), run.getGreenLightEndY() - run.getExitY(0),
+                    TOLERANCE, message);
+        }
+    }
+
+    @Test
+    void groupSpacingFollowsTheGroundSpeed() {
+        double wind = 20;
+        double airspeed = SpotSolver.DEFAULT_AIRSPEED_IN_MPH;
+        double separation = SpotSolver.DEFAULT_SEPARATION_IN_FEET;
+        SpotSolution solution = new SpotSolver(uniform(wind, 90), EXIT).solve(groups(2));
+        JumpRun upwind = solution.getNearestJumpRun(270);
+        JumpRun downwind = solution.getNearestJumpRun(90);
+        JumpRun across = solution.getNearestJumpRun(0);
+        assertEquals(airspeed - wind, upwind.getGroundSpeedInMph(), TOLERANCE);
+        assertEquals(airspeed + wind, downwind.getGroundSpeedInMph(), TOLERANCE);
+        assertEquals(Math.sqrt(airspeed * airspeed - wind * wind), across.getGroundSpeedInMph(), TOLERANCE);
+        for (JumpRun run : new JumpRun[] { upwind, downwind, across }) {
+            assertEquals(separation / (run.getGroundSpeedInMph() * FreeFallCalculator.MPH_TO_FPS),
+                    run.getSeparationInSeconds(), TOLERANCE);
+            assertEquals(separation, Math.hypot(run.getExitX(1) - run.getExitX(0), run.getExitY(1) - run.getExitY(0)),
+                    TOLERANCE);
+        }
+        // The same stretch of ground lasts longest flying into the wind
+        assertEquals(270, solution.getBest().getHeadingInDegrees(), TOLERANCE);
+    }
+
+    @Test
+    void headingsTheAircraftCannotFlyAreNotFeasible() {
+        SpotSolver solver = new SpotSolver(uniform(60, 90), EXIT);
+        solver.setAirspeedInMph(50);
+        SpotSolution solution = solver.solve(groups(1));
+        assertFalse(solution.getNearestJumpRun(270).isFeasible());
+        assertFalse(solution.getNearestJumpRun(0).isFeasible());
+        assertEquals(0, solution.getNearestJumpRun(270).getGreenLightWindowInSeconds());
+        assertTrue(solution.getBest().isFeasible());
+    }
+
+    @Test
+    void theSweepGivesTheSameRunsOnAnyNumberOfThreads() {
+        WindSnapshot winds = new Winds(new double[] { 0, 6000, 15000 }, new double[] { 5, 20, 35 },
+                new double[] { 180, 240, 270 }).snapshot();
+        ForkJoinPool sequential = new ForkJoinPool(1);
+        ForkJoinPool parallel = new ForkJoinPool(4);
+        try {
+            SpotSolver solver = new SpotSolver(winds, EXIT);
+            solver.setHeadingStepInDegrees(1);
+            solver.setPool(sequential);
+            SpotSolution expected = solver.solve(groups(4));
+            solver.setPool(parallel);
+            SpotSolution actual = solver.solve(groups(4));
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.getJumpRun(i).getExitX(0), actual.getJumpRun(i).getExitX(0), 0);
+                assertEquals(expected.getJumpRun(i).getGreenLightWindowInSeconds(),
+                        actual.getJumpRun(i).getGreenLightWindowInSeconds(), 0);
+            }
+        }
+        finally {
+            sequential.shutdown();
+            parallel.shutdown();
+        }
+    }
+
+    @Test
+    void rejectsAnEmptyLoad() {
+        assertThrows(IllegalArgumentException.class, () -> new SpotSolver(uniform(0, 0), EXIT).solve());
+    }
+}
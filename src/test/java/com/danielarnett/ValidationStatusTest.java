@@ -0,0 +1,108 @@
+package com.danielarnett;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class ValidationStatusTest {
+    /**
+     * Records what it hears as text, so the tests can check the order of the warnings.
+     */
+    private static final class RecordingListener implements WindsListener {
+        final List<String> heard = new ArrayList<>();
+
+        @Override
+        public void windReplaced(double altitude, double speed, double heading, boolean interpolated) {
+            heard.add("replaced " + altitude + (interpolated ? " interpolated" : ""));
+        }
+
+        @Override
+        public void windRejected(double altitude, double speed, double heading) {
+            heard.add("rejected " + altitude);
+        }
+
+        @Override
+        public void altitudeOutOfRange(ValidationStatus status, double lo, double hi) {
+            heard.add(status + " " + lo + " " + hi);
+        }
+    }
+
+    private static Winds winds(RecordingListener listener) {
+        Winds winds = new Winds();
+        winds.setListener(listener);
+        winds.addWind(3000, 10, 90);
+        winds.addWind(12000, 20, 180);
+        return winds;
+    }
+
+    @Test
+    void addWindReportsReplacements() {
+        RecordingListener listener = new RecordingListener();
+        Winds winds = winds(listener);
+        assertEquals(ValidationStatus.OK, winds.addWind(6000, 15, 135));
+        assertEquals(ValidationStatus.REPLACED, winds.addWind(6000, 16, 135));
+        assertEquals(ValidationStatus.OK, winds.addInterpolatedWind(6000, 16, 135));
+        assertEquals(ValidationStatus.REPLACED, winds.addInterpolatedWind(6000, 17, 135));
+        assertEquals(List.of("replaced 6000.0", "replaced 6000.0 interpolated"), listener.heard);
+        assertEquals(3, winds.size());
+    }
+
+    @Test
+    void addWindRejectsValuesThatAreNotFinite() {
+        RecordingListener listener = new RecordingListener();
+        Winds winds = winds(listener);
+        long version = winds.getVersion();
+        assertEquals(ValidationStatus.NOT_A_NUMBER, winds.addWind(Double.NaN, 10, 0));
+        assertEquals(ValidationStatus.NOT_A_NUMBER, winds.addWind(5000, Double.POSITIVE_INFINITY, 0));
+        assertEquals(ValidationStatus.NOT_A_NUMBER, winds.addWind(Double.NEGATIVE_INFINITY, 10, 0));
+        assertEquals(ValidationStatus.NOT_A_NUMBER, winds.addInterpolatedWind(5000, 10, Double.POSITIVE_INFINITY));
+        assertEquals(version, winds.getVersion());
+        assertEquals(2, winds.size());
+        assertEquals(4, listener.heard.size());
+        assertTrue(listener.heard.get(0).startsWith("rejected"));
+        assertTrue(Double.isFinite(winds.snapshot().integrateX(3000, 12000)));
+    }
+
+    @Test
+    void snapshotsValidateRanges() {
+        WindSnapshot snapshot = winds(new RecordingListener()).snapshot();
+        assertEquals(ValidationStatus.OK, snapshot.validateRange(3000, 12000));
+        assertEquals(ValidationStatus.NOT_A_NUMBER, snapshot.validateRange(Double.NaN, 12000));
+        assertEquals(ValidationStatus.EMPTY_RANGE, snapshot.validateRange(6000, 6000));
+        assertEquals(ValidationStatus.ABOVE_HIGHEST_WIND, snapshot.validateRange(3000, 13000));
+        assertEquals(ValidationStatus.BELOW_GROUND, snapshot.validateRange(-1, 12000));
+        assertEquals(ValidationStatus.BELOW_LOWEST_WIND, snapshot.validateRange(0, 12000));
+    }
+
+    @Test
+    void onlyErrorsStopARequest() {
+        assertFalse(ValidationStatus.OK.isError());
+        assertFalse(ValidationStatus.REPLACED.isError());
+        assertFalse(ValidationStatus.BELOW_LOWEST_WIND.isError());
+        assertTrue(ValidationStatus.NOT_A_NUMBER.isError());
+        assertTrue(ValidationStatus.ABOVE_HIGHEST_WIND.isError());
+        assertTrue(ValidationStatus.OUTSIDE_FREEFALL_TABLE.isError());
+    }
+
+    @Test
+    void averagesBelowTheLowestWindAreServedWithAWarning() {
+        RecordingListener listener = new RecordingListener();
+        Winds winds = winds(listener);
+        winds.getAverageWindspeedInRange(1000, 12000);
+        assertEquals(List.of("BELOW_LOWEST_WIND 1000.0 12000.0"), listener.heard);
+    }
+
+    @Test
+    void freefallTablesValidateFalls() {
+        FreefallTable table = JumperProfile.BELLY.getFreefallTable();
+        assertEquals(ValidationStatus.OK, table.validateRange(12000, 3000));
+        assertEquals(ValidationStatus.NOT_A_NUMBER, table.validateRange(12000, Double.NaN));
+        assertEquals(ValidationStatus.OUTSIDE_FREEFALL_TABLE, table.validateRange(3000, 12000));
+        assertEquals(ValidationStatus.OUTSIDE_FREEFALL_TABLE, table.validateRange(FreefallTable.MAX_ALTITUDE + 1, 3000));
+    }
+}
@@ -0,0 +1,96 @@
+package com.danielarnett;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+
+class WindFieldTest {
+    private static final Instant NOON = Instant.parse("2026-10-17T12:00:00Z");
+    private static final Instant ONE = NOON.plusSeconds(3600);
+    private static final double TOLERANCE = 1e-9;
+
+    private static WindSnapshot morning(WindInterpolator interpolator) {
+        Winds winds = new Winds(new double[] { 0, 3000, 6000, 9000, 12000, 18000 },
+                new double[] { 5, 15, 30, 25, 40, 55 },
+                new double[] { 200, 240, 270, 300, 280, 260 });
+        winds.setInterpolator(interpolator);
+        return winds.snapshot();
+    }
+
+    private static WindSnapshot afternoon(WindInterpolator interpolator) {
+        Winds winds = new Winds(new double[] { 0, 2000, 5000, 10000, 14000, 18000 },
+                new double[] { 10, 20, 18, 35, 30, 60 },
+                new double[] { 150, 180, 220, 250, 270, 290 });
+        winds.setInterpolator(interpolator);
+        return winds.snapshot();
+    }
+
+    private static void assertSameWinds(WindSnapshot expected, WindSnapshot actual, String message) {
+        for (double alt = -500; alt <= 19000; alt += 125) {
+            assertEquals(expected.getCurve().xAt(alt), actual.getCurve().xAt(alt), TOLERANCE, message + " at " + alt);
+            assertEquals(expected.getCurve().yAt(alt), actual.getCurve().yAt(alt), TOLERANCE, message + " at " + alt);
+        }
+        for (double hi = 1000; hi <= 18000; hi += 1700) {
+            assertEquals(expected.getAverageXInRange(0, hi), actual.getAverageXInRange(0, hi), TOLERANCE, message);
+            assertEquals(expected.getAverageYInRange(500, hi), actual.getAverageYInRange(500, hi), TOLERANCE, message);
+        }
+    }
+
+    @Test
+    void reproducesEachProfileAtItsTime() {
+        for (WindInterpolator interpolator : new WindInterpolator[] {
+                WindInterpolator.LINEAR, WindInterpolator.MONOTONE_CUBIC, WindInterpolator.NATURAL_SPLINE }) {
+            WindSnapshot morning = morning(interpolator);
+            WindSnapshot afternoon = afternoon(interpolator);
+            WindField field = new WindField(new Instant[] { NOON, ONE }, new WindSnapshot[] { morning, afternoon });
+            assertSameWinds(morning, field.snapshotAt(NOON), interpolator.toString());
+            assertSameWinds(afternoon, field.snapshotAt(ONE), interpolator.toString());
+        }
+    }
+
+    @Test
+    void blendsTheProfilesBetweenTheirTimes() {
+        WindSnapshot morning = morning(WindInterpolator.NATURAL_SPLINE);
+        WindSnapshot afternoon = afternoon(WindInterpolator.NATURAL_SPLINE);
+        WindField field = new WindField(new Instant[] { NOON, ONE }, new WindSnapshot[] { morning, afternoon });
+        WindCurve blend = field.snapshotAt(NOON.plusSeconds(900)).getCurve();
+        for (double alt = 0; alt <= 18000; alt += 250) {
+            assertEquals(0.75 * morning.getCurve().xAt(alt) + 0.25 * afternoon.getCurve().xAt(alt), blend.xAt(alt), TOLERANCE);
+            assertEquals(0.75 * morning.getCurve().yAt(alt) + 0.25 * afternoon.getCurve().yAt(alt), blend.yAt(alt), TOLERANCE);
+        }
+    }
+
+    @Test
+    void holdsTheNearestProfileOutsideItsTimes() {
+        WindSnapshot morning = morning(WindInterpolator.MONOTONE_CUBIC);
+        WindSnapshot afternoon = afternoon(WindInterpolator.MONOTONE_CUBIC);
+        WindField field = new WindField(new Instant[] { NOON, ONE }, new WindSnapshot[] { morning, afternoon });
+        assertSame(field.snapshotAt(NOON), field.snapshotAt(NOON.minusSeconds(7200)));
+        assertSameWinds(afternoon, field.snapshotAt(ONE.plusSeconds(7200)), "after");
+    }
+
+    @Test
+    void matchesTheProfilesOnCoarserLevels() {
+        WindSnapshot morning = morning(WindInterpolator.NATURAL_SPLINE);
+        double[] levels = { 0, 4000, 8000, 12000, 16000 };
+        WindField field = new WindField(new Instant[] { NOON }, new WindSnapshot[] { morning }, levels);
+        WindCurve resampled = field.snapshotAt(NOON).getCurve();
+        for (double level : levels) {
+            assertEquals(morning.getCurve().xAt(level), resampled.xAt(level), TOLERANCE);
+            assertEquals(morning.getCurve().yAt(level), resampled.yAt(level), TOLERANCE);
+        }
+    }
+
+    @Test
+    void rejectsLevelsThatAreNotAscending() {
+        WindSnapshot morning = morning(WindInterpolator.LINEAR);
+        assertThrows(IllegalArgumentException.class, () -> new WindField(new Instant[] { NOON },
+                new WindSnapshot[] { morning }, new double[] { 0, 5000, 5000 }));
+        assertThrows(IllegalArgumentException.class, () -> new WindField(new Instant[] { ONE, NOON },
+                new WindSnapshot[] { morning, morning }));
+    }
+}
@@ -0,0 +1,153 @@
+package com.danielarnett;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class WindInterpolatorTest {
+    private static final WindInterpolator[] INTERPOLATORS = {
+        WindInterpolator.LINEAR, WindInterpolator.MONOTONE_CUBIC, WindInterpolator.NATURAL_SPLINE
+    };
+    private static final double[] ALTITUDES = { 1000, 3000, 4000, 8000, 12000 };
+    private static final double[] X = { 0, 0, 10, 10, 10 };
+    private static final double[] Y = { -5, 3, 2, 12, -4 };
+
+    private static WindCurve fit(WindInterpolator interpolator) {
+        return interpolator.fit(ALTITUDES.clone(), X.clone(), Y.clone());
+    }
+
+    /**
+     * Simpson's rule over each segment, which is exact for cubics, to check the integrals the
+     * curves precompute.
+     */
+    private static double simpson(WindCurve curve, double lo, double hi) {
+        double sum = 0;
+        double start = lo;
+        for (double knot : ALTITUDES) {
+            if (lo < knot && knot < hi) {
+                sum += simpsonSegment(curve, start, knot);
+                start = knot;
+            }
+        }
+        return sum + simpsonSegment(curve, start, hi);
+    }
+
+    private static double simpsonSegment(WindCurve curve, double lo, double hi) {
+        int n = 2;
+        double h = (hi - lo) / n;
+        double sum = curve.yAt(lo) + curve.yAt(hi);
+        for (int i = 1; i < n; i++) {
+            sum += (i % 2 == 0 ? 2 : 4) * curve.yAt(lo + i * h);
+        }
+        return sum * h / 3;
+    }
+
+    @Test
+    void everyCurvePassesThroughTheMeasuredWinds() {
+        for (WindInterpolator interpolator : INTERPOLATORS) {
+            WindCurve curve = fit(interpolator);
+            for (int i = 0; i < ALTITUDES.length; i++) {
+                assertEquals(X[i], curve.xAt(ALTITUDES[i]), 1e-9, interpolator.toString());
+                assertEquals(Y[i], curve.yAt(ALTITUDES[i]), 1e-9, interpolator.toString());
+            }
+        }
+    }
+
+    @Test
+    void everyCurveHoldsTheWindBeyondItsEnds() {
+        for (WindInterpolator interpolator : INTERPOLATORS) {
+            WindCurve curve = fit(interpolator);
+            assertEquals(Y[0], curve.yAt(0), 1e-9);
+            assertEquals(Y[Y.length - 1], curve.yAt(20000), 1e-9);
+        }
+    }
+
+    @Test
+    void everyCurveReproducesAStraightLine() {
+        double[] line = { 2, 6, 8, 16, 24 };
+        for (WindInterpolator interpolator : INTERPOLATORS) {
+            WindCurve curve = interpolator.fit(ALTITUDES.clone(), line.clone(), line.clone());
+            assertEquals(11, curve.xAt(5500), 1e-9, interpolator.toString());
+        }
+    }
+
+    @Test
+    void linearInterpolatesBetweenNeighbours() {
+        WindCurve curve = fit(WindInterpolator.LINEAR);
+        assertEquals(-1, curve.yAt(2000), 1e-9);
+        assertEquals(7, curve.yAt(6000), 1e-9);
+    }
+
+    @Test
+    void precomputedIntegralsMatchNumericalIntegration() {
+        for (WindInterpolator interpolator : INTERPOLATORS) {
+            WindSnapshot snapshot = new WindSnapshot(0, fit(interpolator));
+            assertEquals(simpson(snapshot.getCurve(), 1500, 11000), snapshot.integrateY(1500, 11000), 1e-6,
+                    interpolator.toString());
+        }
+    }
+
+    @Test
+    void monotoneCubicNeverOvershoots() {
+        WindCurve curve = fit(WindInterpolator.MONOTONE_CUBIC);
+        for (double alt = 1000; alt <= 12000; alt += 10) {
+            double x = curve.xAt(alt);
+            assertTrue(0 <= x && x <= 10, "x = " + x + " at " + alt);
+        }
+    }
+
+    @Test
+    void naturalSplineOvershootsASteppedWind() {
+        WindCurve curve = fit(WindInterpolator.NATURAL_SPLINE);
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (double alt = 1000; alt <= 12000; alt += 10) {
+            min = Math.min(min, curve.xAt(alt));
+            max = Math.max(max, curve.xAt(alt));
+        }
+        assertTrue(min < 0 || 10 < max);
+    }
+
+    @Test
+    void aSingleWindHoldsEverywhere() {
+        for (WindInterpolator interpolator : INTERPOLATORS) {
+            WindCurve curve = interpolator.fit(new double[] { 5000 }, new double[] { 3 }, new double[] { 4 });
+            assertEquals(3, curve.xAt(0), 1e-9);
+            assertEquals(4, curve.yAt(9000), 1e-9);
+        }
+    }
+
+    @Test
+    void reachMatchesHowFarAChangeMovesTheCurve() {
+        assertEquals(1, WindInterpolator.LINEAR.getReach());
+        assertEquals(2, WindInterpolator.MONOTONE_CUBIC.getReach());
+        assertEquals(Integer.MAX_VALUE, WindInterpolator.NATURAL_SPLINE.getReach());
+
+        double[] changed = Y.clone();
+        changed[0] += 5;
+        for (WindInterpolator interpolator : new WindInterpolator[] {
+                WindInterpolator.LINEAR, WindInterpolator.MONOTONE_CUBIC }) {
+            WindCurve before = fit(interpolator);
+            WindCurve after = interpolator.fit(ALTITUDES.clone(), X.clone(), changed);
+            double edge = ALTITUDES[interpolator.getReach()];
+            for (double alt = edge; alt <= 12000; alt += 100) {
+                assertEquals(before.yAt(alt), after.yAt(alt), 1e-9, interpolator + " at " + alt);
+            }
+        }
+    }
+
+    @Test
+    void snapshotsCountFitsApartFromGridRebuilds() {
+        Winds winds = new Winds(ALTITUDES, new double[] { 5, 5, 5, 5, 5 }, new double[] { 0, 90, 180, 270, 0 });
+        winds.setInterpolator(WindInterpolator.MONOTONE_CUBIC);
+        WindSnapshot snapshot = winds.snapshot();
+        assertEquals(snapshot, winds.snapshot());
+        assertEquals(1, winds.getFitCount());
+        assertEquals(0, winds.getInterpolationCount());
+        winds.interpolateWindspeedLinearly(110);
+        winds.interpolateWindspeedLinearly(110);
+        assertEquals(1, winds.getFitCount());
+        assertEquals(1, winds.getInterpolationCount());
+    }
+}
@@ -0,0 +1,85 @@
+package com.danielarnett;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class WindProfileRegistryTest {
+    private static final Instant NOON = Instant.parse("2026-10-17T12:00:00Z");
+
+    private static WindSnapshot profile(double speed) {
+        Winds winds = new Winds();
+        winds.addWind(3000, speed, 90);
+        winds.addWind(12000, speed, 90);
+        return winds.snapshot();
+    }
+
+    @Test
+    void findsTheProfileInEffectAtATime() {
+        WindProfileRegistry registry = new WindProfileRegistry();
+        WindSnapshot morning = profile(10);
+        WindSnapshot noon = profile(20);
+        registry.publish("DZ", NOON, noon);
+        registry.publish("DZ", NOON.minusSeconds(3 * 3600), morning);
+        assertNull(registry.get("DZ", NOON.minusSeconds(4 * 3600)));
+        assertSame(morning, registry.get("DZ", NOON.minusSeconds(1)));
+        assertSame(noon, registry.get("DZ", NOON));
+        assertSame(noon, registry.get("DZ", NOON.plusSeconds(3600)));
+        assertSame(noon, registry.getLatest("DZ"));
+        assertNull(registry.get("Elsewhere", NOON));
+    }
+
+    @Test
+    void replacesAProfileForTheSameTime() {
+        WindProfileRegistry registry = new WindProfileRegistry();
+        WindSnapshot revised = profile(25);
+        registry.publish("DZ", NOON, profile(20));
+        registry.publish("DZ", NOON, revised);
+        assertEquals(1, registry.size("DZ"));
+        assertSame(revised, registry.get("DZ", NOON));
+    }
+
+    @Test
+    void currentProfileAndSourceFollowTheClock() {
+        WindProfileRegistry registry = new WindProfileRegistry(Clock.fixed(NOON.plusSeconds(60), ZoneOffset.UTC));
+        WindSource source = registry.source("DZ");
+        assertThrows(IllegalStateException.class, source::snapshot);
+        WindSnapshot noon = profile(20);
+        registry.publish("DZ", NOON, noon);
+        assertSame(noon, registry.getCurrent("DZ"));
+        assertSame(noon, source.snapshot());
+        assertThrows(IllegalStateException.class, () -> source.snapshotAt(NOON.minusSeconds(1)));
+    }
+
+    @Test
+    void removeBeforeKeepsTheProfileInEffect() {
+        WindProfileRegistry registry = new WindProfileRegistry();
+        WindSnapshot noon = profile(20);
+        registry.publish("DZ", NOON.minusSeconds(7200), profile(10));
+        registry.publish("DZ", NOON.minusSeconds(3600), profile(15));
+        registry.publish("DZ", NOON, noon);
+        registry.removeBefore("DZ", NOON.plusSeconds(60));
+        assertEquals(1, registry.size("DZ"));
+        assertSame(noon, registry.get("DZ", NOON.plusSeconds(60)));
+    }
+
+    @Test
+    void removeDropsEveryProfile() {
+        WindProfileRegistry registry = new WindProfileRegistry();
+        registry.publish("DZ", NOON, profile(20));
+        registry.remove("DZ");
+        assertEquals(0, registry.size("DZ"));
+        assertNull(registry.getLatest("DZ"));
+        assertEquals(Set.of(), registry.getDropZones());
+        registry.publish("DZ", NOON, profile(20));
+        assertEquals(1, registry.size("DZ"));
+    }
+}
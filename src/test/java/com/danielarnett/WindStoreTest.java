@@ -0,0 +1,120 @@
+package com.danielarnett;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class WindStoreTest {
+    private static WindSnapshot snapshot(WindInterpolator interpolator) {
+        Winds winds = new Winds();
+        winds.setInterpolator(interpolator);
+        winds.addWind(12000, 25,   0);
+        winds.addWind( 9000, 25,  90);
+        winds.addWind( 6000, 18, 180);
+        winds.addWind( 3000, 12, 270);
+        winds.addWind(  500,  4, 300);
+        return winds.snapshot();
+    }
+
+    private static Map<String, WindSnapshot> snapshots() {
+        Map<String, WindSnapshot> snapshots = new LinkedHashMap<>();
+        snapshots.put("Linear", snapshot(WindInterpolator.LINEAR));
+        snapshots.put("Spline", snapshot(WindInterpolator.NATURAL_SPLINE));
+        return snapshots;
+    }
+
+    @Test
+    void curvesRoundTripExactly(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("winds.bin");
+        Map<String, WindSnapshot> snapshots = snapshots();
+        WindStore.write(file, snapshots, List.of());
+        WindStore store = WindStore.open(file);
+        assertEquals(List.copyOf(snapshots.keySet()), List.copyOf(store.getSnapshotNames()));
+        for (Map.Entry<String, WindSnapshot> entry : snapshots.entrySet()) {
+            WindSnapshot original = entry.getValue();
+            WindSnapshot stored = store.getSnapshot(entry.getKey());
+            assertEquals(original.getVersion(), stored.getVersion());
+            assertEquals(original.getCurve().size(), stored.getCurve().size());
+            for (double alt = 0; alt <= 13000; alt += 37) {
+                assertEquals(original.getCurve().xAt(alt), stored.getCurve().xAt(alt), 0, entry.getKey());
+                assertEquals(original.getCurve().yAt(alt), stored.getCurve().yAt(alt), 0, entry.getKey());
+            }
+            assertEquals(original.getAverageWindspeedInRange(1000, 11000),
+                    stored.getAverageWindspeedInRange(1000, 11000), 0);
+        }
+        assertNull(store.getSnapshot("Missing"));
+    }
+
+    @Test
+    void freefallTablesRoundTripExactly(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("winds.bin");
+        WindStore.write(file, Map.of(), List.of(JumperProfile.BELLY, JumperProfile.TRACKING));
+        WindStore store = WindStore.open(file);
+        assertEquals(List.of("Belly", "Tracking"), List.copyOf(store.getJumperProfileNames()));
+        JumperProfile stored = store.getJumperProfile("Tracking");
+        assertEquals(JumperProfile.TRACKING.getTerminalVelocityInMph(), stored.getTerminalVelocityInMph());
+        for (double exit = 3000; exit <= 20000; exit += 1700) {
+            assertEquals(JumperProfile.TRACKING.getFreefallTable().getFreefallTimeInSeconds(exit, 2500),
+                    stored.getFreefallTable().getFreefallTimeInSeconds(exit, 2500), 0);
+        }
+    }
+
+    @Test
+    void driftsFromAStoreMatchTheOriginals(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("winds.bin");
+        WindStore.write(file, snapshots(), List.of(JumperProfile.BELLY));
+        WindStore store = WindStore.open(file);
+        FreefallTable table = store.getJumperProfile("Belly").getFreefallTable();
+        Drift original = FreeFallCalculator.calculateDrift(snapshot(WindInterpolator.NATURAL_SPLINE),
+                JumperProfile.BELLY.getFreefallTable(), 12000, 3500);
+        Drift stored = FreeFallCalculator.calculateDrift(store.getSnapshot("Spline"), table, 12000, 3500);
+        assertEquals(original.getX(), stored.getX(), 0);
+        assertEquals(original.getY(), stored.getY(), 0);
+    }
+
+    @Test
+    void replacesAnExistingFile(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("winds.bin");
+        WindStore.write(file, snapshots(), List.of());
+        WindStore.write(file, Map.of("Only", snapshot(WindInterpolator.LINEAR)), List.of());
+        assertEquals(List.of("Only"), List.copyOf(WindStore.open(file).getSnapshotNames()));
+        assertFalse(Files.exists(dir.resolve("winds.bin.tmp")));
+    }
+
+    @Test
+    void refusesBlendedViews(@TempDir Path dir) {
+        Instant noon = Instant.parse("2026-10-17T12:00:00Z");
+        WindField field = new WindField(new Instant[] { noon }, new WindSnapshot[] { snapshot(WindInterpolator.LINEAR) });
+        assertThrows(IllegalArgumentException.class,
+                () -> WindStore.write(dir.resolve("winds.bin"), Map.of("Blend", field.snapshotAt(noon)), List.of()));
+    }
+
+    @Test
+    void refusesFilesThatAreNotStores(@TempDir Path dir) throws IOException {
+        Path garbage = dir.resolve("garbage.bin");
+        Files.write(garbage, new byte[64]);
+        assertThrows(IOException.class, () -> WindStore.open(garbage));
+
+        Path file = dir.resolve("winds.bin");
+        WindStore.write(file, snapshots(), List.of());
+        byte[] bytes = Files.readAllBytes(file);
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putInt(4, 99);
+        Path future = dir.resolve("future.bin");
+        Files.write(future, bytes);
+        assertThrows(IOException.class, () -> WindStore.open(future));
+    }
+}
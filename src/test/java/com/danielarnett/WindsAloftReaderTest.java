@@ -0,0 +1,123 @@
+package com.danielarnett;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class WindsAloftReaderTest {
+    private static final String BULLETIN =
+            "DATA BASED ON 171200Z\n" +
+            "VALID 171800Z   FOR USE 1700-2100Z. TEMPS NEG ABV 24000\n" +
+            "\n" +
+            "FT  3000    6000    9000   12000\n" +
+            "DEN         2714    2725+05 7315-02\n" +
+            "ABQ 9900    0510+12 3620+04 3125-05\n";
+
+    private static InputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void readsEachStationOfABulletin() throws IOException {
+        Map<String, Winds> stations = WindsAloftReader.readBulletin(stream(BULLETIN));
+        assertEquals(List.of("DEN", "ABQ"), List.copyOf(stations.keySet()));
+        assertEquals(3, stations.get("DEN").size());
+        assertEquals(4, stations.get("ABQ").size());
+    }
+
+    @Test
+    void convertsBulletinWindsToHeadingsAndMilesPerHour() throws IOException {
+        WindProfile den = WindsAloftReader.readBulletin(stream(BULLETIN)).get("DEN").getWinds();
+        // A station with no wind at 3000 ft starts at 6000 ft
+        assertEquals(6000, den.getMinAltitude());
+        // 2714 is 14 knots from 270 degrees, so blowing towards 90 degrees
+        assertEquals(90, den.getHeading(0));
+        assertEquals(14 * WindsAloftReader.KNOTS_TO_MPH, den.getSpeed(0), 1e-9);
+        // 7315 is 115 knots from 230 degrees
+        assertEquals(12000, den.getAltitude(2));
+        assertEquals(50, den.getHeading(2));
+        assertEquals(115 * WindsAloftReader.KNOTS_TO_MPH, den.getSpeed(2), 1e-9);
+    }
+
+    @Test
+    void readsLightAndVariableAsCalm() throws IOException {
+        WindProfile abq = WindsAloftReader.readBulletin(stream(BULLETIN)).get("ABQ").getWinds();
+        assertEquals(3000, abq.getAltitude(0));
+        assertEquals(0, abq.getSpeed(0));
+    }
+
+    @Test
+    void readsABulletinFile(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("fb.txt");
+        Files.writeString(file, BULLETIN, StandardCharsets.US_ASCII);
+        Map<String, Winds> stations = WindsAloftReader.readBulletin(file);
+        assertEquals(4, stations.get("ABQ").size());
+        // 3125 is 25 knots from 310 degrees
+        assertEquals(130, stations.get("ABQ").getWinds().getHeading(3));
+    }
+
+    @Test
+    void readsCsvRows() throws IOException {
+        Winds winds = new Winds();
+        WindsAloftReader.readCsv(stream(
+                "altitude,speed,heading\r\n" +
+                "# surface\r\n" +
+                "\r\n" +
+                "3000, 10, 270\r\n" +
+                "1.2e4,25.5,-45\r\n" +
+                "6000,12.25,0"), winds);
+        WindProfile profile = winds.getWinds();
+        assertEquals(3, profile.size());
+        assertEquals(12.25, profile.getSpeed(1));
+        assertEquals(12000, profile.getAltitude(2));
+        assertEquals(-45, profile.getHeading(2));
+    }
+
+    @Test
+    void skipsAHeaderAfterLeadingComments() throws IOException {
+        Winds winds = new Winds();
+        WindsAloftReader.readCsv(stream(
+                "# source: balloon 0900Z\n" +
+                "\n" +
+                "altitude,speed,heading\n" +
+                "3000,10,270\n"), winds);
+        assertEquals(1, winds.size());
+    }
+
+    @Test
+    void onlySkipsAHeaderBeforeTheData() {
+        assertThrows(IllegalArgumentException.class,
+                () -> WindsAloftReader.readCsv(stream("3000,10,270\naltitude,speed,heading\n"), new Winds()));
+    }
+
+    @Test
+    void readsACsvFile(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("winds.csv");
+        Files.writeString(file, "3000,10,270\n6000,12,0\n", StandardCharsets.US_ASCII);
+        Winds winds = new Winds();
+        WindsAloftReader.readCsv(file, winds);
+        assertEquals(2, winds.size());
+        assertFalse(winds.getWinds().isEmpty());
+    }
+
+    @Test
+    void rejectsMalformedCsvRows() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> WindsAloftReader.readCsv(stream("3000,10,270\n6000,twelve,0\n"), new Winds()));
+        assertEquals("Line 2 must have an altitude, speed, and heading separated by commas.", e.getMessage());
+        assertThrows(IllegalArgumentException.class,
+                () -> WindsAloftReader.readCsv(stream("3000,10\n"), new Winds()));
+    }
+}
@@ -0,0 +1,133 @@
+package com.danielarnett;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class WindsMetricsTest {
+    /**
+     * Collects what WindsMetrics.report() hands it.
+     */
+    private static final class CollectingReporter implements MetricsReporter {
+        final List<WindsMetrics.Operation> operations = new ArrayList<>();
+        final List<Long> counts = new ArrayList<>();
+        LogHistogram gridSizes;
+
+        @Override
+        public void report(WindsMetrics.Operation operation, long count, LogHistogram latencies) {
+            operations.add(operation);
+            counts.add(count);
+        }
+
+        @Override
+        public void reportGridSizes(LogHistogram gridSizes) {
+            this.gridSizes = gridSizes;
+        }
+    }
+
+    private static Winds winds() {
+        return new Winds(new double[] { 0, 6000, 15000 }, new double[] { 5, 20, 35 },
+                new double[] { 180, 240, 270 });
+    }
+
+    private static void exercise() {
+        Winds winds = winds();
+        winds.interpolateWindspeedLinearly(100);
+        WindSnapshot snapshot = winds.snapshot();
+        snapshot.getAverageWindspeedInRange(3000, 13500);
+        FreeFallCalculator.calculateDrift(snapshot, JumperProfile.BELLY.getFreefallTable(), 13500, 3000);
+    }
+
+    @BeforeEach
+    @AfterEach
+    void resetMetrics() {
+        WindsMetrics.setEnabled(false);
+        WindsMetrics.reset();
+    }
+
+    @Test
+    void recordsNothingWhileDisabled() {
+        exercise();
+        for (WindsMetrics.Operation operation : WindsMetrics.Operation.values()) {
+            assertEquals(0, WindsMetrics.getCount(operation), operation.name());
+            assertEquals(0, WindsMetrics.getLatencies(operation).getCount(), operation.name());
+        }
+        assertEquals(0, WindsMetrics.getGridSizes().getCount());
+        CollectingReporter reporter = new CollectingReporter();
+        WindsMetrics.report(reporter);
+        assertTrue(reporter.operations.isEmpty());
+        assertNull(reporter.gridSizes);
+    }
+
+    @Test
+    void recordsTheInstrumentedCallsWhileEnabled() {
+        WindsMetrics.setEnabled(true);
+        exercise();
+        assertEquals(1, WindsMetrics.getCount(WindsMetrics.Operation.RANGE_AVERAGE));
+        assertEquals(1, WindsMetrics.getCount(WindsMetrics.Operation.DRIFT));
+        assertEquals(1, WindsMetrics.getLatencies(WindsMetrics.Operation.DRIFT).getCount());
+        assertEquals(1, WindsMetrics.getGridSizes().getCount());
+        WindsMetrics.setEnabled(false);
+        exercise();
+        assertEquals(1, WindsMetrics.getCount(WindsMetrics.Operation.DRIFT));
+    }
+
+    @Test
+    void reportSkipsOperationsThatWereNeverCalled() {
+        WindsMetrics.setEnabled(true);
+        WindsMetrics.stop(WindsMetrics.Operation.DRIFT, WindsMetrics.start());
+        WindsMetrics.stop(WindsMetrics.Operation.BATCH_DRIFT, WindsMetrics.start(), 64);
+        CollectingReporter reporter = new CollectingReporter();
+        WindsMetrics.report(reporter);
+        assertEquals(List.of(WindsMetrics.Operation.DRIFT, WindsMetrics.Operation.BATCH_DRIFT), reporter.operations);
+        assertEquals(List.of(1L, 64L), reporter.counts);
+        assertNull(reporter.gridSizes);
+
+        WindsMetrics.recordGridSize(100);
+        WindsMetrics.report(reporter);
+        assertEquals(1, reporter.gridSizes.getCount());
+    }
+
+    @Test
+    void jfrReporterEmitsAnEventPerOperationCalled(@TempDir Path dir) throws IOException {
+        WindsMetrics.setEnabled(true);
+        WindsMetrics.stop(WindsMetrics.Operation.DRIFT, WindsMetrics.start());
+        WindsMetrics.stop(WindsMetrics.Operation.RANGE_AVERAGE, WindsMetrics.start());
+        WindsMetrics.recordGridSize(100);
+        Path file = dir.resolve("metrics.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.danielarnett.WindsMetrics");
+            recording.enable("com.danielarnett.WindsGridSizes");
+            recording.start();
+            WindsMetrics.report(JfrMetricsReporter.getInstance());
+            recording.stop();
+            recording.dump(file);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        List<String> operations = events.stream()
+                .filter(event -> event.getEventType().getName().equals("com.danielarnett.WindsMetrics"))
+                .map(event -> event.getString("operation"))
+                .sorted()
+                .collect(Collectors.toList());
+        assertEquals(List.of("DRIFT", "RANGE_AVERAGE"), operations);
+        List<RecordedEvent> gridSizes = events.stream()
+                .filter(event -> event.getEventType().getName().equals("com.danielarnett.WindsGridSizes"))
+                .collect(Collectors.toList());
+        assertEquals(1, gridSizes.size());
+        assertEquals(100, gridSizes.get(0).getLong("max"));
+    }
+}
@@ -0,0 +1,49 @@
+package com.danielarnett;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+class WindsTest {
+    private static Winds winds() {
+        Winds winds = new Winds();
+        winds.addWind(3000, 10,  90);
+        winds.addWind(4000, 20, 180);
+        return winds;
+    }
+
+    @Test
+    void interpolatesAGridBetweenTheMeasuredWinds() {
+        Winds winds = winds();
+        winds.interpolateWindspeedLinearly(10);
+        WindProfile grid = winds.getInterpolatedWinds();
+        assertEquals(11, grid.size());
+        assertEquals(3500, grid.getAltitude(5), 1e-9);
+        // Halfway between 10 mph east and 20 mph south
+        assertEquals(Math.hypot(5, 10), grid.getSpeed(5), 1e-9);
+        assertEquals(20, grid.getSpeed(10));
+        assertEquals(180, grid.getHeading(10));
+    }
+
+    @Test
+    void rejectsStepCountsThatAreNotPositiveAndFinite() {
+        Winds winds = winds();
+        for (double steps : new double[] { -10, 0, Double.NaN, Double.POSITIVE_INFINITY }) {
+            assertThrows(IllegalArgumentException.class, () -> winds.interpolateWindspeedLinearly(steps),
+                    String.valueOf(steps));
+        }
+        assertFalse(winds.isInterpolated());
+        assertEquals(0, winds.getInterpolationCount());
+    }
+
+    @Test
+    void profilesHandedOutAreCopies() {
+        Winds winds = winds();
+        WindProfile before = winds.getWinds();
+        winds.addWind(5000, 30, 270);
+        assertEquals(2, before.size());
+        assertEquals(3, winds.getWinds().size());
+    }
+}